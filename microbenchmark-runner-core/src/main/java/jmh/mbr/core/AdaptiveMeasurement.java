@@ -0,0 +1,333 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Statistics;
+
+/**
+ * Convergence-driven measurement. Runs benchmarks with the configured options first and then keeps adding measurement
+ * rounds (an additional fork with the configured measurement iterations each) for benchmarks whose 99.9% confidence
+ * interval of the primary score is wider than the target relative width. Stops once all benchmarks converged or
+ * reached the maximum number of measurement iterations.
+ * <p>
+ * Completion of benchmarks is reported to the {@link OutputFormat} once the benchmark converged so test listeners see
+ * each benchmark start and finish once. A benchmark whose additional round failed is reported as failed. The number of measurement iterations actually spent is attached as secondary
+ * result {@value #ITERATIONS_LABEL}.
+ */
+class AdaptiveMeasurement {
+
+	static final String ITERATIONS_LABEL = "measurement.iterations";
+
+	private static final double CONFIDENCE = 0.999;
+
+	private final double targetWidth;
+	private final int maxIterations;
+
+	AdaptiveMeasurement(double targetWidth, int maxIterations) {
+		this.targetWidth = targetWidth;
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * Run benchmarks until their results converge.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @param output the {@link OutputFormat} to report progress to.
+	 * @return the merged {@link RunResult}s.
+	 * @throws RunnerException if JMH fails.
+	 */
+	Collection<RunResult> run(Options options, OutputFormat output) throws RunnerException {
+
+		DeferringOutputFormat deferring = new DeferringOutputFormat(output);
+		Map<String, RunResult> results = new LinkedHashMap<>();
+		Set<String> exhausted = new HashSet<>();
+
+		for (RunResult result : new Runner(options, deferring).run()) {
+			results.put(getKey(result.getParams()), result);
+		}
+
+		deferring.suppressLifecycle();
+
+		List<RunResult> pending = getPending(results, exhausted);
+		while (!pending.isEmpty()) {
+
+			for (RunResult result : pending) {
+
+				String key = getKey(result.getParams());
+				Collection<RunResult> round = new Runner(createRoundOptions(options, result), deferring).run();
+
+				if (round.isEmpty()) {
+					exhausted.add(key);
+					continue;
+				}
+
+				for (RunResult additional : round) {
+					results.merge(getKey(additional.getParams()), additional, AdaptiveMeasurement::merge);
+				}
+			}
+
+			pending = getPending(results, exhausted);
+		}
+
+		for (RunResult result : results.values()) {
+			BenchmarkResult benchmarkResult = result.getBenchmarkResults().iterator().next();
+			benchmarkResult.addBenchmarkResult(
+					new ScalarResult(ITERATIONS_LABEL, getIterationCount(result), "#", AggregationPolicy.MAX));
+		}
+
+		deferring.complete(results.values());
+
+		return new ArrayList<>(results.values());
+	}
+
+	private List<RunResult> getPending(Map<String, RunResult> results, Set<String> exhausted) {
+
+		List<RunResult> pending = new ArrayList<>();
+
+		results.forEach((key, result) -> {
+			if (!exhausted.contains(key) && !isConverged(result) && getIterationCount(result) < maxIterations) {
+				pending.add(result);
+			}
+		});
+
+		return pending;
+	}
+
+	/**
+	 * Check whether the relative width of the confidence interval of the primary score is within the target width.
+	 *
+	 * @param result must not be {@literal null}.
+	 * @return {@literal true} if the result converged.
+	 */
+	boolean isConverged(RunResult result) {
+
+		Statistics statistics = result.getPrimaryResult().getStatistics();
+
+		if (statistics.getN() < 2) {
+			return false;
+		}
+
+		double[] interval = statistics.getConfidenceIntervalAt(CONFIDENCE);
+		double width = (interval[1] - interval[0]) / Math.abs(statistics.getMean());
+
+		return width <= targetWidth;
+	}
+
+	/**
+	 * Create {@link Options} for an additional measurement round that runs only the benchmark fixture of {@code result}.
+	 */
+	Options createRoundOptions(Options options, RunResult result) {
+
+		BenchmarkParams params = result.getParams();
+		IterationParams measurement = params.getMeasurement();
+		int iterations = Math.min(measurement.getCount(), maxIterations - getIterationCount(result));
+
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(options) //
+				.exclude(JmhSupport.excludeAllExcept(Collections.singleton(params.getBenchmark()))) //
+				.mode(params.getMode()) //
+				.threads(params.getThreads()) //
+				.forks(params.getForks() == 0 ? 0 : 1) //
+				.warmupForks(0) //
+				.measurementIterations(Math.max(iterations, 1));
+
+		for (String key : params.getParamsKeys()) {
+			builder = builder.param(key, params.getParam(key));
+		}
+
+		return builder.build();
+	}
+
+	private static RunResult merge(RunResult result, RunResult additional) {
+
+		List<BenchmarkResult> benchmarkResults = new ArrayList<>(result.getBenchmarkResults());
+		benchmarkResults.addAll(additional.getBenchmarkResults());
+
+		return new RunResult(result.getParams(), benchmarkResults);
+	}
+
+	private static int getIterationCount(RunResult result) {
+		return result.getBenchmarkResults().stream().mapToInt(it -> it.getIterationResults().size()).sum();
+	}
+
+	private static String getKey(BenchmarkParams params) {
+
+		StringBuilder key = new StringBuilder(params.getBenchmark()).append('-').append(params.getMode()).append('-')
+				.append(params.getThreads());
+
+		for (String param : params.getParamsKeys()) {
+			key.append('-').append(param).append('=').append(params.getParam(param));
+		}
+
+		return key.toString();
+	}
+
+	/**
+	 * {@link OutputFormat} that defers benchmark completion until all measurement rounds are done. Lifecycle callbacks
+	 * of additional rounds are suppressed so each benchmark starts and finishes once. Failures of additional rounds are
+	 * collected along with their cause and reported on completion.
+	 */
+	static class DeferringOutputFormat implements OutputFormat {
+
+		private final OutputFormat delegate;
+		private final Map<String, List<String>> failures = new LinkedHashMap<>();
+
+		private volatile boolean suppressLifecycle;
+		private String current;
+		private List<String> cause;
+
+		DeferringOutputFormat(OutputFormat delegate) {
+			this.delegate = delegate;
+		}
+
+		void suppressLifecycle() {
+			this.suppressLifecycle = true;
+		}
+
+		/**
+		 * Report completion of all benchmarks along with their merged results.
+		 *
+		 * @param results the merged results.
+		 */
+		void complete(Collection<RunResult> results) {
+
+			for (RunResult result : results) {
+
+				List<String> failure = failures.get(getKey(result.getParams()));
+
+				if (failure != null) {
+					BenchmarkFailure.report(delegate, false, failure);
+				} else {
+					delegate.endBenchmark(result.getAggregatedResult());
+				}
+			}
+
+			delegate.endRun(results);
+		}
+
+		@Override
+		public void iteration(BenchmarkParams benchParams, IterationParams params, int iteration) {
+			delegate.iteration(benchParams, params, iteration);
+		}
+
+		@Override
+		public void iterationResult(BenchmarkParams benchParams, IterationParams params, int iteration,
+				IterationResult data) {
+			delegate.iterationResult(benchParams, params, iteration, data);
+		}
+
+		@Override
+		public void startBenchmark(BenchmarkParams benchParams) {
+
+			current = getKey(benchParams);
+
+			if (!suppressLifecycle) {
+				delegate.startBenchmark(benchParams);
+			}
+		}
+
+		@Override
+		public void endBenchmark(BenchmarkResult result) {
+
+			// failures are reported right away, successful results once converged
+			if (result == null && !suppressLifecycle) {
+				delegate.endBenchmark(null);
+			}
+
+			if (result == null && suppressLifecycle) {
+				failures.put(current, cause != null ? cause
+						: Collections.singletonList("Additional measurement round of " + current + " failed."));
+			}
+
+			cause = null;
+		}
+
+		@Override
+		public void startRun() {
+
+			if (!suppressLifecycle) {
+				delegate.startRun();
+			}
+		}
+
+		@Override
+		public void endRun(Collection<RunResult> result) {}
+
+		@Override
+		public void print(String s) {
+
+			if (cause != null) {
+				cause.add(s);
+			} else {
+				delegate.print(s);
+			}
+		}
+
+		@Override
+		public void println(String s) {
+
+			// keep failure output of additional rounds until the benchmark is completed
+			if (cause != null) {
+				cause.add(s);
+			} else if (suppressLifecycle && BenchmarkFailure.isMarker(s)) {
+				cause = new ArrayList<>();
+			} else {
+				delegate.println(s);
+			}
+		}
+
+		@Override
+		public void flush() {
+			delegate.flush();
+		}
+
+		@Override
+		public void close() {
+			delegate.close();
+		}
+
+		@Override
+		public void verbosePrintln(String s) {
+			delegate.verbosePrintln(s);
+		}
+
+		@Override
+		public void write(int b) {
+			delegate.write(b);
+		}
+
+		@Override
+		public void write(byte[] b) throws IOException {
+			delegate.write(b);
+		}
+	}
+}
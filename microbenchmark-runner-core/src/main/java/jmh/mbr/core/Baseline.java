@@ -0,0 +1,374 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.util.ScoreFormatter;
+
+/**
+ * Baseline results to compare benchmark results against. Baselines are read from JMH JSON result files. Results are
+ * matched by benchmark name, mode, thread count and parameters including run dimensions. Baseline scores are converted
+ * to the time unit of the result. A result regressed if it is worse than its baseline by more than the configured
+ * threshold and the difference is significant. Significance is determined by {@link ResultComparison} if per-iteration
+ * raw data is available on both sides and there are enough samples to reach its significance level, otherwise by
+ * non-overlapping confidence intervals.
+ */
+public class Baseline {
+
+	private static final Baseline NONE = new Baseline(Collections.emptyMap(), 0);
+	private static final ResultComparison COMPARISON = ResultComparison.create();
+
+	private final Map<String, Entry> entries;
+	private final double threshold;
+
+	private Baseline(Map<String, Entry> entries, double threshold) {
+		this.entries = entries;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * @return a {@link Baseline} without entries.
+	 */
+	public static Baseline none() {
+		return NONE;
+	}
+
+	/**
+	 * Load a baseline from a JMH JSON result file or from the most recent JSON result file in a directory.
+	 *
+	 * @param location path to a JSON file or a directory of JSON files.
+	 * @param threshold relative score difference (such as {@code 0.05} for 5%) that is tolerated.
+	 * @return the {@link Baseline}.
+	 * @throws IllegalArgumentException if the baseline cannot be read.
+	 */
+	public static Baseline load(String location, double threshold) {
+
+		File file = resolve(new File(location));
+
+		try {
+			return from(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), threshold);
+		} catch (IOException e) {
+			throw new IllegalArgumentException(String.format("Cannot read baseline %s", file), e);
+		}
+	}
+
+	/**
+	 * Create a baseline from JMH JSON.
+	 *
+	 * @param json JMH JSON result document.
+	 * @param threshold relative score difference (such as {@code 0.05} for 5%) that is tolerated.
+	 * @return the {@link Baseline}.
+	 */
+	@SuppressWarnings("unchecked")
+	static Baseline from(String json, double threshold) {
+
+		Map<String, Entry> entries = new HashMap<>();
+
+		for (Object item : (List<Object>) JsonReader.read(json)) {
+
+			Map<String, Object> benchmark = (Map<String, Object>) item;
+			Map<String, Object> primaryMetric = (Map<String, Object>) benchmark.get("primaryMetric");
+			Map<String, String> params = new HashMap<>();
+
+			if (benchmark.get("params") instanceof Map) {
+				((Map<String, Object>) benchmark.get("params")).forEach((key, value) -> params.put(key, String.valueOf(value)));
+			}
+
+			double[] confidence = { Double.NaN, Double.NaN };
+			if (primaryMetric.get("scoreConfidence") instanceof List) {
+
+				List<Object> interval = (List<Object>) primaryMetric.get("scoreConfidence");
+				confidence = new double[] { JsonReader.toDouble(interval.get(0)), JsonReader.toDouble(interval.get(1)) };
+			}
+
+			List<Double> samples = new ArrayList<>();
+			if (primaryMetric.get("rawData") instanceof List) {
+				for (Object fork : (List<Object>) primaryMetric.get("rawData")) {
+					((List<Object>) fork).forEach(it -> samples.add(JsonReader.toDouble(it)));
+				}
+			}
+
+			Entry entry = new Entry(JsonReader.toDouble(primaryMetric.get("score")),
+					JsonReader.toDouble(primaryMetric.get("scoreError")), confidence,
+					String.valueOf(primaryMetric.get("scoreUnit")),
+					samples.stream().mapToDouble(Double::doubleValue).toArray());
+
+			int threads = (int) JsonReader.toDouble(benchmark.get("threads"));
+			entries.put(getKey((String) benchmark.get("benchmark"), (String) benchmark.get("mode"), threads, params),
+					entry);
+		}
+
+		return new Baseline(entries, threshold);
+	}
+
+	/**
+	 * Compare a {@link BenchmarkResult} with its baseline.
+	 *
+	 * @param result must not be {@literal null}.
+	 * @return the {@link Regression} or {@link Optional#empty()} if the result has no baseline or did not regress.
+	 */
+	public Optional<Regression> compare(BenchmarkResult result) {
+
+		BenchmarkParams params = result.getParams();
+		Entry entry = entries.get(getKey(params));
+
+		if (entry == null) {
+			return Optional.empty();
+		}
+
+		Result<?> actual = result.getPrimaryResult();
+		Entry baseline = entry.convertTo(actual.getScoreUnit());
+
+		if (baseline == null) {
+			return Optional.of(new Regression(String.format(
+					"%s cannot be compared to baseline, baseline unit %s does not match %s", params.getBenchmark(),
+					entry.unit, actual.getScoreUnit()), Double.NaN, entry.format(), ResultUtils.format(actual)));
+		}
+
+		boolean higherIsBetter = params.getMode() == Mode.Throughput;
+		double change = (actual.getScore() - baseline.score) / baseline.score;
+		double regression = higherIsBetter ? -change : change;
+
+		if (Double.isNaN(regression) || regression <= threshold || !isSignificant(baseline, result)) {
+			return Optional.empty();
+		}
+
+		return Optional.of(new Regression(String.format("%s regressed by %.1f%% compared to baseline",
+				params.getBenchmark(), regression * 100), regression, baseline.format(), ResultUtils.format(actual)));
+	}
+
+	/**
+	 * @return {@literal true} if this baseline has no entries.
+	 */
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	private static boolean isSignificant(Entry baseline, BenchmarkResult result) {
+
+		double[] samples = ResultComparison.getSamples(result);
+
+		if (baseline.samples.length > 1 && samples.length > 1
+				&& COMPARISON.isSignificanceReachable(baseline.samples.length, samples.length)) {
+			return COMPARISON.compare(result.getParams(), baseline.samples, samples)
+					.getVerdict() == ResultComparison.Verdict.REGRESSED;
+		}
+
+		return isSeparated(baseline.confidence, result.getPrimaryResult().getScoreConfidence());
+	}
+
+	/**
+	 * Check whether confidence intervals do not overlap. Unknown intervals (such as of results with less than three
+	 * iterations) are not considered separated.
+	 */
+	private static boolean isSeparated(double[] baseline, double[] actual) {
+
+		if (Double.isNaN(baseline[0]) || Double.isNaN(actual[0])) {
+			return false;
+		}
+
+		return baseline[1] < actual[0] || actual[1] < baseline[0];
+	}
+
+	private static File resolve(File location) {
+
+		if (!location.isDirectory()) {
+			return location;
+		}
+
+		File[] files = location.listFiles((dir, name) -> name.endsWith(".json"));
+
+		if (files == null || files.length == 0) {
+			throw new IllegalArgumentException(String.format("No JSON result files in baseline directory %s", location));
+		}
+
+		return Arrays.stream(files).max(Comparator.comparingLong(File::lastModified)).get();
+	}
+
+	private static String getKey(BenchmarkParams params) {
+
+		Map<String, String> values = new HashMap<>();
+		params.getParamsKeys().forEach(key -> values.put(key, params.getParam(key)));
+
+		return getKey(params.getBenchmark(), params.getMode().shortLabel(), params.getThreads(), values);
+	}
+
+	/**
+	 * Create a key from benchmark name, mode, thread count and parameters. Run dimension parameters are part of the key
+	 * so that results of one JVM or JVM argument set are compared with the baseline of the same run. The execution
+	 * parameter is not part of the key as it is added to results of in-process runs only.
+	 */
+	private static String getKey(String benchmark, String mode, int threads, Map<String, String> params) {
+
+		Map<String, String> sorted = new TreeMap<>(params);
+		sorted.remove(IsolatedExecution.EXECUTION_PARAMETER);
+
+		return benchmark + " " + mode + " " + threads + " " + sorted;
+	}
+
+	/**
+	 * A baseline score.
+	 */
+	static class Entry {
+
+		private final double score;
+		private final double error;
+		private final double[] confidence;
+		private final String unit;
+		private final double[] samples;
+
+		Entry(double score, double error, double[] confidence, String unit, double[] samples) {
+			this.score = score;
+			this.error = error;
+			this.confidence = confidence;
+			this.unit = unit;
+			this.samples = samples;
+		}
+
+		/**
+		 * Convert this entry to another score unit, such as from {@code ops/ms} to {@code ops/s} or from {@code ms/op}
+		 * to {@code us/op}.
+		 *
+		 * @param target the score unit of the result.
+		 * @return the converted {@link Entry} or {@literal null} if the units are not convertible.
+		 */
+		Entry convertTo(String target) {
+
+			if (unit.equals(target)) {
+				return this;
+			}
+
+			double factor = getConversionFactor(unit, target);
+
+			if (Double.isNaN(factor)) {
+				return null;
+			}
+
+			return new Entry(score * factor, error * factor,
+					new double[] { confidence[0] * factor, confidence[1] * factor }, target,
+					Arrays.stream(samples).map(it -> it * factor).toArray());
+		}
+
+		private static double getConversionFactor(String source, String target) {
+
+			if (source.startsWith("ops/") && target.startsWith("ops/")) {
+				return toNanos(target.substring(4)) / toNanos(source.substring(4));
+			}
+
+			if (source.endsWith("/op") && target.endsWith("/op")) {
+				return toNanos(source.substring(0, source.length() - 3))
+						/ toNanos(target.substring(0, target.length() - 3));
+			}
+
+			return Double.NaN;
+		}
+
+		/**
+		 * Resolve a JMH time unit label to nanoseconds.
+		 */
+		private static double toNanos(String timeUnit) {
+
+			switch (timeUnit) {
+				case "ns":
+					return 1;
+				case "us":
+					return TimeUnit.MICROSECONDS.toNanos(1);
+				case "ms":
+					return TimeUnit.MILLISECONDS.toNanos(1);
+				case "s":
+					return TimeUnit.SECONDS.toNanos(1);
+				case "min":
+					return TimeUnit.MINUTES.toNanos(1);
+				case "hr":
+					return TimeUnit.HOURS.toNanos(1);
+				case "day":
+					return TimeUnit.DAYS.toNanos(1);
+				default:
+					return Double.NaN;
+			}
+		}
+
+		String format() {
+
+			StringBuilder sb = new StringBuilder(ScoreFormatter.format(score));
+
+			if (!Double.isNaN(error)) {
+				sb.append(" ± ").append(ScoreFormatter.formatError(error));
+			}
+
+			return sb.append(' ').append(unit).toString();
+		}
+	}
+
+	/**
+	 * A result that regressed compared to its baseline.
+	 */
+	public static class Regression {
+
+		private final String message;
+		private final double regression;
+		private final String expected;
+		private final String actual;
+
+		Regression(String message, double regression, String expected, String actual) {
+			this.message = message;
+			this.regression = regression;
+			this.expected = expected;
+			this.actual = actual;
+		}
+
+		/**
+		 * @return the formatted baseline score.
+		 */
+		public String getExpected() {
+			return expected;
+		}
+
+		/**
+		 * @return the formatted actual score.
+		 */
+		public String getActual() {
+			return actual;
+		}
+
+		/**
+		 * @return relative regression, such as {@code 0.1} for a 10% regression. {@link Double#NaN} if the result cannot
+		 *         be compared to its baseline.
+		 */
+		public double getRegression() {
+			return regression;
+		}
+
+		/**
+		 * @return the failure message.
+		 */
+		public String getMessage() {
+			return message;
+		}
+	}
+}
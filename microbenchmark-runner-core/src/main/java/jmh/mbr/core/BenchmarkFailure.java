@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.util.List;
+
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * Reports failures of the benchmark in progress the way JMH does: runners collect the output following the
+ * {@value #MARKER} line and report it as failure cause once the benchmark ends with
+ * {@link OutputFormat#endBenchmark(org.openjdk.jmh.results.BenchmarkResult) endBenchmark(null)}.
+ */
+class BenchmarkFailure {
+
+	static final String MARKER = "<failure>";
+
+	private BenchmarkFailure() {}
+
+	/**
+	 * @param line the printed line.
+	 * @return {@literal true} if {@code line} starts a failure cause.
+	 */
+	static boolean isMarker(String line) {
+		return MARKER.equals(line);
+	}
+
+	/**
+	 * Fail the benchmark in progress.
+	 *
+	 * @param output must not be {@literal null}.
+	 * @param marked whether the {@value #MARKER} line was already printed, e.g. by JMH for a failed fork.
+	 * @param cause lines describing the failure.
+	 */
+	static void report(OutputFormat output, boolean marked, List<String> cause) {
+
+		if (!marked) {
+			output.println(MARKER);
+		}
+
+		cause.forEach(output::println);
+		output.endBenchmark(null);
+	}
+}
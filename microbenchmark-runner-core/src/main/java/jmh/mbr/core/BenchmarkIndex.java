@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index of benchmark methods and fixtures by benchmark name ({@code fqcn + "." + method name}) and parameter values.
+ * Parameter values are keyed by their {@link Map} representation so that lookups do not depend on parameter order.
+ * The index is built once before running benchmarks to resolve JMH callbacks in constant time regardless of the number
+ * of fixtures.
+ *
+ * @param <T> the descriptor type.
+ */
+public class BenchmarkIndex<T> {
+
+	private final Map<String, T> methods = new HashMap<>();
+	private final Map<String, Map<Map<String, String>, T>> fixtures = new HashMap<>();
+
+	/**
+	 * Register a benchmark method.
+	 *
+	 * @param benchmark the benchmark name ({@code fqcn + "." + method name}).
+	 * @param descriptor the descriptor.
+	 */
+	public void addMethod(String benchmark, T descriptor) {
+		methods.putIfAbsent(benchmark, descriptor);
+	}
+
+	/**
+	 * Register a benchmark fixture.
+	 *
+	 * @param benchmark the benchmark name ({@code fqcn + "." + method name}).
+	 * @param fixture parameter names mapped to their values, see {@link jmh.mbr.core.model.BenchmarkFixture#getFixture()}.
+	 * @param descriptor the descriptor.
+	 */
+	public void addFixture(String benchmark, Map<String, ?> fixture, T descriptor) {
+
+		Map<String, String> key = new HashMap<>(fixture.size() * 2);
+		fixture.forEach((name, value) -> key.put(name, String.valueOf(value)));
+
+		fixtures.computeIfAbsent(benchmark, it -> new HashMap<>()).putIfAbsent(key, descriptor);
+	}
+
+	/**
+	 * Resolve a benchmark method.
+	 *
+	 * @param benchmark the benchmark name ({@code fqcn + "." + method name}).
+	 * @return the method descriptor.
+	 * @throws IllegalArgumentException if the benchmark is not indexed.
+	 */
+	public T getMethod(String benchmark) {
+
+		T method = methods.get(benchmark);
+
+		if (method == null) {
+			throw new IllegalArgumentException(String.format("Cannot resolve %s to a BenchmarkDescriptor!", benchmark));
+		}
+
+		return method;
+	}
+
+	/**
+	 * Resolve the fixture of a benchmark.
+	 *
+	 * @param benchmark the benchmark name ({@code fqcn + "." + method name}).
+	 * @param fixture the fixture values as obtained from
+	 *          {@link JmhSupport#getFixture(org.openjdk.jmh.infra.BenchmarkParams)}.
+	 * @return the fixture descriptor or {@literal null} if the benchmark has no fixture with the given values.
+	 */
+	public T getFixture(String benchmark, Map<String, String> fixture) {
+		return fixtures.getOrDefault(benchmark, Collections.emptyMap()).get(fixture);
+	}
+
+	/**
+	 * @param benchmark the benchmark name ({@code fqcn + "." + method name}).
+	 * @return {@literal true} if fixtures are registered for {@code benchmark}.
+	 */
+	public boolean hasFixtures(String benchmark) {
+		return fixtures.containsKey(benchmark);
+	}
+}
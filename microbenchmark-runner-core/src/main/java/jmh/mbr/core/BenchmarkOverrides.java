@@ -0,0 +1,282 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+
+/**
+ * Per-class and per-method benchmark option overrides loaded from {@value #RESOURCE_NAME} files on the class path. Keys
+ * consist of a class name glob pattern (optionally followed by {@code #} and a method name glob pattern) and the option
+ * name, e.g.:
+ *
+ * <pre class="code">
+ * com.example.*Benchmark.forks=1
+ * com.example.SlowBenchmark#parse*.measurementIterations=20
+ * com.example.SlowBenchmark.param.size=10,100
+ * com.example.SlowBenchmark.jvmArgs=-Xmx1g
+ * </pre>
+ *
+ * Method patterns take precedence over class patterns, longer patterns take precedence over shorter ones.
+ */
+class BenchmarkOverrides {
+
+	static final String RESOURCE_NAME = "microbenchmark.properties";
+
+	private static final String PARAM_PREFIX = "param.";
+	private static final List<String> OPTIONS = Arrays.asList("warmupIterations", "warmupTime", "measurementIterations",
+			"measurementTime", "forks", "threads", "jvmArgs");
+
+	private final List<Rule> rules;
+
+	private BenchmarkOverrides(List<Rule> rules) {
+		this.rules = rules;
+	}
+
+	/**
+	 * Load overrides from {@value #RESOURCE_NAME} files.
+	 *
+	 * @param classLoader the {@link ClassLoader} to look up override files.
+	 * @return the {@link BenchmarkOverrides}.
+	 */
+	static BenchmarkOverrides load(ClassLoader classLoader) {
+
+		Properties properties = new Properties();
+
+		try {
+
+			Enumeration<URL> resources = classLoader.getResources(RESOURCE_NAME);
+			while (resources.hasMoreElements()) {
+
+				try (InputStream is = resources.nextElement().openStream()) {
+					properties.load(is);
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(String.format("Cannot load benchmark overrides from %s", RESOURCE_NAME), e);
+		}
+
+		return from(properties);
+	}
+
+	/**
+	 * Create {@link BenchmarkOverrides} from {@link Properties}.
+	 *
+	 * @param properties must not be {@literal null}.
+	 * @return the {@link BenchmarkOverrides}.
+	 */
+	static BenchmarkOverrides from(Properties properties) {
+
+		Map<String, Rule> rules = new LinkedHashMap<>();
+
+		for (String key : properties.stringPropertyNames()) {
+
+			int paramIndex = key.lastIndexOf("." + PARAM_PREFIX);
+			int separator = paramIndex != -1 ? paramIndex : key.lastIndexOf('.');
+
+			if (separator < 1) {
+				throw new IllegalArgumentException(String.format("Invalid benchmark override '%s'", key));
+			}
+
+			String pattern = key.substring(0, separator);
+			String option = key.substring(separator + 1);
+
+			if (!option.startsWith(PARAM_PREFIX) && !OPTIONS.contains(option)) {
+				throw new IllegalArgumentException(
+						String.format("Unknown option '%s' in benchmark override '%s'. Supported options: %s, param.<name>",
+								option, key, OPTIONS));
+			}
+
+			rules.computeIfAbsent(pattern, Rule::new).options.put(option, properties.getProperty(key).trim());
+		}
+
+		List<Rule> ordered = new ArrayList<>(rules.values());
+		ordered.sort(Comparator.comparing((Rule it) -> it.methodPattern != null).thenComparingInt(it -> it.pattern.length()));
+
+		return new BenchmarkOverrides(ordered);
+	}
+
+	boolean isEmpty() {
+		return rules.isEmpty();
+	}
+
+	/**
+	 * Resolve the effective overrides for a benchmark.
+	 *
+	 * @param benchmark the benchmark name ({@code fqcn + "." + method name}).
+	 * @return option names mapped to their values. Empty if no override applies.
+	 */
+	Map<String, String> getOverrides(String benchmark) {
+
+		int separator = benchmark.lastIndexOf('.');
+		String className = separator == -1 ? benchmark : benchmark.substring(0, separator);
+		String methodName = benchmark.substring(separator + 1);
+
+		Map<String, String> options = new LinkedHashMap<>();
+
+		for (Rule rule : rules) {
+			if (rule.matches(className, methodName)) {
+				options.putAll(rule.options);
+			}
+		}
+
+		return options;
+	}
+
+	/**
+	 * @param benchmark the benchmark name ({@code fqcn + "." + method name}).
+	 * @return {@literal true} if {@code param.<name>} overrides restrict the parameters of {@code benchmark}.
+	 */
+	boolean hasParameters(String benchmark) {
+		return !getParameters(benchmark).isEmpty();
+	}
+
+	/**
+	 * Resolve the {@code param.<name>} overrides for a benchmark.
+	 *
+	 * @param benchmark the benchmark name ({@code fqcn + "." + method name}).
+	 * @return parameter names mapped to their values. Empty if no parameter override applies.
+	 */
+	Map<String, List<String>> getParameters(String benchmark) {
+
+		Map<String, List<String>> parameters = new LinkedHashMap<>();
+
+		getOverrides(benchmark).forEach((option, value) -> {
+			if (option.startsWith(PARAM_PREFIX)) {
+				parameters.put(option.substring(PARAM_PREFIX.length()), splitValues(value));
+			}
+		});
+
+		return parameters;
+	}
+
+	/**
+	 * Apply overrides to {@link ChainedOptionsBuilder}.
+	 *
+	 * @param optionsBuilder must not be {@literal null}.
+	 * @param overrides option names mapped to their values.
+	 * @return {@link ChainedOptionsBuilder} with options applied.
+	 */
+	static ChainedOptionsBuilder apply(ChainedOptionsBuilder optionsBuilder, Map<String, String> overrides) {
+
+		for (Map.Entry<String, String> entry : overrides.entrySet()) {
+
+			String option = entry.getKey();
+			String value = entry.getValue();
+
+			if (option.startsWith(PARAM_PREFIX)) {
+				optionsBuilder = optionsBuilder.param(option.substring(PARAM_PREFIX.length()),
+						splitValues(value).toArray(new String[0]));
+				continue;
+			}
+
+			switch (option) {
+				case "warmupIterations":
+					optionsBuilder = optionsBuilder.warmupIterations(Integer.parseInt(value));
+					break;
+				case "warmupTime":
+					optionsBuilder = optionsBuilder.warmupTime(JmhSupport.parseTime(value));
+					break;
+				case "measurementIterations":
+					optionsBuilder = optionsBuilder.measurementIterations(Integer.parseInt(value));
+					break;
+				case "measurementTime":
+					optionsBuilder = optionsBuilder.measurementTime(JmhSupport.parseTime(value));
+					break;
+				case "forks":
+					optionsBuilder = optionsBuilder.forks(Integer.parseInt(value));
+					break;
+				case "warmupForks":
+					optionsBuilder = optionsBuilder.warmupForks(Integer.parseInt(value));
+					break;
+				case "threads":
+					optionsBuilder = optionsBuilder.threads(Integer.parseInt(value));
+					break;
+				case "jvmArgs":
+					optionsBuilder = optionsBuilder.jvmArgsAppend(JmhSupport.splitArgs(value).toArray(new String[0]));
+					break;
+			}
+		}
+
+		return optionsBuilder;
+	}
+
+	private static List<String> splitValues(String value) {
+		return Arrays.stream(value.split(",")).map(String::trim).collect(Collectors.toList());
+	}
+
+	/**
+	 * Convert a glob pattern ({@code *} and {@code ?} wildcards) to a {@link Pattern}.
+	 */
+	static Pattern toPattern(String glob) {
+
+		StringBuilder regex = new StringBuilder();
+		StringBuilder literal = new StringBuilder();
+
+		for (char c : glob.toCharArray()) {
+
+			if (c == '*' || c == '?') {
+
+				if (literal.length() > 0) {
+					regex.append(Pattern.quote(literal.toString()));
+					literal.setLength(0);
+				}
+
+				regex.append(c == '*' ? ".*" : ".");
+			} else {
+				literal.append(c);
+			}
+		}
+
+		if (literal.length() > 0) {
+			regex.append(Pattern.quote(literal.toString()));
+		}
+
+		return Pattern.compile(regex.toString());
+	}
+
+	/**
+	 * Overrides for a class (and optionally method) pattern.
+	 */
+	static class Rule {
+
+		private final String pattern;
+		private final Pattern classPattern;
+		private final Pattern methodPattern;
+		private final Map<String, String> options = new LinkedHashMap<>();
+
+		Rule(String pattern) {
+
+			this.pattern = pattern;
+
+			int separator = pattern.indexOf('#');
+			this.classPattern = toPattern(separator == -1 ? pattern : pattern.substring(0, separator));
+			this.methodPattern = separator == -1 ? null : toPattern(pattern.substring(separator + 1));
+		}
+
+		boolean matches(String className, String methodName) {
+			return classPattern.matcher(className).matches()
+					&& (methodPattern == null || methodPattern.matcher(methodName).matches());
+		}
+	}
+}
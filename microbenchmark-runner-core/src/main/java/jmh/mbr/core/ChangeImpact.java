@@ -0,0 +1,425 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Selects benchmarks affected by code changes. Each benchmark class is hashed along with all classes reachable from its
+ * class file (including {@code @State} classes referenced by {@code @Benchmark} method signatures), following constant
+ * pool and type descriptor references. Classes loaded from directories are hashed by content, classes from JAR files
+ * by JAR size and modification time. JDK classes (from the runtime image or from JAR files of the running JDK, such as
+ * {@code rt.jar} on Java 8) are not considered.
+ * <p>
+ * Hashes and formatted results of benchmarks that passed are recorded in a properties file. A benchmark is considered
+ * unchanged if its recorded hash matches the current hash of its benchmark class. Benchmarks that ran only a subset of
+ * their fixtures (selected fixtures, sampled parameters or {@code param.<name>} overrides) are not recorded as their
+ * results do not cover the benchmark.
+ */
+public class ChangeImpact {
+
+	private static final ChangeImpact NONE = new ChangeImpact(null, new Properties(), null,
+			BenchmarkOverrides.from(new Properties()));
+
+	private static final Pattern TYPE_DESCRIPTOR = Pattern.compile("L([\\w/$]+)[;<]");
+	private static final File JAVA_HOME = getJavaHome();
+
+	private final File file;
+	private final Properties state;
+	private final ClassLoader classLoader;
+	private final BenchmarkOverrides overrides;
+	private final Map<String, String> hashes = new HashMap<>();
+
+	private ChangeImpact(File file, Properties state, ClassLoader classLoader, BenchmarkOverrides overrides) {
+		this.file = file;
+		this.state = state;
+		this.classLoader = classLoader;
+		this.overrides = overrides;
+	}
+
+	/**
+	 * @return a {@link ChangeImpact} that considers all benchmarks changed and records nothing.
+	 */
+	public static ChangeImpact none() {
+		return NONE;
+	}
+
+	/**
+	 * Load the recorded state from {@code file}.
+	 *
+	 * @param file must not be {@literal null}, does not need to exist.
+	 * @param classLoader the {@link ClassLoader} to resolve class files.
+	 * @return the {@link ChangeImpact}.
+	 */
+	public static ChangeImpact load(File file, ClassLoader classLoader) {
+		return load(file, classLoader, BenchmarkOverrides.load(classLoader));
+	}
+
+	/**
+	 * Load the recorded state from {@code file}.
+	 *
+	 * @param file must not be {@literal null}, does not need to exist.
+	 * @param classLoader the {@link ClassLoader} to resolve class files.
+	 * @param overrides the {@link BenchmarkOverrides} of the run.
+	 * @return the {@link ChangeImpact}.
+	 */
+	static ChangeImpact load(File file, ClassLoader classLoader, BenchmarkOverrides overrides) {
+
+		Properties state = new Properties();
+
+		if (file.exists()) {
+			try (InputStream in = new FileInputStream(file)) {
+				state.load(in);
+			} catch (IOException e) {
+				throw new IllegalStateException(String.format("Cannot read change impact state from %s", file), e);
+			}
+		}
+
+		return new ChangeImpact(file, state, classLoader, overrides);
+	}
+
+	/**
+	 * @param benchmark benchmark name ({@code fqcn.method}).
+	 * @return {@literal true} if the benchmark did not run before or its benchmark class or any reachable class changed.
+	 */
+	public boolean isChanged(String benchmark) {
+
+		if (this == NONE) {
+			return true;
+		}
+
+		String recorded = state.getProperty("hash." + benchmark);
+		return recorded == null || !recorded.equals(getHash(getClassName(benchmark)));
+	}
+
+	/**
+	 * @param benchmark benchmark name ({@code fqcn.method}).
+	 * @return skip reason listing the recorded results of the benchmark.
+	 */
+	public String getSkipReason(String benchmark) {
+
+		String results = state.getProperty("result." + benchmark);
+		return StringUtils.hasText(results) ? "Unchanged since last run, previous results: " + results
+				: "Unchanged since last run";
+	}
+
+	/**
+	 * Record hashes and results for benchmarks in {@code results} that passed and write the state file. Recorded state
+	 * of failed benchmarks is removed so they run again. Benchmarks that ran only a subset of their fixtures keep their
+	 * recorded state.
+	 *
+	 * @param results must not be {@literal null}.
+	 * @param failed names of benchmarks that failed, such as by regressing compared to their baseline or by running in
+	 *          a noisy environment in strict mode.
+	 * @param selection the {@link FixtureSelection} of the run.
+	 */
+	public void record(Collection<RunResult> results, Collection<String> failed, FixtureSelection selection) {
+
+		if (this == NONE) {
+			return;
+		}
+
+		Map<String, StringJoiner> formatted = new LinkedHashMap<>();
+
+		for (RunResult result : results) {
+
+			String benchmark = result.getParams().getBenchmark();
+
+			if (failed.contains(benchmark) || selection.isRestricted(benchmark) || overrides.hasParameters(benchmark)) {
+				continue;
+			}
+
+			StringJoiner joiner = formatted.computeIfAbsent(benchmark, key -> new StringJoiner("; "));
+			StringJoiner params = new StringJoiner(", ");
+			result.getParams().getParamsKeys().forEach(key -> params.add(key + "=" + result.getParams().getParam(key)));
+
+			joiner.add((params.length() != 0 ? "[" + params + "] " : "") + ResultUtils.format(result.getPrimaryResult()));
+		}
+
+		formatted.forEach((benchmark, joiner) -> record(benchmark, joiner.toString()));
+		failed.forEach(benchmark -> {
+			state.remove("hash." + benchmark);
+			state.remove("result." + benchmark);
+		});
+
+		save();
+	}
+
+	void record(String benchmark, String results) {
+
+		state.setProperty("hash." + benchmark, getHash(getClassName(benchmark)));
+		state.setProperty("result." + benchmark, results);
+	}
+
+	void save() {
+
+		File directory = file.getAbsoluteFile().getParentFile();
+
+		if (directory != null) {
+			directory.mkdirs();
+		}
+
+		try (OutputStream out = new FileOutputStream(file)) {
+			state.store(out, "Benchmark change impact state");
+		} catch (IOException e) {
+			throw new IllegalStateException(String.format("Cannot write change impact state to %s", file), e);
+		}
+	}
+
+	/**
+	 * Compute the hash of {@code className} and all classes reachable from it.
+	 */
+	String getHash(String className) {
+		return hashes.computeIfAbsent(className, this::computeHash);
+	}
+
+	private String computeHash(String className) {
+
+		MessageDigest digest = createDigest();
+		Set<String> visited = new HashSet<>();
+		Deque<String> queue = new ArrayDeque<>();
+
+		queue.add(className.replace('.', '/'));
+
+		while (!queue.isEmpty()) {
+
+			String name = queue.poll();
+
+			if (!visited.add(name)) {
+				continue;
+			}
+
+			URL resource = classLoader.getResource(name + ".class");
+
+			if (resource == null) {
+				continue;
+			}
+
+			try {
+
+				if (isJdkClass(resource)) {
+					continue;
+				}
+
+				digest.update(name.getBytes(StandardCharsets.UTF_8));
+
+				if (resource.getProtocol().equals("file")) {
+
+					byte[] bytes = read(resource);
+					digest.update(bytes);
+					queue.addAll(getReferencedClasses(bytes));
+				} else if (resource.getProtocol().equals("jar")) {
+
+					File jar = new File(((JarURLConnection) resource.openConnection()).getJarFileURL().getPath());
+					digest.update((jar.getName() + ":" + jar.length() + ":" + jar.lastModified())
+							.getBytes(StandardCharsets.UTF_8));
+				}
+			} catch (IOException e) {
+				throw new IllegalStateException(String.format("Cannot read class file %s", resource), e);
+			}
+		}
+
+		StringBuilder hash = new StringBuilder();
+
+		for (byte b : digest.digest()) {
+			hash.append(String.format("%02x", b));
+		}
+
+		return hash.toString();
+	}
+
+	/**
+	 * Check whether a class file is provided by the running JDK, either from its runtime image or from one of its JAR
+	 * files.
+	 */
+	private static boolean isJdkClass(URL resource) throws IOException {
+
+		if (resource.getProtocol().equals("jrt")) {
+			return true;
+		}
+
+		if (!resource.getProtocol().equals("jar")) {
+			return false;
+		}
+
+		File jar = new File(((JarURLConnection) resource.openConnection()).getJarFileURL().getPath());
+		return jar.getCanonicalPath().startsWith(JAVA_HOME.getPath() + File.separator);
+	}
+
+	/**
+	 * Read class names referenced by the constant pool of a class file, either as class entries or within type
+	 * descriptors and signatures.
+	 *
+	 * @param classFile the class file bytes.
+	 * @return internal names of referenced classes.
+	 * @throws IOException if the class file is malformed.
+	 */
+	static Set<String> getReferencedClasses(byte[] classFile) throws IOException {
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+
+		if (in.readInt() != 0xCAFEBABE) {
+			throw new IOException("Not a class file");
+		}
+
+		in.readUnsignedShort(); // minor version
+		in.readUnsignedShort(); // major version
+
+		int count = in.readUnsignedShort();
+		String[] utf8 = new String[count];
+		int[] classes = new int[count];
+		int classCount = 0;
+
+		for (int i = 1; i < count; i++) {
+
+			int tag = in.readUnsignedByte();
+
+			switch (tag) {
+				case 1: // Utf8
+					utf8[i] = in.readUTF();
+					break;
+				case 7: // Class
+					classes[classCount++] = in.readUnsignedShort();
+					break;
+				case 8: // String
+				case 16: // MethodType
+				case 19: // Module
+				case 20: // Package
+					in.skipBytes(2);
+					break;
+				case 15: // MethodHandle
+					in.skipBytes(3);
+					break;
+				case 3: // Integer
+				case 4: // Float
+				case 9: // Fieldref
+				case 10: // Methodref
+				case 11: // InterfaceMethodref
+				case 12: // NameAndType
+				case 17: // Dynamic
+				case 18: // InvokeDynamic
+					in.skipBytes(4);
+					break;
+				case 5: // Long
+				case 6: // Double
+					in.skipBytes(8);
+					i++;
+					break;
+				default:
+					throw new IOException(String.format("Unknown constant pool tag %d", tag));
+			}
+		}
+
+		Set<String> referenced = new LinkedHashSet<>();
+
+		for (int i = 0; i < classCount; i++) {
+
+			String name = utf8[classes[i]];
+
+			if (name.startsWith("[")) {
+				addDescriptorTypes(name, referenced);
+			} else {
+				referenced.add(name);
+			}
+		}
+
+		for (String value : utf8) {
+			if (value != null && value.indexOf('L') != -1) {
+				addDescriptorTypes(value, referenced);
+			}
+		}
+
+		return referenced;
+	}
+
+	private static void addDescriptorTypes(String descriptor, Set<String> referenced) {
+
+		Matcher matcher = TYPE_DESCRIPTOR.matcher(descriptor);
+
+		while (matcher.find()) {
+			referenced.add(matcher.group(1));
+		}
+	}
+
+	private static String getClassName(String benchmark) {
+		return benchmark.substring(0, benchmark.lastIndexOf('.'));
+	}
+
+	private static byte[] read(URL resource) throws IOException {
+
+		try (InputStream in = resource.openStream()) {
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+
+			return out.toByteArray();
+		}
+	}
+
+	/**
+	 * Resolve the JDK installation directory. On Java 8, {@code java.home} points to the {@code jre} directory of a JDK.
+	 */
+	private static File getJavaHome() {
+
+		File javaHome = new File(System.getProperty("java.home"));
+
+		if (javaHome.getName().equals("jre") && javaHome.getParentFile() != null) {
+			javaHome = javaHome.getParentFile();
+		}
+
+		try {
+			return javaHome.getCanonicalFile();
+		} catch (IOException e) {
+			return javaHome.getAbsoluteFile();
+		}
+	}
+
+	private static MessageDigest createDigest() {
+
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Detects points in a series of benchmark scores at which the score distribution shifted using E-divisive with
+ * permutation testing: the series is bisected at the point maximizing the energy distance between both segments. The
+ * split is accepted if the permutation p-value is below the significance level, and both segments are searched
+ * recursively. Detects gradual degradations that exceed noise as well as abrupt shifts while ignoring single outliers.
+ */
+public class ChangePointDetection {
+
+	private final double significance;
+	private final int permutations;
+	private final int minSegment;
+	private final long seed;
+
+	/**
+	 * Create a {@link ChangePointDetection}.
+	 *
+	 * @param significance significance level of the permutation test, such as {@code 0.05}.
+	 * @param permutations number of permutations per split.
+	 * @param minSegment minimum number of runs on each side of a change point, at least {@code 2}.
+	 * @param seed random seed for permutations to keep detection reproducible.
+	 */
+	public ChangePointDetection(double significance, int permutations, int minSegment, long seed) {
+
+		if (significance <= 0 || significance >= 1) {
+			throw new IllegalArgumentException("Significance must be between 0 and 1");
+		}
+
+		if (permutations < 1 || minSegment < 2) {
+			throw new IllegalArgumentException("Permutations must be greater than zero and minSegment at least 2");
+		}
+
+		this.significance = significance;
+		this.permutations = permutations;
+		this.minSegment = minSegment;
+		this.seed = seed;
+	}
+
+	/**
+	 * @return a {@link ChangePointDetection} with {@code 0.05} significance, 199 permutations and segments of at least 3
+	 *         runs.
+	 */
+	public static ChangePointDetection create() {
+		return new ChangePointDetection(0.05, 199, 3, 0);
+	}
+
+	/**
+	 * Detect change points in {@code series}.
+	 *
+	 * @param series scores in chronological order.
+	 * @return the {@link ChangePoint}s ordered by index.
+	 */
+	public List<ChangePoint> detect(double[] series) {
+
+		List<Integer> indexes = new ArrayList<>();
+		Random random = new Random(seed);
+
+		bisect(series, 0, series.length, random, indexes);
+
+		indexes.sort(Comparator.naturalOrder());
+
+		List<ChangePoint> changePoints = new ArrayList<>();
+
+		for (int i = 0; i < indexes.size(); i++) {
+
+			int index = indexes.get(i);
+			int from = i == 0 ? 0 : indexes.get(i - 1);
+			int to = i == indexes.size() - 1 ? series.length : indexes.get(i + 1);
+
+			changePoints.add(new ChangePoint(index, mean(series, from, index), mean(series, index, to),
+					confidence(Arrays.copyOfRange(series, from, to), random)));
+		}
+
+		return changePoints;
+	}
+
+	private void bisect(double[] series, int from, int to, Random random, List<Integer> indexes) {
+
+		if (to - from < 2 * minSegment) {
+			return;
+		}
+
+		double[] segment = Arrays.copyOfRange(series, from, to);
+		double[] statistics = statistics(segment);
+
+		if (pValue(segment, statistics[0], random) >= significance) {
+			return;
+		}
+
+		int split = (int) statistics[1];
+		indexes.add(from + split);
+
+		bisect(series, from, from + split, random, indexes);
+		bisect(series, from + split, to, random, indexes);
+	}
+
+	private double confidence(double[] segment, Random random) {
+		return 1 - pValue(segment, statistics(segment)[0], random);
+	}
+
+	/**
+	 * Permutation p-value of the best split of {@code segment}.
+	 */
+	private double pValue(double[] segment, double observed, Random random) {
+
+		double[] permuted = segment.clone();
+		int exceeding = 0;
+
+		for (int i = 0; i < permutations; i++) {
+
+			shuffle(permuted, random);
+
+			if (statistics(permuted)[0] >= observed) {
+				exceeding++;
+			}
+		}
+
+		return (exceeding + 1.0) / (permutations + 1.0);
+	}
+
+	/**
+	 * Compute the maximum scaled energy statistic over all admissible splits.
+	 *
+	 * @return the maximum statistic and the split index.
+	 */
+	private double[] statistics(double[] z) {
+
+		int n = z.length;
+		double[][] prefix = new double[n + 1][n + 1];
+
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				prefix[i + 1][j + 1] = Math.abs(z[i] - z[j]) + prefix[i][j + 1] + prefix[i + 1][j] - prefix[i][j];
+			}
+		}
+
+		double best = Double.NEGATIVE_INFINITY;
+		int split = -1;
+
+		for (int tau = minSegment; tau <= n - minSegment; tau++) {
+
+			double m = tau;
+			double k = n - tau;
+
+			double between = block(prefix, 0, tau, tau, n);
+			double left = block(prefix, 0, tau, 0, tau) / 2;
+			double right = block(prefix, tau, n, tau, n) / 2;
+
+			double energy = 2 * between / (m * k) - left / (m * (m - 1) / 2) - right / (k * (k - 1) / 2);
+			double statistic = m * k / n * energy;
+
+			if (statistic > best) {
+				best = statistic;
+				split = tau;
+			}
+		}
+
+		return new double[] { best, split };
+	}
+
+	private static double block(double[][] prefix, int rowFrom, int rowTo, int columnFrom, int columnTo) {
+		return prefix[rowTo][columnTo] - prefix[rowFrom][columnTo] - prefix[rowTo][columnFrom]
+				+ prefix[rowFrom][columnFrom];
+	}
+
+	private static void shuffle(double[] values, Random random) {
+
+		for (int i = values.length - 1; i > 0; i--) {
+
+			int j = random.nextInt(i + 1);
+			double value = values[i];
+			values[i] = values[j];
+			values[j] = value;
+		}
+	}
+
+	private static double mean(double[] series, int from, int to) {
+		return Arrays.stream(series, from, to).average().orElse(Double.NaN);
+	}
+
+	/**
+	 * A point in a series at which the score distribution shifted.
+	 */
+	public static class ChangePoint {
+
+		private final int index;
+		private final double before;
+		private final double after;
+		private final double confidence;
+
+		ChangePoint(int index, double before, double after, double confidence) {
+			this.index = index;
+			this.before = before;
+			this.after = after;
+			this.confidence = confidence;
+		}
+
+		/**
+		 * @return index of the first entry after the shift.
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * @return mean score of the segment before the shift.
+		 */
+		public double getBefore() {
+			return before;
+		}
+
+		/**
+		 * @return mean score of the segment after the shift.
+		 */
+		public double getAfter() {
+			return after;
+		}
+
+		/**
+		 * @return relative change of the mean score, such as {@code 0.1} for an increase by 10%.
+		 */
+		public double getMagnitude() {
+			return (after - before) / before;
+		}
+
+		/**
+		 * @return one minus the permutation p-value of the change point within its neighbouring segments.
+		 */
+		public double getConfidence() {
+			return confidence;
+		}
+	}
+}
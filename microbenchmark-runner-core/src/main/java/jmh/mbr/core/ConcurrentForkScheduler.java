@@ -0,0 +1,484 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.BenchmarkListEntry;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Utils;
+
+/**
+ * Runs independent benchmarks concurrently, each in its own JMH run whose forks are confined to a disjoint set of CPUs.
+ * The CPU set size of a benchmark is its thread count ({@code @Threads} or the {@code threads} option). CPUs are taken
+ * from the CPUs the current process may run on ({@code Cpus_allowed_list} in {@code /proc/self/status}). Forked JVMs are
+ * started with {@code -XX:ActiveProcessorCount} and, if {@code taskset} is available, pinned to their CPU set through a
+ * generated launcher script. Results and callbacks report the configured JVM and JVM arguments instead of the launcher
+ * and the pinning arguments. Each run reports through its own {@link RoutingOutputFormat#forRun() routing}.
+ * <p>
+ * JMH guards against concurrent runs through a lock file and reads {@code jmh.ignoreLock} once when JMH is initialized.
+ * Benchmarks therefore run concurrently only if the JVM was started with {@code -Djmh.ignoreLock=true}, otherwise they
+ * run sequentially.
+ */
+class ConcurrentForkScheduler {
+
+	private static final String IGNORE_LOCK_PROPERTY = "jmh.ignoreLock";
+	private static final String TASKSET = "/usr/bin/taskset";
+	private static final String CPUS_ALLOWED_LIST = "Cpus_allowed_list:";
+
+	private final int[] cpus;
+
+	ConcurrentForkScheduler(int cpus) {
+		this(getAllowedCpus(Paths.get("/proc/self/status"), Math.max(cpus, 1)));
+	}
+
+	ConcurrentForkScheduler(int[] cpus) {
+		this.cpus = cpus;
+	}
+
+	/**
+	 * Run benchmarks selected by {@code options} concurrently.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @param output the {@link OutputFormat} to report progress to.
+	 * @return the merged {@link RunResult}s in benchmark order.
+	 * @throws RunnerException if JMH fails.
+	 */
+	Collection<RunResult> run(Options options, OutputFormat output) throws RunnerException {
+
+		if (options.getForkCount().orElse(1) == 0) {
+			return new Runner(options, output).run();
+		}
+
+		if (!Boolean.getBoolean(IGNORE_LOCK_PROPERTY)) {
+
+			output.println(String.format(
+					"# WARNING: Concurrent forks require -D%s=true on the JVM command line, running benchmarks sequentially",
+					IGNORE_LOCK_PROPERTY));
+			return new Runner(options, output).run();
+		}
+
+		Map<String, ScheduledBenchmark> benchmarks = getBenchmarks(options, output);
+		Object lock = new Object();
+		CpuSets cpuSets = new CpuSets(cpus);
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(benchmarks.size(), cpus.length)));
+
+		try {
+
+			List<Future<Collection<RunResult>>> futures = new ArrayList<>();
+
+			benchmarks.values().forEach(benchmark -> futures.add(executor.submit(() -> {
+
+				int[] cpuSet = cpuSets.acquire(benchmark.width);
+
+				try {
+					return runBenchmark(options, output, lock, benchmark, cpuSet);
+				} finally {
+					cpuSets.release(cpuSet);
+				}
+			})));
+
+			List<RunResult> results = new ArrayList<>();
+			RunnerException failure = null;
+
+			for (Future<Collection<RunResult>> future : futures) {
+
+				try {
+					results.addAll(future.get());
+				} catch (ExecutionException e) {
+
+					if (failure == null) {
+						failure = e.getCause() instanceof RunnerException ? (RunnerException) e.getCause()
+								: new RunnerException("Benchmark failed", e.getCause());
+					}
+				} catch (InterruptedException e) {
+
+					Thread.currentThread().interrupt();
+					throw new RunnerException("Interrupted while waiting for benchmarks", e);
+				}
+			}
+
+			if (failure != null) {
+				throw failure;
+			}
+
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Collection<RunResult> runBenchmark(Options options, OutputFormat output, Object lock,
+			ScheduledBenchmark benchmark, int[] cpuSet) throws RunnerException, IOException {
+
+		String jvm = options.getJvm().orElse(Utils.getCurrentJvm());
+		String activeProcessorCount = "-XX:ActiveProcessorCount=" + cpuSet.length;
+
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(options) //
+				.exclude(JmhSupport.excludeAllExcept(Collections.singleton(benchmark.name)));
+
+		List<File> temporaryFiles = new ArrayList<>();
+
+		try {
+
+			// each run writes its own result file, JmhSupport writes the merged results
+			if (options.getResult().hasValue()) {
+
+				File result = File.createTempFile("jmh-result", ".tmp");
+				temporaryFiles.add(result);
+				builder = builder.result(result.getAbsolutePath());
+			}
+
+			if (new File(TASKSET).canExecute()) {
+
+				File launcher = createLauncher(jvm, activeProcessorCount, cpuSet);
+				temporaryFiles.add(launcher);
+				builder = builder.jvm(launcher.getAbsolutePath());
+			} else {
+
+				List<String> jvmArgs = new ArrayList<>(benchmark.jvmArgsAppend);
+				jvmArgs.add(activeProcessorCount);
+				builder = builder.jvmArgsAppend(jvmArgs.toArray(new String[0]));
+			}
+
+			UnaryOperator<BenchmarkParams> configured = params -> RewritingOutputFormat.withJvm(params, jvm,
+					without(params.getJvmArgs(), activeProcessorCount));
+			OutputFormat runOutput = new RewritingOutputFormat(
+					new SynchronizedOutputFormat(RoutingOutputFormat.forRun(output), lock), configured);
+
+			return RewritingOutputFormat.rewrite(new Runner(builder.build(), runOutput).run(), configured);
+		} finally {
+			temporaryFiles.forEach(File::delete);
+		}
+	}
+
+	private static List<String> without(Collection<String> jvmArgs, String arg) {
+
+		List<String> result = new ArrayList<>(jvmArgs);
+		int index = result.lastIndexOf(arg);
+
+		if (index != -1) {
+			result.remove(index);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Create a launcher script that pins the JVM to the given CPUs and limits its active processor count.
+	 */
+	private static File createLauncher(String jvm, String activeProcessorCount, int[] cpuSet) throws IOException {
+
+		File launcher = File.createTempFile("jmh-taskset", ".sh");
+		launcher.deleteOnExit();
+
+		String cpuList = Arrays.stream(cpuSet).mapToObj(Integer::toString).collect(Collectors.joining(","));
+		String script = String.format("#!/bin/sh%nexec %s -c %s '%s' %s \"$@\"%n", TASKSET, cpuList,
+				jvm.replace("'", "'\\''"), activeProcessorCount);
+		Files.write(launcher.toPath(), script.getBytes(StandardCharsets.UTF_8));
+
+		if (!launcher.setExecutable(true)) {
+			throw new IOException(String.format("Cannot make %s executable", launcher));
+		}
+
+		return launcher;
+	}
+
+	/**
+	 * Resolve selected benchmarks along with the number of CPUs they require.
+	 */
+	private Map<String, ScheduledBenchmark> getBenchmarks(Options options, OutputFormat output) {
+
+		Map<String, ScheduledBenchmark> benchmarks = new LinkedHashMap<>();
+
+		for (BenchmarkListEntry entry : JmhSupport.findBenchmarks(options, output)) {
+
+			int threads = options.getThreads().orElse(entry.getThreads().orElse(1));
+			int width = threads <= 0 || threads > cpus.length ? cpus.length : threads;
+
+			// appended JVM arguments replace @Fork(jvmArgsAppend), so the annotation arguments are carried over
+			Collection<String> jvmArgsAppend = options.getJvmArgsAppend()
+					.orElse(entry.getJvmArgsAppend().orElse(Collections.emptyList()));
+
+			benchmarks.merge(entry.getUsername(), new ScheduledBenchmark(entry.getUsername(), width, jvmArgsAppend),
+					(existing, it) -> new ScheduledBenchmark(existing.name, Math.max(existing.width, it.width),
+							existing.jvmArgsAppend));
+		}
+
+		return benchmarks;
+	}
+
+	/**
+	 * Resolve the CPUs the current process may run on from {@code Cpus_allowed_list} of {@code status}. Falls back to
+	 * CPUs {@code 0..count-1} if the list cannot be read.
+	 *
+	 * @param status path to the process status file, such as {@code /proc/self/status}.
+	 * @param count maximum number of CPUs to use.
+	 * @return the first {@code count} allowed CPUs.
+	 */
+	static int[] getAllowedCpus(Path status, int count) {
+
+		try {
+
+			for (String line : Files.readAllLines(status, StandardCharsets.UTF_8)) {
+				if (line.startsWith(CPUS_ALLOWED_LIST)) {
+
+					int[] allowed = parseCpuList(line.substring(CPUS_ALLOWED_LIST.length()));
+					return Arrays.copyOf(allowed, Math.min(allowed.length, count));
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			// not on Linux or unexpected format
+		}
+
+		return IntStream.range(0, count).toArray();
+	}
+
+	/**
+	 * Parse a CPU list such as {@code 0-3,8,10-11}.
+	 */
+	static int[] parseCpuList(String list) {
+
+		IntStream cpus = IntStream.empty();
+
+		for (String range : list.trim().split(",")) {
+
+			String[] bounds = range.trim().split("-");
+			int first = Integer.parseInt(bounds[0]);
+			int last = bounds.length > 1 ? Integer.parseInt(bounds[1]) : first;
+
+			cpus = IntStream.concat(cpus, IntStream.rangeClosed(first, last));
+		}
+
+		return cpus.toArray();
+	}
+
+	/**
+	 * A benchmark to run in its own JMH run.
+	 */
+	static class ScheduledBenchmark {
+
+		private final String name;
+		private final int width;
+		private final Collection<String> jvmArgsAppend;
+
+		ScheduledBenchmark(String name, int width, Collection<String> jvmArgsAppend) {
+			this.name = name;
+			this.width = width;
+			this.jvmArgsAppend = jvmArgsAppend;
+		}
+	}
+
+	/**
+	 * Pool of CPUs handing out adjacent CPUs of the allowed CPU list.
+	 */
+	static class CpuSets {
+
+		private final int[] cpus;
+		private final boolean[] used;
+
+		CpuSets(int[] cpus) {
+			this.cpus = cpus;
+			this.used = new boolean[cpus.length];
+		}
+
+		/**
+		 * Acquire adjacent CPUs of the allowed CPU list. Blocks until the requested number of CPUs is available.
+		 *
+		 * @param width number of CPUs.
+		 * @return the acquired CPUs.
+		 * @throws InterruptedException if interrupted while waiting.
+		 */
+		synchronized int[] acquire(int width) throws InterruptedException {
+
+			int size = Math.min(Math.max(width, 1), used.length);
+
+			while (true) {
+
+				int start = findFree(size);
+
+				if (start != -1) {
+
+					for (int i = start; i < start + size; i++) {
+						used[i] = true;
+					}
+
+					return Arrays.copyOfRange(cpus, start, start + size);
+				}
+
+				wait();
+			}
+		}
+
+		synchronized void release(int[] cpuSet) {
+
+			for (int cpu : cpuSet) {
+				for (int i = 0; i < cpus.length; i++) {
+					if (cpus[i] == cpu) {
+						used[i] = false;
+					}
+				}
+			}
+
+			notifyAll();
+		}
+
+		private int findFree(int size) {
+
+			int free = 0;
+
+			for (int i = 0; i < used.length; i++) {
+
+				free = used[i] ? 0 : free + 1;
+
+				if (free == size) {
+					return i - size + 1;
+				}
+			}
+
+			return -1;
+		}
+	}
+
+	/**
+	 * {@link OutputFormat} that serializes callbacks of concurrent runs on a shared lock.
+	 */
+	static class SynchronizedOutputFormat implements OutputFormat {
+
+		private final OutputFormat delegate;
+		private final Object lock;
+
+		SynchronizedOutputFormat(OutputFormat delegate, Object lock) {
+			this.delegate = delegate;
+			this.lock = lock;
+		}
+
+		@Override
+		public void iteration(BenchmarkParams benchParams, IterationParams params, int iteration) {
+			synchronized (lock) {
+				delegate.iteration(benchParams, params, iteration);
+			}
+		}
+
+		@Override
+		public void iterationResult(BenchmarkParams benchParams, IterationParams params, int iteration,
+				IterationResult data) {
+			synchronized (lock) {
+				delegate.iterationResult(benchParams, params, iteration, data);
+			}
+		}
+
+		@Override
+		public void startBenchmark(BenchmarkParams benchParams) {
+			synchronized (lock) {
+				delegate.startBenchmark(benchParams);
+			}
+		}
+
+		@Override
+		public void endBenchmark(BenchmarkResult result) {
+			synchronized (lock) {
+				delegate.endBenchmark(result);
+			}
+		}
+
+		@Override
+		public void startRun() {
+			synchronized (lock) {
+				delegate.startRun();
+			}
+		}
+
+		@Override
+		public void endRun(Collection<RunResult> result) {
+			synchronized (lock) {
+				delegate.endRun(result);
+			}
+		}
+
+		@Override
+		public void print(String s) {
+			synchronized (lock) {
+				delegate.print(s);
+			}
+		}
+
+		@Override
+		public void println(String s) {
+			synchronized (lock) {
+				delegate.println(s);
+			}
+		}
+
+		@Override
+		public void flush() {
+			synchronized (lock) {
+				delegate.flush();
+			}
+		}
+
+		@Override
+		public void close() {
+			synchronized (lock) {
+				delegate.close();
+			}
+		}
+
+		@Override
+		public void verbosePrintln(String s) {
+			synchronized (lock) {
+				delegate.verbosePrintln(s);
+			}
+		}
+
+		@Override
+		public void write(int b) {
+			synchronized (lock) {
+				delegate.write(b);
+			}
+		}
+
+		@Override
+		public void write(byte[] b) throws IOException {
+			synchronized (lock) {
+				delegate.write(b);
+			}
+		}
+	}
+}
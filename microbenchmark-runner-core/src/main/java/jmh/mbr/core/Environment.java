@@ -12,13 +12,16 @@ package jmh.mbr.core;
 import java.util.Objects;
 
 /**
- * Utility to obtain property values from System properties and environment variables.
+ * Utility to obtain property values from System properties, environment variables, and the active run profile.
+ *
+ * @see RunProfiles
  */
 public class Environment {
 
 	/**
-	 * Retrieve a property value by its {@code propertyName}. Attempts to read the property from system properties first
-	 * and then (if not set through system properties), from the environment variables.
+	 * Retrieve a property value by its {@code propertyName}. Attempts to read the property from system properties first,
+	 * then (if not set through system properties) from the environment variables and finally from the run profile
+	 * selected through {@code benchmarkProfile}.
 	 *
 	 * @param propertyName must not be {@literal null}.
 	 * @return the value or {@literal null} if not set.
@@ -27,6 +30,26 @@ public class Environment {
 
 		Objects.requireNonNull(propertyName, "PropertyName must not be null!");
 
+		String value = getSystemProperty(propertyName);
+
+		if (StringUtils.isEmpty(value) && !RunProfiles.PROFILE_PROPERTY.equals(propertyName)) {
+			return getProfileProperty(propertyName);
+		}
+
+		return value;
+	}
+
+	/**
+	 * Retrieve the name of the active run profile.
+	 *
+	 * @return the profile name or {@literal null} if no profile is selected.
+	 */
+	public static String getProfile() {
+		return getSystemProperty(RunProfiles.PROFILE_PROPERTY);
+	}
+
+	private static String getSystemProperty(String propertyName) {
+
 		String value = System.getProperty(propertyName);
 
 		if (StringUtils.isEmpty(value)) {
@@ -35,10 +58,21 @@ public class Environment {
 		return value;
 	}
 
+	private static String getProfileProperty(String propertyName) {
+
+		String profile = getProfile();
+
+		if (!StringUtils.hasText(profile)) {
+			return null;
+		}
+
+		return ProfilesHolder.PROFILES.getProperty(profile.trim(), propertyName);
+	}
+
 	/**
-	 * Retrieve a property value by its {@code propertyName}. Attempts to read the property from system properties first
-	 * and then (if not set through system properties), from the environment variables. Falls back to {@code defaultValue}
-	 * if the property is not set.
+	 * Retrieve a property value by its {@code propertyName}. Attempts to read the property from system properties first,
+	 * then (if not set through system properties) from the environment variables and the active run profile. Falls back
+	 * to {@code defaultValue} if the property is not set.
 	 *
 	 * @param propertyName must not be {@literal null}.
 	 * @param defaultValue must not be {@literal null}.
@@ -65,4 +99,18 @@ public class Environment {
 	public static boolean containsProperty(String propertyName) {
 		return !StringUtils.isEmpty(getProperty(propertyName));
 	}
+
+	/**
+	 * Lazily loaded {@link RunProfiles}.
+	 */
+	private static class ProfilesHolder {
+
+		static final RunProfiles PROFILES = RunProfiles.load(getClassLoader());
+
+		private static ClassLoader getClassLoader() {
+
+			ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+			return classLoader != null ? classLoader : Environment.class.getClassLoader();
+		}
+	}
 }
@@ -0,0 +1,515 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * Checks Linux host conditions that add noise to benchmark results: load average, CPU frequency governor and current
+ * frequency, turbo boost, swap activity, and other busy processes. Conditions are read from {@code /proc} and
+ * {@code /sys} before the run and after each benchmark. Hosts without {@code /proc/loadavg} are not checked.
+ * <p>
+ * Checks run between benchmarks only, nothing is sampled while a benchmark is measuring. Swap activity is counted since
+ * the previous check and the load average decays over a minute so both cover the benchmark, while CPU frequency,
+ * governor, turbo boost and busy processes reflect the host right after the benchmark. Transient noise during a
+ * benchmark may therefore go unnoticed.
+ * <p>
+ * The number of warnings is attached to each {@link RunResult} as secondary result {@value #LABEL} (zero means a quiet
+ * environment). In strict mode, a noisy environment fails the run or the affected benchmark.
+ */
+class EnvironmentGuard {
+
+	static final String LABEL = "environment.warnings";
+
+	private static final double BUSY_PROCESS_THRESHOLD = 0.5;
+	private static final long SAMPLE_MILLIS = 200;
+	private static final long CLOCK_TICKS_PER_SECOND = 100;
+
+	private final Path root;
+	private final boolean strict;
+	private final int cpus;
+	private final List<String> initialWarnings = new ArrayList<>();
+	private final Map<String, List<String>> warnings = new ConcurrentHashMap<>();
+
+	private volatile long swapPages = -1;
+
+	EnvironmentGuard(boolean strict) {
+		this(Paths.get("/"), strict, Runtime.getRuntime().availableProcessors());
+	}
+
+	EnvironmentGuard(Path root, boolean strict, int cpus) {
+		this.root = root;
+		this.strict = strict;
+		this.cpus = cpus;
+	}
+
+	/**
+	 * Check host conditions before the run.
+	 *
+	 * @param output the {@link OutputFormat} to report warnings to.
+	 * @throws RunnerException in strict mode if the environment is noisy.
+	 */
+	void beforeRun(OutputFormat output) throws RunnerException {
+
+		List<String> warnings = check(0);
+		initialWarnings.addAll(warnings);
+		report(output, "before run", warnings);
+
+		if (strict && !warnings.isEmpty()) {
+			throw new RunnerException("Noisy benchmark environment (strictEnvironment=true): " + warnings);
+		}
+	}
+
+	/**
+	 * Wrap {@link OutputFormat} to check host conditions after each benchmark.
+	 *
+	 * @param output must not be {@literal null}.
+	 * @return the guarding {@link OutputFormat}.
+	 */
+	OutputFormat wrap(OutputFormat output) {
+		return new GuardingOutputFormat(output);
+	}
+
+	/**
+	 * Attach the noise verdict to {@link RunResult}s.
+	 *
+	 * @param results must not be {@literal null}.
+	 */
+	void apply(Collection<RunResult> results) {
+
+		for (RunResult result : results) {
+
+			if (result.getParams() == null || result.getBenchmarkResults().isEmpty()) {
+				continue;
+			}
+
+			int count = initialWarnings.size()
+					+ warnings.getOrDefault(getKey(result.getParams()), Collections.emptyList()).size();
+			result.getBenchmarkResults().iterator().next()
+					.addBenchmarkResult(new ScalarResult(LABEL, count, "#", AggregationPolicy.MAX));
+		}
+	}
+
+	/**
+	 * Check host conditions.
+	 *
+	 * @param expectedLoad number of threads the benchmark itself contributes to the load average.
+	 * @return the warnings, empty if the environment is quiet or cannot be checked.
+	 */
+	List<String> check(int expectedLoad) {
+
+		if (!Files.exists(root.resolve("proc/loadavg"))) {
+			return Collections.emptyList();
+		}
+
+		List<String> warnings = new ArrayList<>();
+
+		checkLoadAverage(expectedLoad, warnings);
+		checkFrequency(warnings);
+		checkTurbo(warnings);
+		checkSwap(warnings);
+		checkBusyProcesses(warnings);
+
+		return warnings;
+	}
+
+	private void checkLoadAverage(int expectedLoad, List<String> warnings) {
+
+		String loadavg = read(root.resolve("proc/loadavg"));
+
+		if (loadavg == null) {
+			return;
+		}
+
+		double load = Double.parseDouble(loadavg.trim().split("\\s+")[0]);
+		double limit = expectedLoad + Math.max(1, cpus * 0.1);
+
+		if (load > limit) {
+			warnings.add(String.format("Load average %.2f exceeds %.2f", load, limit));
+		}
+	}
+
+	private void checkFrequency(List<String> warnings) {
+
+		Set<String> governors = new TreeSet<>();
+		int throttled = 0;
+
+		for (Path cpufreq : listCpuFreq()) {
+
+			String governor = read(cpufreq.resolve("scaling_governor"));
+			String current = read(cpufreq.resolve("scaling_cur_freq"));
+			String max = read(cpufreq.resolve("cpuinfo_max_freq"));
+
+			if (governor != null) {
+				governors.add(governor.trim());
+			}
+
+			if ("performance".equals(governor == null ? null : governor.trim()) && current != null && max != null
+					&& Long.parseLong(current.trim()) < Long.parseLong(max.trim()) * 0.9) {
+				throttled++;
+			}
+		}
+
+		governors.remove("performance");
+
+		if (!governors.isEmpty()) {
+			warnings.add(String.format("CPU frequency governor is %s (expected performance)", governors));
+		}
+
+		if (throttled > 0) {
+			warnings.add(String.format("%d CPU(s) run below 90%% of their maximum frequency (scaling_cur_freq)", throttled));
+		}
+	}
+
+	private void checkTurbo(List<String> warnings) {
+
+		String noTurbo = read(root.resolve("sys/devices/system/cpu/intel_pstate/no_turbo"));
+		String boost = read(root.resolve("sys/devices/system/cpu/cpufreq/boost"));
+
+		if ((noTurbo != null && noTurbo.trim().equals("0")) || (boost != null && boost.trim().equals("1"))) {
+			warnings.add("Turbo boost is enabled");
+		}
+	}
+
+	private void checkSwap(List<String> warnings) {
+
+		String vmstat = read(root.resolve("proc/vmstat"));
+
+		if (vmstat == null) {
+			return;
+		}
+
+		long pages = 0;
+		for (String line : vmstat.split("\n")) {
+
+			String[] fields = line.trim().split("\\s+");
+
+			if (fields.length == 2 && (fields[0].equals("pswpin") || fields[0].equals("pswpout"))) {
+				pages += Long.parseLong(fields[1]);
+			}
+		}
+
+		long previous = swapPages;
+		swapPages = pages;
+
+		if (previous != -1 && pages > previous) {
+			warnings.add(String.format("Swap activity detected (%d pages)", pages - previous));
+		}
+	}
+
+	private void checkBusyProcesses(List<String> warnings) {
+
+		String self = getSelf();
+		Map<String, ProcessSample> before = sampleProcesses(self);
+
+		try {
+			Thread.sleep(SAMPLE_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+
+		Map<String, ProcessSample> after = sampleProcesses(self);
+		double availableTicks = CLOCK_TICKS_PER_SECOND * SAMPLE_MILLIS / (double) TimeUnit.SECONDS.toMillis(1);
+
+		after.forEach((pid, sample) -> {
+
+			ProcessSample previous = before.get(pid);
+
+			if (previous == null) {
+				return;
+			}
+
+			double usage = (sample.ticks - previous.ticks) / availableTicks;
+
+			if (usage > BUSY_PROCESS_THRESHOLD) {
+				warnings.add(String.format("Busy process %s (pid %s) uses %.0f%% CPU", sample.name, pid, usage * 100));
+			}
+		});
+	}
+
+	/**
+	 * Sample CPU ticks of all processes except this JVM and its descendants (forked benchmark JVMs, including forks
+	 * started through launcher scripts and subshells).
+	 */
+	private Map<String, ProcessSample> sampleProcesses(String self) {
+
+		Map<String, ProcessSample> samples = new HashMap<>();
+		Map<String, String> parents = new HashMap<>();
+
+		try (DirectoryStream<Path> processes = Files.newDirectoryStream(root.resolve("proc"), "[0-9]*")) {
+
+			for (Path process : processes) {
+
+				String stat = read(process.resolve("stat"));
+
+				if (stat == null || stat.lastIndexOf(')') == -1) {
+					continue;
+				}
+
+				// comm may contain spaces and is enclosed in parentheses
+				String name = stat.substring(stat.indexOf('(') + 1, stat.lastIndexOf(')'));
+				String[] fields = stat.substring(stat.lastIndexOf(')') + 2).trim().split("\\s+");
+				String pid = process.getFileName().toString();
+
+				if (fields.length < 13) {
+					continue;
+				}
+
+				parents.put(pid, fields[1]);
+				samples.put(pid, new ProcessSample(name, Long.parseLong(fields[11]) + Long.parseLong(fields[12])));
+			}
+		} catch (IOException | RuntimeException e) {
+			// processes come and go, sampling is best effort
+		}
+
+		samples.keySet().removeAll(getDescendants(parents, self));
+
+		return samples;
+	}
+
+	/**
+	 * Resolve {@code self} and all its descendants.
+	 *
+	 * @param parents process ids mapped to the process id of their parent.
+	 * @param self the process id of this JVM.
+	 * @return process ids of {@code self} and its descendants.
+	 */
+	static Set<String> getDescendants(Map<String, String> parents, String self) {
+
+		Map<String, List<String>> children = new HashMap<>();
+		parents.forEach((pid, parent) -> children.computeIfAbsent(parent, key -> new ArrayList<>()).add(pid));
+
+		Set<String> descendants = new HashSet<>();
+		Deque<String> queue = new ArrayDeque<>(Collections.singleton(self));
+
+		while (!queue.isEmpty()) {
+
+			String pid = queue.poll();
+
+			if (descendants.add(pid)) {
+				queue.addAll(children.getOrDefault(pid, Collections.emptyList()));
+			}
+		}
+
+		return descendants;
+	}
+
+	private String getSelf() {
+
+		try {
+			return Files.readSymbolicLink(root.resolve("proc/self")).getFileName().toString();
+		} catch (IOException | UnsupportedOperationException e) {
+			return "";
+		}
+	}
+
+	private List<Path> listCpuFreq() {
+
+		List<Path> result = new ArrayList<>();
+
+		try (DirectoryStream<Path> cpus = Files.newDirectoryStream(root.resolve("sys/devices/system/cpu"), "cpu[0-9]*")) {
+
+			for (Path cpu : cpus) {
+
+				Path cpufreq = cpu.resolve("cpufreq");
+
+				if (Files.isDirectory(cpufreq)) {
+					result.add(cpufreq);
+				}
+			}
+		} catch (IOException e) {
+			// no cpufreq support
+		}
+
+		return result;
+	}
+
+	private static String read(Path path) {
+
+		try {
+			return Files.exists(path) ? new String(Files.readAllBytes(path), StandardCharsets.UTF_8) : null;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Identify a benchmark run. Callbacks and results carry run dimension values as parameters, the execution parameter
+	 * is added to results of in-process runs only.
+	 */
+	private static String getKey(BenchmarkParams params) {
+
+		StringBuilder key = new StringBuilder(params.getBenchmark()).append('-').append(params.getMode()).append('-')
+				.append(params.getThreads()).append('-').append(params.getJvm()).append('-').append(params.getJvmArgs());
+
+		for (String param : params.getParamsKeys()) {
+
+			if (!param.equals(IsolatedExecution.EXECUTION_PARAMETER)) {
+				key.append('-').append(param).append('=').append(params.getParam(param));
+			}
+		}
+
+		return key.toString();
+	}
+
+	private static void report(OutputFormat output, String phase, List<String> warnings) {
+
+		if (warnings.isEmpty()) {
+			return;
+		}
+
+		output.println(String.format("# WARNING: Noisy benchmark environment (%s):", phase));
+		warnings.forEach(it -> output.println("#   " + it));
+	}
+
+	static class ProcessSample {
+
+		private final String name;
+		private final long ticks;
+
+		ProcessSample(String name, long ticks) {
+			this.name = name;
+			this.ticks = ticks;
+		}
+	}
+
+	/**
+	 * {@link OutputFormat} that checks host conditions once a benchmark ended. Noisy benchmarks are reported as
+	 * {@link BenchmarkFailure failed} in strict mode.
+	 */
+	class GuardingOutputFormat implements RoutingOutputFormat {
+
+		private final OutputFormat delegate;
+
+		GuardingOutputFormat(OutputFormat delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public OutputFormat forRun() {
+			return new GuardingOutputFormat(RoutingOutputFormat.forRun(delegate));
+		}
+
+		@Override
+		public void iteration(BenchmarkParams benchParams, IterationParams params, int iteration) {
+			delegate.iteration(benchParams, params, iteration);
+		}
+
+		@Override
+		public void iterationResult(BenchmarkParams benchParams, IterationParams params, int iteration,
+				IterationResult data) {
+			delegate.iterationResult(benchParams, params, iteration, data);
+		}
+
+		@Override
+		public void startBenchmark(BenchmarkParams benchParams) {
+			delegate.startBenchmark(benchParams);
+		}
+
+		@Override
+		public void endBenchmark(BenchmarkResult result) {
+
+			if (result == null || result.getParams() == null) {
+				delegate.endBenchmark(result);
+				return;
+			}
+
+			List<String> benchmarkWarnings = check(result.getParams().getThreads());
+			warnings.put(getKey(result.getParams()), benchmarkWarnings);
+			report(delegate, result.getParams().getBenchmark(), benchmarkWarnings);
+
+			if (strict && !benchmarkWarnings.isEmpty()) {
+
+				List<String> cause = new ArrayList<>();
+				cause.add("Noisy benchmark environment (strictEnvironment=true):");
+				cause.addAll(benchmarkWarnings);
+
+				BenchmarkFailure.report(delegate, false, cause);
+				return;
+			}
+
+			delegate.endBenchmark(result);
+		}
+
+		@Override
+		public void startRun() {
+			delegate.startRun();
+		}
+
+		@Override
+		public void endRun(Collection<RunResult> result) {
+			delegate.endRun(result);
+		}
+
+		@Override
+		public void print(String s) {
+			delegate.print(s);
+		}
+
+		@Override
+		public void println(String s) {
+			delegate.println(s);
+		}
+
+		@Override
+		public void flush() {
+			delegate.flush();
+		}
+
+		@Override
+		public void close() {
+			delegate.close();
+		}
+
+		@Override
+		public void verbosePrintln(String s) {
+			delegate.verbosePrintln(s);
+		}
+
+		@Override
+		public void write(int b) {
+			delegate.write(b);
+		}
+
+		@Override
+		public void write(byte[] b) throws IOException {
+			delegate.write(b);
+		}
+	}
+}
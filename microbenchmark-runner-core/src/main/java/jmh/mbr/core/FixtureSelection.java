@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jmh.mbr.core.model.BenchmarkFixture;
+
+/**
+ * Fixtures to run per benchmark. Benchmarks without selection run all their parameter combinations, selected
+ * benchmarks run with explicit {@code @Param} values, one JMH run per disjoint grid of parameter values.
+ */
+public class FixtureSelection {
+
+	private static final FixtureSelection NONE = new FixtureSelection(Collections.emptyMap());
+
+	private final Map<String, List<Map<String, String>>> fixtures;
+
+	private FixtureSelection(Map<String, List<Map<String, String>>> fixtures) {
+		this.fixtures = fixtures;
+	}
+
+	/**
+	 * @return a {@link FixtureSelection} that does not restrict any benchmark.
+	 */
+	public static FixtureSelection none() {
+		return NONE;
+	}
+
+	/**
+	 * Create a new {@link FixtureSelection} that additionally restricts {@code benchmark} to the given fixtures.
+	 *
+	 * @param benchmark the benchmark name ({@code fqcn + "." + method name}).
+	 * @param fixtures the fixtures to run, can be empty to skip all fixtures.
+	 * @return the new {@link FixtureSelection}.
+	 */
+	public FixtureSelection and(String benchmark, Collection<BenchmarkFixture> fixtures) {
+
+		Map<String, List<Map<String, String>>> selection = new LinkedHashMap<>(this.fixtures);
+		List<Map<String, String>> benchmarkFixtures = new ArrayList<>(
+				selection.getOrDefault(benchmark, Collections.emptyList()));
+
+		for (BenchmarkFixture fixture : fixtures) {
+
+			Map<String, String> values = new LinkedHashMap<>();
+			fixture.getFixture().forEach((key, value) -> values.put(key, String.valueOf(value)));
+			benchmarkFixtures.add(values);
+		}
+
+		selection.put(benchmark, benchmarkFixtures);
+
+		return new FixtureSelection(selection);
+	}
+
+	/**
+	 * @return {@literal true} if no benchmark is restricted.
+	 */
+	public boolean isEmpty() {
+		return fixtures.isEmpty();
+	}
+
+	/**
+	 * @param benchmark the benchmark name ({@code fqcn + "." + method name}).
+	 * @return {@literal true} if {@code benchmark} runs selected fixtures only.
+	 */
+	public boolean isRestricted(String benchmark) {
+		return fixtures.containsKey(benchmark);
+	}
+
+	/**
+	 * @param benchmark the benchmark name ({@code fqcn + "." + method name}).
+	 * @return number of selected fixtures of {@code benchmark} including run dimension variants.
+	 */
+	public int getFixtureCount(String benchmark) {
+		return fixtures.getOrDefault(benchmark, Collections.emptyList()).size();
+	}
+
+	/**
+	 * Resolve the parameter grids to run for {@code benchmark} in a run dimension variant.
+	 *
+	 * @param benchmark the benchmark name ({@code fqcn + "." + method name}).
+	 * @param variant run dimension names mapped to their values of the current run. Empty if no run dimensions are
+	 *          configured.
+	 * @return disjoint grids of parameter names mapped to their values. Empty if no fixture matches the variant.
+	 */
+	List<Map<String, List<String>>> getParameterGrids(String benchmark, Map<String, String> variant) {
+
+		List<Map<String, String>> matching = new ArrayList<>();
+
+		for (Map<String, String> fixture : fixtures.getOrDefault(benchmark, Collections.emptyList())) {
+
+			if (matches(fixture, variant)) {
+
+				Map<String, String> parameters = new LinkedHashMap<>(fixture);
+				parameters.keySet().removeAll(variant.keySet());
+				matching.add(parameters);
+			}
+		}
+
+		return partition(matching);
+	}
+
+	private static boolean matches(Map<String, String> fixture, Map<String, String> variant) {
+
+		for (Map.Entry<String, String> entry : variant.entrySet()) {
+			if (fixture.containsKey(entry.getKey()) && !fixture.get(entry.getKey()).equals(entry.getValue())) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Partition parameter combinations into disjoint grids whose cartesian products cover exactly the given
+	 * combinations. Grids are merged one parameter at a time: combinations that agree on all other parameters are
+	 * combined into a single grid. A complete grid therefore collapses into a single run.
+	 *
+	 * @param combinations parameter combinations with identical parameter names.
+	 * @return the grids.
+	 */
+	static List<Map<String, List<String>>> partition(Collection<Map<String, String>> combinations) {
+
+		List<Map<String, Set<String>>> grids = new ArrayList<>();
+		Set<String> names = new LinkedHashSet<>();
+
+		for (Map<String, String> combination : new LinkedHashSet<>(combinations)) {
+
+			Map<String, Set<String>> grid = new LinkedHashMap<>();
+			combination.forEach((key, value) -> grid.put(key, new LinkedHashSet<>(Collections.singleton(value))));
+
+			grids.add(grid);
+			names.addAll(combination.keySet());
+		}
+
+		List<String> order = new ArrayList<>(names);
+		Collections.reverse(order);
+
+		for (String name : order) {
+
+			Map<Map<String, Set<String>>, Map<String, Set<String>>> merged = new LinkedHashMap<>();
+			List<Map<String, Set<String>>> next = new ArrayList<>();
+
+			for (Map<String, Set<String>> grid : grids) {
+
+				if (!grid.containsKey(name)) {
+					next.add(grid);
+					continue;
+				}
+
+				Map<String, Set<String>> others = new LinkedHashMap<>(grid);
+				others.remove(name);
+
+				Map<String, Set<String>> target = merged.get(others);
+
+				if (target == null) {
+					merged.put(others, grid);
+					next.add(grid);
+				} else {
+					target.get(name).addAll(grid.get(name));
+				}
+			}
+
+			grids = next;
+		}
+
+		List<Map<String, List<String>>> result = new ArrayList<>(grids.size());
+
+		for (Map<String, Set<String>> grid : grids) {
+
+			Map<String, List<String>> values = new LinkedHashMap<>();
+			grid.forEach((key, value) -> values.put(key, new ArrayList<>(value)));
+			result.add(values);
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Utils;
+
+/**
+ * Pipelines fork startup: while a fork is measuring, the JVM for the next fork is started and parked in a ready state
+ * ({@link PrelaunchedFork}). Once JMH launches the next fork, the parked JVM takes over and starts measuring right away
+ * so JVM boot overlaps with the previous fork instead of adding to the wall-clock time.
+ * <p>
+ * Forks are launched through a generated {@code bash} launcher script that is passed to JMH as JVM binary. Parked JVMs
+ * are matched by their JVM arguments and receive the fork arguments through a named pipe. JVM invocations other than
+ * forks as well as forks without a matching parked JVM are delegated to the actual JVM. The launcher records the
+ * process id of the JVM running its fork in {@code <launcher pid>.fork} so the {@link ForkWatchdog} can reach it, and
+ * exits with the exit status of that JVM. Requires {@code bash}, {@code mkfifo} and GNU {@code tail}, forks are launched
+ * directly otherwise.
+ */
+class ForkPrelauncher implements AutoCloseable {
+
+	static final String LAUNCHER = "launch.sh";
+
+	private static final String BASH = "/bin/bash";
+	private static final String PROBE = "command -v mkfifo > /dev/null && tail -n 0 --pid=$$ /dev/null > /dev/null 2>&1";
+
+	private static volatile Boolean supported;
+
+	private final Path directory;
+	private final File launcher;
+
+	private ForkPrelauncher(Path directory, File launcher) {
+		this.directory = directory;
+		this.launcher = launcher;
+	}
+
+	/**
+	 * @return {@literal true} if pre-launching is supported on this host.
+	 */
+	static boolean isSupported() {
+
+		if (supported == null) {
+			supported = probe();
+		}
+
+		return supported;
+	}
+
+	/**
+	 * Probe for {@code bash}, {@code mkfifo} and {@code tail} with support for {@code --pid} (GNU coreutils).
+	 */
+	private static boolean probe() {
+
+		if (!new File(BASH).canExecute()) {
+			return false;
+		}
+
+		try {
+
+			Process process = new ProcessBuilder(BASH, "-c", PROBE).start();
+
+			if (!process.waitFor(10, TimeUnit.SECONDS)) {
+				process.destroyForcibly();
+				return false;
+			}
+
+			return process.exitValue() == 0;
+		} catch (IOException e) {
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Create a {@link ForkPrelauncher} for the JVM configured in {@link Options}.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @return the {@link ForkPrelauncher}.
+	 * @throws IOException if the launcher cannot be created.
+	 */
+	static ForkPrelauncher create(Options options) throws IOException {
+
+		Path directory = Files.createTempDirectory("jmh-prelaunch");
+		File launcher = directory.resolve(LAUNCHER).toFile();
+		String jvm = options.getJvm().orElse(Utils.getCurrentJvm());
+
+		Files.write(launcher.toPath(), createScript(jvm, directory.toString()).getBytes(StandardCharsets.UTF_8));
+
+		if (!launcher.setExecutable(true)) {
+			throw new IOException(String.format("Cannot make %s executable", launcher));
+		}
+
+		return new ForkPrelauncher(directory, launcher);
+	}
+
+	/**
+	 * Apply the launcher as JVM binary.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @return the {@link Options} to run forks with.
+	 */
+	Options apply(Options options) {
+		return new OptionsBuilder().parent(options).jvm(launcher.getAbsolutePath()).build();
+	}
+
+	/**
+	 * Release parked JVMs and remove the launcher.
+	 */
+	@Override
+	public void close() {
+
+		try (DirectoryStream<Path> readyDirectories = Files.newDirectoryStream(directory, "ready-*")) {
+
+			for (Path readyDirectory : readyDirectories) {
+				try (DirectoryStream<Path> parked = Files.newDirectoryStream(readyDirectory)) {
+					for (Path ready : parked) {
+						release(ready);
+					}
+				}
+			}
+		} catch (IOException e) {
+			// best effort, parked JVMs exit after an idle timeout
+		}
+
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		} catch (IOException e) {
+			// best effort
+		}
+	}
+
+	private void release(Path ready) throws IOException {
+
+		String id = ready.getFileName().toString();
+		Path claimed = directory.resolve(id + ".claimed");
+
+		Files.move(ready, claimed);
+		Files.write(directory.resolve(id + ".fifo"), PrelaunchedFork.EXIT.getBytes(StandardCharsets.UTF_8));
+	}
+
+	static String createScript(String jvm, String directory) {
+
+		return String.join("\n", //
+				"#!" + BASH, //
+				"JAVA=" + quote(jvm), //
+				"DIR=" + quote(directory), //
+				"args=(\"$@\")", //
+				"count=${#args[@]}", //
+				"if [ \"$count\" -lt 3 ] || [ \"${args[$((count - 3))]}\" != \"org.openjdk.jmh.runner.ForkedMain\" ]; then", //
+				"  exec \"$JAVA\" \"$@\"", //
+				"fi", //
+				"vmargs=(\"${args[@]:0:$((count - 3))}\")", //
+				"forkargs=\"${args[*]:$((count - 2))}\"", //
+				"sig=$(printf '%s\\n' \"${vmargs[@]}\" | cksum | cut -d ' ' -f 1)", //
+				"mkdir -p \"$DIR/ready-$sig\"", //
+				"# park a JVM for the next fork, its parent shell records the exit status", //
+				"next=\"$$-$RANDOM\"", //
+				"mkfifo \"$DIR/$next.fifo\"", //
+				"( nohup \"$JAVA\" \"${vmargs[@]}\" " + PrelaunchedFork.class.getName()
+						+ " \"$DIR/ready-$sig/$next\" \"$DIR/$next.fifo\" > \"$DIR/$next.out\" 2> \"$DIR/$next.err\" < /dev/null &", //
+				"  echo $! > \"$DIR/$next.pid\"", //
+				"  wait $!", //
+				"  echo $? > \"$DIR/$next.status\" && mv \"$DIR/$next.status\" \"$DIR/$next.exit\" ) > /dev/null 2>&1 < /dev/null &", //
+				"# hand this fork over to a parked JVM", //
+				"for ready in \"$DIR/ready-$sig\"/*; do", //
+				"  [ -e \"$ready\" ] || continue", //
+				"  id=$(basename \"$ready\")", //
+				"  if mv \"$ready\" \"$DIR/$id.claimed\" 2> /dev/null; then", //
+				"    printf '%s\\n' \"$forkargs\" > \"$DIR/$id.fifo\"", //
+				"    pid=$(cat \"$DIR/$id.pid\")", //
+				"    echo \"$pid\" > \"$DIR/$$.fork\"", //
+				"    tail -n +1 -f --pid=\"$pid\" \"$DIR/$id.out\" &", //
+				"    out=$!", //
+				"    tail -n +1 -f --pid=\"$pid\" \"$DIR/$id.err\" >&2 &", //
+				"    wait $out $!", //
+				"    for i in $(seq 50); do", //
+				"      [ -f \"$DIR/$id.exit\" ] && exit \"$(cat \"$DIR/$id.exit\")\"", //
+				"      sleep 0.1", //
+				"    done", //
+				"    exit 1", //
+				"  fi", //
+				"done", //
+				"exec \"$JAVA\" \"$@\"", //
+				"");
+	}
+
+	private static String quote(String value) {
+		return "'" + value.replace("'", "'\\''") + "'";
+	}
+}
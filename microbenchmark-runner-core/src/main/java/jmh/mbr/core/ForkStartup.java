@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import org.openjdk.jmh.runner.options.Options;
+
+/**
+ * Reduces startup time of forked benchmark JVMs. The class path is passed to forks through a manifest-only JAR
+ * ({@code jmh.separateClasspathJAR}) instead of a long command line.
+ * <p>
+ * JMH reads {@code jmh.separateClasspathJAR} from the system properties, {@link #close()} restores its previous value.
+ */
+class ForkStartup implements AutoCloseable {
+
+	private static final String SEPARATE_CLASSPATH_JAR_PROPERTY = "jmh.separateClasspathJAR";
+
+	private boolean applied;
+	private String previous;
+
+	/**
+	 * Apply fork startup options.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @return the {@link Options} to run forks with.
+	 */
+	Options prepare(Options options) {
+
+		if (options.getForkCount().orElse(1) == 0) {
+			return options;
+		}
+
+		if (!applied) {
+			previous = System.setProperty(SEPARATE_CLASSPATH_JAR_PROPERTY, "true");
+			applied = true;
+		}
+
+		return options;
+	}
+
+	/**
+	 * Restore {@code jmh.separateClasspathJAR} to its value before {@link #prepare(Options)}.
+	 */
+	@Override
+	public void close() {
+
+		if (!applied) {
+			return;
+		}
+
+		if (previous == null) {
+			System.clearProperty(SEPARATE_CLASSPATH_JAR_PROPERTY);
+		} else {
+			System.setProperty(SEPARATE_CLASSPATH_JAR_PROPERTY, previous);
+		}
+
+		applied = false;
+	}
+}
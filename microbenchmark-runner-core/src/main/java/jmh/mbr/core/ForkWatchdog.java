@@ -0,0 +1,484 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.IterationType;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * Watchdog for forks that hang, e.g. because of a deadlock in {@code @Setup} or an endless loop that JMH's iteration
+ * timeout cannot interrupt. Each fork gets a deadline derived from its iteration counts and times (single shot
+ * iterations are bound by the JMH iteration timeout) plus an allowance for JVM startup and setup, scaled by a safety
+ * factor. The deadline is armed when the benchmark starts and re-armed on the first iteration of each fork, so a fork
+ * is killed once it hangs instead of after the time budget of all forks. Once the deadline expires, the watchdog takes a thread dump of each fork JVM (through
+ * {@code jcmd}) and kills it. JMH then reports the benchmark as failed and continues with the remaining benchmarks.
+ * The thread dump is reported as failure cause of the benchmark.
+ * <p>
+ * Fork JVMs are discovered as descendants of the host JVM through {@code /proc}. Hosts without {@code /proc} are not
+ * watched.
+ */
+class ForkWatchdog implements AutoCloseable {
+
+	static final String FORKED_MAIN = "org.openjdk.jmh.runner.ForkedMain";
+
+	private static final long FORK_ALLOWANCE = TimeUnit.MINUTES.toMillis(1);
+	private static final long COMMAND_TIMEOUT_SECONDS = 30;
+
+	private final Path proc;
+	private final double factor;
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+
+		Thread thread = new Thread(runnable, "fork-watchdog");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	ForkWatchdog(double factor) {
+		this(Paths.get("/proc"), factor);
+	}
+
+	ForkWatchdog(Path proc, double factor) {
+
+		if (factor < 1) {
+			throw new IllegalArgumentException("Watchdog factor must be at least 1");
+		}
+
+		this.proc = proc;
+		this.factor = factor;
+	}
+
+	/**
+	 * @return {@literal true} if forks can be discovered on this host.
+	 */
+	static boolean isSupported() {
+		return Files.isDirectory(Paths.get("/proc/self"));
+	}
+
+	/**
+	 * Wrap {@link OutputFormat} to watch each benchmark from its start to its end.
+	 *
+	 * @param output must not be {@literal null}.
+	 * @return the watching {@link OutputFormat}.
+	 */
+	OutputFormat wrap(OutputFormat output) {
+		return new WatchingOutputFormat(output);
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Compute the deadline of a single fork of a benchmark.
+	 *
+	 * @param params must not be {@literal null}.
+	 * @return the deadline in milliseconds.
+	 */
+	long getDeadline(BenchmarkParams params) {
+
+		long iterations = getDuration(params, params.getWarmup()) + getDuration(params, params.getMeasurement());
+
+		return (long) ((FORK_ALLOWANCE + iterations) * factor);
+	}
+
+	/**
+	 * @return {@literal true} if {@code iteration} is the first iteration of a fork.
+	 */
+	static boolean isFirstIteration(BenchmarkParams benchParams, IterationParams params, int iteration) {
+
+		IterationType first = benchParams.getWarmup().getCount() > 0 ? IterationType.WARMUP : IterationType.MEASUREMENT;
+
+		return iteration == 1 && params.getType() == first;
+	}
+
+	private static long getDuration(BenchmarkParams params, IterationParams iteration) {
+
+		long time = params.getMode() == Mode.SingleShotTime ? params.getTimeout().convertTo(TimeUnit.MILLISECONDS)
+				: iteration.getTime().convertTo(TimeUnit.MILLISECONDS);
+
+		return iteration.getCount() * time;
+	}
+
+	/**
+	 * Discover the JVMs running forks of this host JVM. Forks started through a {@link ForkPrelauncher} launcher are
+	 * resolved to the JVM the launcher handed the fork to.
+	 *
+	 * @return process ids of fork JVMs.
+	 * @throws IOException if {@code /proc} cannot be read.
+	 */
+	List<Long> findForks() throws IOException {
+
+		long self = Long.parseLong(Files.readSymbolicLink(proc.resolve("self")).getFileName().toString());
+		Map<Long, List<Long>> children = new HashMap<>();
+
+		try (DirectoryStream<Path> processes = Files.newDirectoryStream(proc, "[0-9]*")) {
+
+			for (Path process : processes) {
+
+				long parent = getParent(process);
+
+				if (parent != -1) {
+					children.computeIfAbsent(parent, key -> new ArrayList<>())
+							.add(Long.parseLong(process.getFileName().toString()));
+				}
+			}
+		}
+
+		Set<Long> forks = new LinkedHashSet<>();
+		Deque<Long> queue = new ArrayDeque<>(children.getOrDefault(self, Collections.emptyList()));
+
+		while (!queue.isEmpty()) {
+
+			long pid = queue.poll();
+			List<String> commandLine = getCommandLine(proc.resolve(Long.toString(pid)));
+
+			if (commandLine.contains(FORKED_MAIN)) {
+
+				Long prelaunched = getPrelaunchedFork(pid, commandLine);
+				forks.add(prelaunched != null ? prelaunched : pid);
+				continue;
+			}
+
+			queue.addAll(children.getOrDefault(pid, Collections.emptyList()));
+		}
+
+		return new ArrayList<>(forks);
+	}
+
+	/**
+	 * Resolve the JVM a {@link ForkPrelauncher} launcher handed its fork to.
+	 *
+	 * @return the process id or {@literal null} if {@code commandLine} is not a launcher.
+	 */
+	private static Long getPrelaunchedFork(long pid, List<String> commandLine) {
+
+		for (String argument : commandLine) {
+
+			if (!argument.endsWith(File.separator + ForkPrelauncher.LAUNCHER)) {
+				continue;
+			}
+
+			Path fork = Paths.get(argument).resolveSibling(pid + ".fork");
+
+			try {
+				return Long.parseLong(new String(Files.readAllBytes(fork), StandardCharsets.UTF_8).trim());
+			} catch (IOException | NumberFormatException e) {
+				// the launcher did not hand over its fork, it runs the JVM itself
+				return null;
+			}
+		}
+
+		return null;
+	}
+
+	private static long getParent(Path process) {
+
+		try {
+
+			// the command name in parentheses may contain spaces
+			String stat = new String(Files.readAllBytes(process.resolve("stat")), StandardCharsets.UTF_8);
+			String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+			return Long.parseLong(fields[1]);
+		} catch (IOException | RuntimeException e) {
+			// process exited
+			return -1;
+		}
+	}
+
+	private static List<String> getCommandLine(Path process) {
+
+		try {
+			return Arrays.asList(new String(Files.readAllBytes(process.resolve("cmdline")), StandardCharsets.UTF_8)
+					.split("\0"));
+		} catch (IOException e) {
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Take a thread dump of a JVM using {@code jcmd} of the fork JVM or the host JVM.
+	 *
+	 * @param pid the process id.
+	 * @return the thread dump or a note why the thread dump is not available.
+	 */
+	String threadDump(long pid) {
+
+		List<String> commandLine = getCommandLine(proc.resolve(Long.toString(pid)));
+		Set<Path> candidates = new LinkedHashSet<>();
+
+		if (!commandLine.isEmpty()) {
+
+			Path java = Paths.get(commandLine.get(0));
+			candidates.add(java.resolveSibling("jcmd"));
+
+			if (java.getParent() != null && java.getParent().getParent() != null) {
+				candidates.add(java.getParent().getParent().resolveSibling("bin").resolve("jcmd"));
+			}
+		}
+
+		Path javaHome = Paths.get(System.getProperty("java.home"));
+		candidates.add(javaHome.resolve("bin").resolve("jcmd"));
+		candidates.add(javaHome.resolveSibling("bin").resolve("jcmd"));
+
+		for (Path jcmd : candidates) {
+
+			if (!Files.isExecutable(jcmd)) {
+				continue;
+			}
+
+			try {
+				return execute(jcmd.toString(), Long.toString(pid), "Thread.print");
+			} catch (IOException e) {
+				return String.format("Cannot take thread dump of %d: %s", pid, e);
+			}
+		}
+
+		return String.format("Cannot take thread dump of %d: jcmd not found", pid);
+	}
+
+	private static String execute(String... command) throws IOException {
+
+		File output = File.createTempFile("jmh-watchdog", ".txt");
+
+		try {
+
+			Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(output).start();
+
+			if (!process.waitFor(COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				process.destroyForcibly();
+				throw new IOException(String.format("%s timed out", Arrays.toString(command)));
+			}
+
+			return new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} finally {
+			output.delete();
+		}
+	}
+
+	private static void kill(long pid) throws IOException {
+		execute("kill", "-9", Long.toString(pid));
+	}
+
+	/**
+	 * Take thread dumps of and kill all forks.
+	 *
+	 * @return the report including thread dumps.
+	 */
+	String expire(BenchmarkParams params) {
+
+		StringBuilder report = new StringBuilder(String.format("Fork of %s did not finish within its deadline of %s",
+				params.getBenchmark(), RuntimeEstimate.format(getDeadline(params))));
+
+		List<Long> forks;
+
+		try {
+			forks = findForks();
+		} catch (IOException e) {
+			return report.append(String.format(", cannot discover forks: %s", e)).toString();
+		}
+
+		if (forks.isEmpty()) {
+			return report.append(", no fork JVM found").toString();
+		}
+
+		report.append(String.format(", killed fork JVM %s", forks));
+
+		for (long pid : forks) {
+
+			report.append(System.lineSeparator()).append(System.lineSeparator()).append("Thread dump of fork JVM ")
+					.append(pid).append(':').append(System.lineSeparator()).append(threadDump(pid));
+
+			try {
+				kill(pid);
+			} catch (IOException e) {
+				report.append(System.lineSeparator()).append(String.format("Cannot kill %d: %s", pid, e));
+			}
+		}
+
+		return report.toString();
+	}
+
+	/**
+	 * {@link OutputFormat} that arms the deadline once a benchmark starts, re-arms it for each fork and reports expired
+	 * benchmarks as failed.
+	 */
+	class WatchingOutputFormat implements OutputFormat {
+
+		private final OutputFormat delegate;
+
+		private ScheduledFuture<?> deadline;
+		private volatile String expired;
+		private volatile boolean failureReported;
+
+		WatchingOutputFormat(OutputFormat delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void iteration(BenchmarkParams benchParams, IterationParams params, int iteration) {
+
+			if (isFirstIteration(benchParams, params, iteration)) {
+				arm(benchParams);
+			}
+
+			delegate.iteration(benchParams, params, iteration);
+		}
+
+		@Override
+		public void iterationResult(BenchmarkParams benchParams, IterationParams params, int iteration,
+				IterationResult data) {
+			delegate.iterationResult(benchParams, params, iteration, data);
+		}
+
+		@Override
+		public void startBenchmark(BenchmarkParams benchParams) {
+
+			expired = null;
+			failureReported = false;
+			deadline = null;
+
+			arm(benchParams);
+			delegate.startBenchmark(benchParams);
+		}
+
+		/**
+		 * Arm the deadline for the next fork unless the current deadline already expired.
+		 */
+		private void arm(BenchmarkParams benchParams) {
+
+			if (deadline != null && !deadline.cancel(false)) {
+				return;
+			}
+
+			deadline = executor.schedule(() -> {
+
+				delegate.println(String.format("# WARNING: %s exceeded its deadline, killing fork", benchParams.getBenchmark()));
+				expired = expire(benchParams);
+			}, getDeadline(benchParams), TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public void endBenchmark(BenchmarkResult result) {
+
+			if (deadline != null && !deadline.cancel(false)) {
+				awaitExpiry();
+			}
+
+			String report = expired;
+			expired = null;
+
+			if (report != null && result == null) {
+				BenchmarkFailure.report(delegate, failureReported, Collections.singletonList(report));
+				return;
+			}
+
+			delegate.endBenchmark(result);
+		}
+
+		/**
+		 * JMH may notice the killed fork before the watchdog finished its report.
+		 */
+		private void awaitExpiry() {
+
+			try {
+				deadline.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException | CancellationException e) {
+				// report without thread dump
+			}
+		}
+
+		@Override
+		public void startRun() {
+			delegate.startRun();
+		}
+
+		@Override
+		public void endRun(Collection<RunResult> result) {
+			delegate.endRun(result);
+		}
+
+		@Override
+		public void print(String s) {
+			delegate.print(s);
+		}
+
+		@Override
+		public void println(String s) {
+
+			if (BenchmarkFailure.isMarker(s)) {
+				failureReported = true;
+			}
+
+			delegate.println(s);
+		}
+
+		@Override
+		public void flush() {
+			delegate.flush();
+		}
+
+		@Override
+		public void close() {
+			delegate.close();
+		}
+
+		@Override
+		public void verbosePrintln(String s) {
+			delegate.verbosePrintln(s);
+		}
+
+		@Override
+		public void write(int b) {
+			delegate.write(b);
+		}
+
+		@Override
+		public void write(byte[] b) throws IOException {
+			delegate.write(b);
+		}
+	}
+}
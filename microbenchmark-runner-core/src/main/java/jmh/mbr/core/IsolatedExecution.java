@@ -0,0 +1,297 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.BenchmarkListEntry;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs each benchmark in-process (without forking a JVM) inside a fresh {@link ClassLoader} that loads JMH, the runner
+ * and the benchmark classes from the class path. Each benchmark gets its own class and profile state. {@link Options}
+ * and {@link RunResult}s cross the class loader boundary through Java serialization. {@link OutputFormat} callbacks are
+ * serialized inside the isolated class loader and forwarded as they happen so that runners report progress live.
+ * <p>
+ * Results are tagged with parameter {@value #EXECUTION_PARAMETER}{@code =}{@value #IN_PROCESS}. The {@code jvm} and
+ * {@code jvmArgs} run dimensions do not apply to in-process runs, see {@link JmhSupport#getRunDimensions()}.
+ */
+class IsolatedExecution {
+
+	static final String EXECUTION_PARAMETER = "execution";
+	static final String IN_PROCESS = "in-process";
+
+	/**
+	 * Run benchmarks selected by {@code options}, each in an isolated class loader.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @param output the {@link OutputFormat} to report progress to.
+	 * @return the {@link RunResult}s tagged as in-process.
+	 * @throws RunnerException if JMH fails.
+	 */
+	Collection<RunResult> run(Options options, OutputFormat output) throws RunnerException {
+
+		Set<String> benchmarks = new LinkedHashSet<>();
+		for (BenchmarkListEntry entry : JmhSupport.findBenchmarks(options, output)) {
+			benchmarks.add(entry.getUsername());
+		}
+
+		Options inProcess = new OptionsBuilder().parent(options).forks(0).build();
+		List<RunResult> results = new ArrayList<>();
+
+		for (String benchmark : benchmarks) {
+
+			Options benchmarkOptions = new OptionsBuilder().parent(inProcess)
+					.exclude(JmhSupport.excludeAllExcept(Collections.singleton(benchmark))).build();
+
+			for (RunResult result : runIsolated(benchmark, benchmarkOptions, output)) {
+				results.add(JmhSupport.withParameters(result, Collections.singletonMap(EXECUTION_PARAMETER, IN_PROCESS)));
+			}
+		}
+
+		return results;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Collection<RunResult> runIsolated(String benchmark, Options options, OutputFormat output)
+			throws RunnerException {
+
+		Thread thread = Thread.currentThread();
+		ClassLoader contextClassLoader = thread.getContextClassLoader();
+
+		try (URLClassLoader classLoader = createClassLoader()) {
+
+			thread.setContextClassLoader(classLoader);
+
+			Method entryPoint = classLoader.loadClass(IsolatedExecution.class.getName()).getDeclaredMethod("execute",
+					byte[].class, Consumer.class);
+			entryPoint.setAccessible(true);
+
+			Consumer<byte[]> events = event -> {
+				try {
+					replay((Object[]) deserialize(event), output);
+				} catch (IOException | ClassNotFoundException e) {
+					throw new IllegalStateException("Cannot forward benchmark output", e);
+				}
+			};
+
+			return (List<RunResult>) deserialize((byte[]) entryPoint.invoke(null, serialize(options), events));
+		} catch (InvocationTargetException e) {
+			throw new RunnerException(String.format("Benchmark %s failed in isolated class loader: %s", benchmark,
+					e.getTargetException()));
+		} catch (IOException | ReflectiveOperationException e) {
+			throw new RunnerException(String.format("Cannot run benchmark %s in isolated class loader", benchmark), e);
+		} finally {
+			thread.setContextClassLoader(contextClassLoader);
+		}
+	}
+
+	/**
+	 * Entry point within the isolated class loader.
+	 *
+	 * @param options serialized {@link Options}.
+	 * @param events receives serialized {@link OutputFormat} events as they happen.
+	 * @return serialized {@link RunResult}s.
+	 */
+	static byte[] execute(byte[] options, Consumer<byte[]> events) throws Exception {
+
+		Collection<RunResult> results = new Runner((Options) deserialize(options), new ForwardingOutputFormat(events))
+				.run();
+
+		return serialize(new ArrayList<>(results));
+	}
+
+	/**
+	 * Create a class loader for the class path that does not delegate to the application class loader.
+	 */
+	private static URLClassLoader createClassLoader() throws MalformedURLException {
+
+		List<URL> urls = new ArrayList<>();
+
+		for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+
+			if (StringUtils.hasText(entry)) {
+				urls.add(new File(entry).toURI().toURL());
+			}
+		}
+
+		return new URLClassLoader(urls.toArray(new URL[0]), ClassLoader.getSystemClassLoader().getParent());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void replay(Object[] event, OutputFormat output) throws IOException {
+
+		switch ((String) event[0]) {
+			case "iteration":
+				output.iteration((BenchmarkParams) event[1], (IterationParams) event[2], (Integer) event[3]);
+				break;
+			case "iterationResult":
+				output.iterationResult((BenchmarkParams) event[1], (IterationParams) event[2], (Integer) event[3],
+						(IterationResult) event[4]);
+				break;
+			case "startBenchmark":
+				output.startBenchmark((BenchmarkParams) event[1]);
+				break;
+			case "endBenchmark":
+				output.endBenchmark((BenchmarkResult) event[1]);
+				break;
+			case "startRun":
+				output.startRun();
+				break;
+			case "endRun":
+				output.endRun((Collection<RunResult>) event[1]);
+				break;
+			case "print":
+				output.print((String) event[1]);
+				break;
+			case "println":
+				output.println((String) event[1]);
+				break;
+			case "verbosePrintln":
+				output.verbosePrintln((String) event[1]);
+				break;
+			case "write":
+				output.write((byte[]) event[1]);
+				break;
+			case "flush":
+				output.flush();
+				break;
+		}
+	}
+
+	private static byte[] serialize(Object object) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(object);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return in.readObject();
+		}
+	}
+
+	/**
+	 * {@link OutputFormat} forwarding all callbacks as serialized events.
+	 */
+	static class ForwardingOutputFormat implements OutputFormat {
+
+		private final Consumer<byte[]> events;
+
+		ForwardingOutputFormat(Consumer<byte[]> events) {
+			this.events = events;
+		}
+
+		private void forward(Object... event) {
+
+			try {
+				events.accept(serialize(event));
+			} catch (IOException e) {
+				throw new IllegalStateException(String.format("Cannot serialize %s event", event[0]), e);
+			}
+		}
+
+		@Override
+		public void iteration(BenchmarkParams benchParams, IterationParams params, int iteration) {
+			forward("iteration", benchParams, params, iteration);
+		}
+
+		@Override
+		public void iterationResult(BenchmarkParams benchParams, IterationParams params, int iteration,
+				IterationResult data) {
+			forward("iterationResult", benchParams, params, iteration, data);
+		}
+
+		@Override
+		public void startBenchmark(BenchmarkParams benchParams) {
+			forward("startBenchmark", benchParams);
+		}
+
+		@Override
+		public void endBenchmark(BenchmarkResult result) {
+			forward("endBenchmark", result);
+		}
+
+		@Override
+		public void startRun() {
+			forward("startRun");
+		}
+
+		@Override
+		public void endRun(Collection<RunResult> result) {
+			forward("endRun", new ArrayList<>(result));
+		}
+
+		@Override
+		public void print(String s) {
+			forward("print", s);
+		}
+
+		@Override
+		public void println(String s) {
+			forward("println", s);
+		}
+
+		@Override
+		public void flush() {
+			forward("flush");
+		}
+
+		@Override
+		public void close() {}
+
+		@Override
+		public void verbosePrintln(String s) {
+			forward("verbosePrintln", s);
+		}
+
+		@Override
+		public void write(int b) {
+			forward("write", new byte[] { (byte) b });
+		}
+
+		@Override
+		public void write(byte[] b) {
+			forward("write", b.clone());
+		}
+	}
+}
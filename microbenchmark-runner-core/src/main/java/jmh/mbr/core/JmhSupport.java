@@ -15,13 +15,34 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import jmh.mbr.core.model.DiscoveryCache;
+import jmh.mbr.core.model.ParameterSampling;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
 import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
 import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.BenchmarkList;
+import org.openjdk.jmh.runner.BenchmarkListEntry;
 import org.openjdk.jmh.runner.Defaults;
 import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.format.OutputFormat;
 import org.openjdk.jmh.runner.format.OutputFormatFactory;
 import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
@@ -35,6 +56,30 @@ import org.openjdk.jmh.util.Utils;
  */
 public class JmhSupport {
 
+	/**
+	 * Name of the run dimension that represents the thread count of a {@code threadsSweep}.
+	 */
+	public static final String THREADS_DIMENSION = "threads";
+
+	/**
+	 * Name of the run dimension that represents the JVM arguments of a {@code jvmArgsMatrix}.
+	 */
+	public static final String JVM_ARGS_DIMENSION = "jvmArgs";
+
+	/**
+	 * Name of the run dimension that represents the JVM binary of a {@code jvms} list.
+	 */
+	public static final String JVM_DIMENSION = "jvm";
+
+	private static final String RUNTIME_FILE = "target/jmh-runtime.properties";
+
+	/**
+	 * Group key restricting a JMH run to a single mode when modes of a benchmark are scaled differently.
+	 */
+	private static final String MODE_OVERRIDE = "mode";
+
+	private BenchmarkOverrides benchmarkOverrides;
+
 	/**
 	 * Collect all options for the {@link Runner}.
 	 *
@@ -60,6 +105,7 @@ public class JmhSupport {
 		optionsBuilder = warmup(optionsBuilder);
 		optionsBuilder = measure(optionsBuilder);
 		optionsBuilder = forks(optionsBuilder);
+		optionsBuilder = profilers(optionsBuilder);
 
 		return optionsBuilder;
 	}
@@ -100,6 +146,387 @@ public class JmhSupport {
 		return Integer.parseInt(Environment.getProperty("forks", "-1"));
 	}
 
+	/**
+	 * Read {@code adaptiveMeasurement} property from {@link jmh.mbr.core.Environment}. The property is the target
+	 * relative width of the 99.9% confidence interval of the primary score (e.g. {@code 0.05} for 5% of the mean).
+	 * Enables adaptive measurement if set.
+	 *
+	 * @return -1 if not set.
+	 */
+	public double getAdaptiveMeasurement() {
+		return Double.parseDouble(Environment.getProperty("adaptiveMeasurement", "-1"));
+	}
+
+	/**
+	 * Read {@code adaptiveMaxIterations} property from {@link jmh.mbr.core.Environment}. Upper bound of measurement
+	 * iterations per benchmark when using adaptive measurement.
+	 *
+	 * @return 100 if not set.
+	 */
+	public int getAdaptiveMaxIterations() {
+		return Integer.parseInt(Environment.getProperty("adaptiveMaxIterations", "100"));
+	}
+
+	/**
+	 * Read {@code concurrentForks} property from {@link jmh.mbr.core.Environment}. Runs independent benchmarks
+	 * concurrently, each confined to a disjoint set of CPUs.
+	 *
+	 * @return false if not set.
+	 */
+	public boolean isConcurrentForks() {
+		return Boolean.valueOf(Environment.getProperty("concurrentForks", "false"));
+	}
+
+	/**
+	 * Read {@code concurrentForksCpus} property from {@link jmh.mbr.core.Environment}. Number of CPUs the concurrent
+	 * fork scheduler distributes benchmarks across.
+	 *
+	 * @return the number of available processors if not set.
+	 */
+	public int getConcurrentForksCpus() {
+		return Integer.parseInt(Environment.getProperty("concurrentForksCpus",
+				Integer.toString(Runtime.getRuntime().availableProcessors())));
+	}
+
+	/**
+	 * Read {@code inProcess} property from {@link jmh.mbr.core.Environment}. Runs each benchmark without forking inside
+	 * an isolated class loader. Takes precedence over forks, adaptive measurement and concurrent forks.
+	 *
+	 * @return false if not set.
+	 */
+	public boolean isInProcess() {
+		return Boolean.valueOf(Environment.getProperty("inProcess", "false"));
+	}
+
+	/**
+	 * Read {@code fastForkStartup} property from {@link jmh.mbr.core.Environment}. Passes the class path to forks
+	 * through a manifest-only JAR.
+	 *
+	 * @return false if not set.
+	 */
+	public boolean isFastForkStartup() {
+		return Boolean.valueOf(Environment.getProperty("fastForkStartup", "false"));
+	}
+
+	/**
+	 * Read {@code prelaunchForks} property from {@link jmh.mbr.core.Environment}. Starts the JVM of the next fork while
+	 * the current fork is measuring and parks it until JMH launches the fork. Requires {@code bash}.
+	 *
+	 * @return false if not set.
+	 */
+	public boolean isPrelaunchForks() {
+		return Boolean.valueOf(Environment.getProperty("prelaunchForks", "false"));
+	}
+
+	/**
+	 * Read {@code forkWatchdog} property from {@link jmh.mbr.core.Environment}. Kills forks of benchmarks that exceed
+	 * their deadline, reports a thread dump as failure cause, and continues with the remaining benchmarks.
+	 *
+	 * @return false if not set.
+	 */
+	public boolean isForkWatchdog() {
+		return Boolean.valueOf(Environment.getProperty("forkWatchdog", "false"));
+	}
+
+	/**
+	 * Read {@code forkWatchdogFactor} property from {@link jmh.mbr.core.Environment}. Safety factor applied to the
+	 * expected duration of a benchmark (forks, iterations and a startup allowance per fork) to compute its deadline.
+	 *
+	 * @return {@code 3} if not set.
+	 */
+	public double getForkWatchdogFactor() {
+		return Double.parseDouble(Environment.getProperty("forkWatchdogFactor", "3"));
+	}
+
+	/**
+	 * Read {@code changeImpact} property from {@link jmh.mbr.core.Environment}. Runs only benchmarks whose benchmark
+	 * class or any class reachable from it changed since the last recorded run.
+	 *
+	 * @return false if not set.
+	 */
+	public boolean isChangeImpact() {
+		return Boolean.valueOf(Environment.getProperty("changeImpact", "false"));
+	}
+
+	/**
+	 * Read {@code changeImpactFile} property from {@link jmh.mbr.core.Environment}. File to record class hashes and
+	 * results of benchmarks that ran.
+	 *
+	 * @return {@code target/jmh-change-impact.properties} if not set.
+	 */
+	public String getChangeImpactFile() {
+		return Environment.getProperty("changeImpactFile", "target/jmh-change-impact.properties");
+	}
+
+	/**
+	 * Create the {@link ChangeImpact} to select benchmarks to run.
+	 *
+	 * @return the {@link ChangeImpact}, {@link ChangeImpact#none()} if change impact selection is disabled.
+	 */
+	public ChangeImpact getChangeImpact() {
+		return isChangeImpact()
+				? ChangeImpact.load(new File(getChangeImpactFile()), getClassLoader(), getBenchmarkOverrides())
+				: ChangeImpact.none();
+	}
+
+	/**
+	 * Read {@code baseline} property from {@link jmh.mbr.core.Environment}. JMH JSON result file, or directory of JSON
+	 * result files (the most recent one is used), to compare benchmark results against.
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	public String getBaselineLocation() {
+		return Environment.getProperty("baseline");
+	}
+
+	/**
+	 * Read {@code baselineThreshold} property from {@link jmh.mbr.core.Environment}. Relative score regression
+	 * compared to the baseline that fails a benchmark, if statistically significant.
+	 *
+	 * @return {@code 0.05} if not set.
+	 */
+	public double getBaselineThreshold() {
+		return Double.parseDouble(Environment.getProperty("baselineThreshold", "0.05"));
+	}
+
+	/**
+	 * Load the {@link Baseline} to compare benchmark results against.
+	 *
+	 * @return the {@link Baseline}, {@link Baseline#none()} if no baseline is configured.
+	 */
+	public Baseline getBaseline() {
+
+		String location = getBaselineLocation();
+		return StringUtils.hasText(location) ? Baseline.load(location, getBaselineThreshold()) : Baseline.none();
+	}
+
+	/**
+	 * Read {@code timeBudget} property from {@link jmh.mbr.core.Environment}. Plain numbers are considered seconds, values
+	 * with a unit (such as {@code 30m}) are parsed as {@link TimeValue}. Forks and iterations are scaled down to fit the
+	 * {@link #estimate(Options, OutputFormat) estimated run time} into the budget.
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	public TimeValue getTimeBudget() {
+		return parseTime(Environment.getProperty("timeBudget"));
+	}
+
+	/**
+	 * Read {@code environmentGuard} property from {@link jmh.mbr.core.Environment}. Checks host conditions (load
+	 * average, CPU frequency, turbo boost, swap activity, busy processes) before the run and after each benchmark. Enabled
+	 * by {@link #isStrictEnvironment() strict mode}.
+	 *
+	 * @return false if not set.
+	 */
+	public boolean isEnvironmentGuard() {
+		return Boolean.valueOf(Environment.getProperty("environmentGuard", "false")) || isStrictEnvironment();
+	}
+
+	/**
+	 * Read {@code strictEnvironment} property from {@link jmh.mbr.core.Environment}. Fails benchmarks that ran in a noisy
+	 * environment.
+	 *
+	 * @return false if not set.
+	 */
+	public boolean isStrictEnvironment() {
+		return Boolean.valueOf(Environment.getProperty("strictEnvironment", "false"));
+	}
+
+	/**
+	 * Read {@code profilers} property from {@link jmh.mbr.core.Environment}. The property is a comma-separated list of
+	 * profiler names (such as {@code gc,stack}), each optionally followed by {@code :} and profiler options.
+	 *
+	 * @return empty list if not set.
+	 */
+	public List<String> getProfilers() {
+
+		String profilers = Environment.getProperty("profilers");
+
+		if (!StringUtils.hasText(profilers)) {
+			return Collections.emptyList();
+		}
+
+		return Arrays.stream(profilers.split(",")).map(String::trim).filter(StringUtils::hasText)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Read {@code threadsSweep} property from {@link jmh.mbr.core.Environment}. The property is a comma-separated list of
+	 * thread counts, {@code max} resolves to the number of available processors.
+	 *
+	 * @return empty list if not set.
+	 */
+	public List<Integer> getThreadsSweep() {
+
+		String threadsSweep = Environment.getProperty("threadsSweep");
+
+		if (!StringUtils.hasText(threadsSweep)) {
+			return Collections.emptyList();
+		}
+
+		Set<Integer> threads = new LinkedHashSet<>();
+		for (String candidate : threadsSweep.split(",")) {
+
+			String value = candidate.trim();
+
+			if (value.isEmpty()) {
+				continue;
+			}
+
+			threads.add(value.equalsIgnoreCase("max") ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(value));
+		}
+
+		return new ArrayList<>(threads);
+	}
+
+	/**
+	 * Read {@code jvmArgsMatrix} property from {@link jmh.mbr.core.Environment}. The property is a semicolon-separated
+	 * list of JVM argument sets (such as {@code -XX:+UseG1GC;-XX:+UseParallelGC -XX:-UseCompressedOops}). An empty entry
+	 * represents a run without additional JVM arguments.
+	 *
+	 * @return empty list if not set.
+	 */
+	public List<String> getJvmArgsMatrix() {
+
+		String jvmArgsMatrix = Environment.getProperty("jvmArgsMatrix");
+
+		if (!StringUtils.hasText(jvmArgsMatrix)) {
+			return Collections.emptyList();
+		}
+
+		Set<String> entries = new LinkedHashSet<>();
+		for (String entry : jvmArgsMatrix.split(";", -1)) {
+			entries.add(String.join(" ", splitArgs(entry)));
+		}
+
+		return new ArrayList<>(entries);
+	}
+
+	/**
+	 * Read {@code jvms} property from {@link jmh.mbr.core.Environment}. The property is a comma-separated list of paths
+	 * to JVM binaries (such as {@code /opt/jdk17/bin/java,/opt/jdk21/bin/java}) that are used to fork benchmarks.
+	 *
+	 * @return empty list if not set.
+	 */
+	public List<String> getJvms() {
+
+		String jvms = Environment.getProperty("jvms");
+
+		if (!StringUtils.hasText(jvms)) {
+			return Collections.emptyList();
+		}
+
+		return Arrays.stream(jvms.split(",")).map(String::trim).filter(StringUtils::hasText).distinct()
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Returns run dimensions that are applied by the runner on top of JMH's {@code @Param} values. Each dimension value
+	 * results in an own JMH run and is represented as fixture. The {@link #getJvms() JVM} and
+	 * {@link #getJvmArgsMatrix() JVM arguments} dimensions apply to forked benchmarks only and are dropped for
+	 * {@link #isInProcess() in-process} runs and {@code forks=0}.
+	 *
+	 * @return dimension names mapped to their values. Empty if no run dimensions are configured.
+	 * @see #getThreadsSweep()
+	 * @see #getJvmArgsMatrix()
+	 * @see #getJvms()
+	 */
+	public Map<String, List<String>> getRunDimensions() {
+
+		Map<String, List<String>> dimensions = new LinkedHashMap<>();
+		List<Integer> threadsSweep = getThreadsSweep();
+		List<String> jvmArgsMatrix = isForked() ? getJvmArgsMatrix() : Collections.emptyList();
+		List<String> jvms = isForked() ? getJvms() : Collections.emptyList();
+
+		if (!jvms.isEmpty()) {
+			dimensions.put(JVM_DIMENSION, jvms);
+		}
+
+		if (!threadsSweep.isEmpty()) {
+			dimensions.put(THREADS_DIMENSION, threadsSweep.stream().map(Object::toString).collect(Collectors.toList()));
+		}
+
+		if (!jvmArgsMatrix.isEmpty()) {
+			dimensions.put(JVM_ARGS_DIMENSION, jvmArgsMatrix);
+		}
+
+		return dimensions;
+	}
+
+	private boolean isForked() {
+		return !isInProcess() && getForksCount() != 0;
+	}
+
+	/**
+	 * Read {@code paramSampling} property from {@link jmh.mbr.core.Environment}. Selects a representative subset of
+	 * {@code @Param} combinations ({@code all}, {@code pairwise}, {@code latin-hypercube:N} or {@code random:N:seed})
+	 * instead of the full cartesian product.
+	 *
+	 * @return {@link ParameterSampling#all()} if not set.
+	 * @throws IllegalArgumentException if the property is invalid.
+	 */
+	public ParameterSampling getParamSampling() {
+		return ParameterSampling.parse(Environment.getProperty("paramSampling"));
+	}
+
+	/**
+	 * Read {@code discoveryCache} property from {@link jmh.mbr.core.Environment}. Reuses benchmark methods and
+	 * {@code @Param} values discovered in previous runs for benchmark classes whose class files did not change.
+	 *
+	 * @return false if not set.
+	 */
+	public boolean isDiscoveryCache() {
+		return Boolean.valueOf(Environment.getProperty("discoveryCache", "false"));
+	}
+
+	/**
+	 * Read {@code discoveryCacheFile} property from {@link jmh.mbr.core.Environment}. File to record discovered benchmark
+	 * methods along with class file fingerprints.
+	 *
+	 * @return {@code target/jmh-discovery-cache.bin} if not set.
+	 */
+	public String getDiscoveryCacheFile() {
+		return Environment.getProperty("discoveryCacheFile", "target/jmh-discovery-cache.bin");
+	}
+
+	/**
+	 * Obtain the {@link DiscoveryCache} to create benchmark descriptors.
+	 *
+	 * @return the {@link DiscoveryCache}, {@link DiscoveryCache#none()} if the discovery cache is disabled.
+	 */
+	public DiscoveryCache getDiscoveryCache() {
+		return isDiscoveryCache() ? DiscoveryCache.load(new File(getDiscoveryCacheFile()), getClassLoader())
+				: DiscoveryCache.none();
+	}
+
+	/**
+	 * Describe the fixture of a benchmark run by its {@code @Param} values and the values of configured run dimensions.
+	 * The resulting {@link Map} is comparable with {@link jmh.mbr.core.model.BenchmarkFixture#getFixture()}.
+	 * {@link #run(Options, OutputFormat) Runs} report run dimension values other than threads as parameters of the
+	 * {@link BenchmarkParams} passed to {@link OutputFormat} callbacks.
+	 *
+	 * @param params must not be {@literal null}.
+	 * @return the fixture values.
+	 */
+	public Map<String, String> getFixture(BenchmarkParams params) {
+
+		Map<String, String> fixture = new LinkedHashMap<>();
+
+		for (String key : params.getParamsKeys()) {
+			fixture.put(key, params.getParam(key));
+		}
+
+		if (!getThreadsSweep().isEmpty()) {
+			fixture.put(THREADS_DIMENSION, Integer.toString(params.getThreads()));
+		}
+
+		return fixture;
+	}
+
+	static List<String> splitArgs(String args) {
+		return Arrays.stream(args.trim().split("\\s+")).filter(StringUtils::hasText).collect(Collectors.toList());
+	}
+
 	/**
 	 * Read {@code benchmarkReportDir} property from {@link jmh.mbr.core.Environment}.
 	 *
@@ -110,21 +537,93 @@ public class JmhSupport {
 	}
 
 	/**
-	 * Read {@code measurementTime} property from {@link jmh.mbr.core.Environment}.
+	 * Read {@code measurementTime} property from {@link jmh.mbr.core.Environment} in seconds. Sub-second values are
+	 * truncated.
 	 *
 	 * @return -1 if not set.
+	 * @deprecated since 0.2, use {@link #getMeasurementTimeValue()} to retain sub-second precision.
 	 */
+	@Deprecated
 	public long getMeasurementTime() {
-		return Long.parseLong(Environment.getProperty("measurementTime", "-1"));
+
+		TimeValue measurementTime = getMeasurementTimeValue();
+		return measurementTime == null ? -1 : measurementTime.convertTo(TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Read {@code measurementTime} property from {@link jmh.mbr.core.Environment}. Plain numbers are considered seconds,
+	 * values with a unit (such as {@code 100ms}) are parsed as {@link TimeValue}.
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	public TimeValue getMeasurementTimeValue() {
+		return parseTime(Environment.getProperty("measurementTime"));
 	}
 
 	/**
-	 * Read {@code warmupTime} property from {@link jmh.mbr.core.Environment}.
+	 * Read {@code warmupTime} property from {@link jmh.mbr.core.Environment} in seconds. Sub-second values are truncated.
 	 *
 	 * @return -1 if not set.
+	 * @deprecated since 0.2, use {@link #getWarmupTimeValue()} to retain sub-second precision.
 	 */
+	@Deprecated
 	public long getWarmupTime() {
-		return Integer.parseInt(Environment.getProperty("warmupTime", "-1"));
+
+		TimeValue warmupTime = getWarmupTimeValue();
+		return warmupTime == null ? -1 : warmupTime.convertTo(TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Read {@code warmupTime} property from {@link jmh.mbr.core.Environment}. Plain numbers are considered seconds, values
+	 * with a unit (such as {@code 100ms}) are parsed as {@link TimeValue}.
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	public TimeValue getWarmupTimeValue() {
+		return parseTime(Environment.getProperty("warmupTime"));
+	}
+
+	/**
+	 * Read {@code benchmarkMode} property from {@link jmh.mbr.core.Environment}. Accepts mode names ({@code Throughput})
+	 * and short labels ({@code thrpt}).
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	public Mode getMode() {
+
+		String mode = Environment.getProperty("benchmarkMode");
+		return StringUtils.hasText(mode) ? Mode.deepValueOf(mode.trim()) : null;
+	}
+
+	/**
+	 * Read {@code timeUnit} property from {@link jmh.mbr.core.Environment}. Accepts {@link TimeUnit} names
+	 * ({@code MILLISECONDS}) and short labels ({@code ms}).
+	 *
+	 * @return {@literal null} if not set.
+	 */
+	public TimeUnit getTimeUnit() {
+
+		String timeUnit = Environment.getProperty("timeUnit");
+
+		if (!StringUtils.hasText(timeUnit)) {
+			return null;
+		}
+
+		switch (timeUnit.trim().toLowerCase(Locale.ROOT)) {
+			case "ns":
+				return TimeUnit.NANOSECONDS;
+			case "us":
+				return TimeUnit.MICROSECONDS;
+			case "ms":
+				return TimeUnit.MILLISECONDS;
+			case "s":
+				return TimeUnit.SECONDS;
+			case "m":
+			case "min":
+				return TimeUnit.MINUTES;
+			default:
+				return TimeUnit.valueOf(timeUnit.trim().toUpperCase(Locale.ROOT));
+		}
 	}
 
 	/**
@@ -157,19 +656,31 @@ public class JmhSupport {
 	 * @param optionsBuilder must not be {@literal null}.
 	 * @return {@link ChainedOptionsBuilder} with options applied.
 	 * @see #getMeasurementIterations()
-	 * @see #getMeasurementTime()
+	 * @see #getMeasurementTimeValue()
+	 * @see #getMode()
+	 * @see #getTimeUnit()
 	 */
 	private ChainedOptionsBuilder measure(ChainedOptionsBuilder optionsBuilder) {
 
 		int measurementIterations = getMeasurementIterations();
-		long measurementTime = getMeasurementTime();
+		TimeValue measurementTime = getMeasurementTimeValue();
+		Mode mode = getMode();
+		TimeUnit timeUnit = getTimeUnit();
 
 		if (measurementIterations > 0) {
 			optionsBuilder = optionsBuilder.measurementIterations(measurementIterations);
 		}
 
-		if (measurementTime > 0) {
-			optionsBuilder = optionsBuilder.measurementTime(TimeValue.seconds(measurementTime));
+		if (measurementTime != null) {
+			optionsBuilder = optionsBuilder.measurementTime(measurementTime);
+		}
+
+		if (mode != null) {
+			optionsBuilder = optionsBuilder.mode(mode);
+		}
+
+		if (timeUnit != null) {
+			optionsBuilder = optionsBuilder.timeUnit(timeUnit);
 		}
 
 		return optionsBuilder;
@@ -181,19 +692,20 @@ public class JmhSupport {
 	 * @param optionsBuilder must not be {@literal null}.
 	 * @return {@link ChainedOptionsBuilder} with options applied.
 	 * @see #getWarmupIterations()
-	 * @see #getWarmupTime()
+	 * @see #getWarmupTimeValue()
 	 */
 	private ChainedOptionsBuilder warmup(ChainedOptionsBuilder optionsBuilder) {
 
 		int warmupIterations = getWarmupIterations();
-		long warmupTime = getWarmupTime();
+		TimeValue warmupTime = getWarmupTimeValue();
 
-		if (warmupIterations > 0) {
+		// zero warmup iterations is a valid setting to skip warmup entirely
+		if (warmupIterations >= 0) {
 			optionsBuilder = optionsBuilder.warmupIterations(warmupIterations);
 		}
 
-		if (warmupTime > 0) {
-			optionsBuilder = optionsBuilder.warmupTime(TimeValue.seconds(warmupTime));
+		if (warmupTime != null) {
+			optionsBuilder = optionsBuilder.warmupTime(warmupTime);
 		}
 
 		return optionsBuilder;
@@ -217,6 +729,29 @@ public class JmhSupport {
 		return optionsBuilder.forks(forks);
 	}
 
+	/**
+	 * Apply profilers to {@link ChainedOptionsBuilder}.
+	 *
+	 * @param optionsBuilder must not be {@literal null}.
+	 * @return {@link ChainedOptionsBuilder} with options applied.
+	 * @see #getProfilers()
+	 */
+	private ChainedOptionsBuilder profilers(ChainedOptionsBuilder optionsBuilder) {
+
+		for (String profiler : getProfilers()) {
+
+			int separator = profiler.indexOf(':');
+
+			if (separator == -1) {
+				optionsBuilder = optionsBuilder.addProfiler(profiler);
+			} else {
+				optionsBuilder = optionsBuilder.addProfiler(profiler.substring(0, separator), profiler.substring(separator + 1));
+			}
+		}
+
+		return optionsBuilder;
+	}
+
 	/**
 	 * Apply report option to {@link ChainedOptionsBuilder}.
 	 *
@@ -251,6 +786,590 @@ public class JmhSupport {
 		return optionsBuilder;
 	}
 
+	/**
+	 * Run benchmarks with the given {@link Options}. Runs JMH once per combination of {@link #getRunDimensions() run
+	 * dimension} values (such as {@link #getJvms() JVM binaries}, thread counts of a {@link #getThreadsSweep() threads
+	 * sweep} or entries of a {@link #getJvmArgsMatrix() JVM arguments matrix}) and computes the scaling efficiency of each benchmark if a
+	 * threads sweep is active. Run dimensions other than threads are reported as benchmark parameters. Adds measurement
+	 * rounds until results converge if {@link #getAdaptiveMeasurement() adaptive measurement} is enabled. Benchmarks
+	 * with {@link #getBenchmarkOverrides() overrides} run in a separate JMH run per distinct set of overrides. Runs
+	 * benchmarks concurrently on disjoint CPU sets if {@link #isConcurrentForks() concurrent forks} are enabled. Checks
+	 * host conditions before the run and after each benchmark if the {@link #isEnvironmentGuard() environment guard} is
+	 * enabled. Reports the {@link #estimate(Options, OutputFormat) estimated run time} before running.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @param output the {@link OutputFormat} to report progress to.
+	 * @return the {@link RunResult}s of all runs.
+	 * @throws RunnerException if JMH fails, the run does not fit into the {@link #getTimeBudget() time budget} or the
+	 *           environment is noisy in {@link #isStrictEnvironment() strict mode}.
+	 */
+	public Collection<RunResult> run(Options options, OutputFormat output) throws RunnerException {
+		return run(options, output, estimate(options, output));
+	}
+
+	/**
+	 * Run benchmarks with the given {@link Options} and a previously computed {@link RuntimeEstimate}. Forks and
+	 * iterations are applied per benchmark if the estimate was {@link RuntimeEstimate#isScaled() scaled} to fit the
+	 * {@link #getTimeBudget() time budget}.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @param output the {@link OutputFormat} to report progress to.
+	 * @param estimate the {@link RuntimeEstimate} obtained from {@link #estimate(Options, OutputFormat)}.
+	 * @return the {@link RunResult}s of all runs.
+	 * @throws RunnerException if JMH fails or the environment is noisy in {@link #isStrictEnvironment() strict mode}.
+	 * @see #run(Options, OutputFormat)
+	 */
+	public Collection<RunResult> run(Options options, OutputFormat output, RuntimeEstimate estimate)
+			throws RunnerException {
+		return run(options, output, estimate, FixtureSelection.none());
+	}
+
+	/**
+	 * Run benchmarks with the given {@link Options} and a previously computed {@link RuntimeEstimate}. Benchmarks
+	 * restricted by {@link FixtureSelection} run their selected fixtures only by passing explicit {@code @Param} values
+	 * to JMH.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @param output the {@link OutputFormat} to report progress to.
+	 * @param estimate the {@link RuntimeEstimate} obtained from
+	 *          {@link #estimate(Options, OutputFormat, FixtureSelection)}.
+	 * @param selection the {@link FixtureSelection} to run.
+	 * @return the {@link RunResult}s of all runs.
+	 * @throws RunnerException if JMH fails or the environment is noisy in {@link #isStrictEnvironment() strict mode}.
+	 * @see #run(Options, OutputFormat)
+	 */
+	public Collection<RunResult> run(Options options, OutputFormat output, RuntimeEstimate estimate,
+			FixtureSelection selection) throws RunnerException {
+
+		output.println("# Estimated run time: " + estimate);
+
+		if (estimate.isScaled()) {
+			output.println(String.format("# Scaled forks and iterations to fit the time budget of %s", getTimeBudget()));
+		}
+
+		if (!isForkStartupRecorded()) {
+			return runGuarded(options, output, estimate, selection);
+		}
+
+		RuntimeEstimate.ForkTimingOutputFormat timing = new RuntimeEstimate.ForkTimingOutputFormat(output);
+		Collection<RunResult> results = runGuarded(options, timing, estimate, selection);
+
+		recordForkStartup(timing.getForkStartup(), output);
+
+		return results;
+	}
+
+	/**
+	 * Estimate the run time of the benchmarks selected by {@link Options} and fit it to the {@link #getTimeBudget() time
+	 * budget}, if configured. Fork startup cost is taken from previous runs.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @param output the {@link OutputFormat} to report problems to.
+	 * @return the {@link RuntimeEstimate}.
+	 * @throws RunnerException if the run does not fit into the time budget.
+	 */
+	public RuntimeEstimate estimate(Options options, OutputFormat output) throws RunnerException {
+		return estimate(options, output, FixtureSelection.none());
+	}
+
+	/**
+	 * Estimate the run time of the benchmarks selected by {@link Options} and {@link FixtureSelection} and fit it to the
+	 * {@link #getTimeBudget() time budget}, if configured.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @param output the {@link OutputFormat} to report problems to.
+	 * @param selection the {@link FixtureSelection} to run.
+	 * @return the {@link RuntimeEstimate}.
+	 * @throws RunnerException if the run does not fit into the time budget.
+	 * @see #estimate(Options, OutputFormat)
+	 */
+	public RuntimeEstimate estimate(Options options, OutputFormat output, FixtureSelection selection)
+			throws RunnerException {
+
+		Options effective = isInProcess() ? new OptionsBuilder().parent(options).forks(0).build() : options;
+		int variants = getRunDimensions().values().stream().mapToInt(List::size).reduce(1, (a, b) -> a * b);
+
+		RuntimeEstimate estimate = RuntimeEstimate.create(effective, findBenchmarks(effective, output),
+				getBenchmarkOverrides(), selection, variants, RuntimeEstimate.loadForkStartup(new File(RUNTIME_FILE)));
+		TimeValue budget = getTimeBudget();
+
+		if (budget == null) {
+			return estimate;
+		}
+
+		try {
+			return estimate.fitTo(budget);
+		} catch (IllegalStateException e) {
+			throw new RunnerException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Runs with adaptive measurement, concurrent forks or without forks are not representative and therefore not
+	 * recorded.
+	 */
+	private boolean isForkStartupRecorded() {
+		return !isInProcess() && !isAdaptive() && !isConcurrentForks();
+	}
+
+	/**
+	 * Record the fork startup cost measured by a run for later estimates.
+	 */
+	private static void recordForkStartup(long forkStartup, OutputFormat output) {
+
+		if (forkStartup < 0) {
+			return;
+		}
+
+		try {
+			RuntimeEstimate.recordForkStartup(new File(RUNTIME_FILE), forkStartup);
+		} catch (IOException e) {
+			output.println(String.format("# WARNING: Cannot record fork startup cost: %s", e));
+		}
+	}
+
+	private Collection<RunResult> runGuarded(Options options, OutputFormat output, RuntimeEstimate estimate,
+			FixtureSelection selection) throws RunnerException {
+
+		if (!isEnvironmentGuard()) {
+			return runDimensions(options, output, estimate, selection);
+		}
+
+		EnvironmentGuard guard = new EnvironmentGuard(isStrictEnvironment());
+		guard.beforeRun(output);
+
+		Collection<RunResult> results = runDimensions(options, guard.wrap(output), estimate, selection);
+
+		guard.apply(results);
+		writeResultFile(options, results);
+
+		return results;
+	}
+
+	private Collection<RunResult> runDimensions(Options options, OutputFormat output, RuntimeEstimate estimate,
+			FixtureSelection selection) throws RunnerException {
+
+		Map<String, List<String>> dimensions = getRunDimensions();
+
+		if (!isForked() && (!getJvms().isEmpty() || !getJvmArgsMatrix().isEmpty())) {
+			output.println("# WARNING: jvms and jvmArgsMatrix apply to forked benchmarks only, ignoring them for "
+					+ (isInProcess() ? "in-process runs" : "forks=0"));
+		}
+
+		if (dimensions.isEmpty()) {
+
+			Collection<RunResult> results = runBenchmarks(options, output, estimate, selection, Collections.emptyMap());
+
+			if (isAdaptive() || isConcurrentForks() || !getBenchmarkOverrides().isEmpty() || estimate.isScaled()
+					|| !selection.isEmpty()) {
+				writeResultFile(options, results);
+			}
+
+			return results;
+		}
+
+		List<RunResult> results = new ArrayList<>();
+
+		for (Map<String, String> variant : getRunVariants(dimensions)) {
+
+			Options variantOptions = applyRunVariant(new OptionsBuilder().parent(options), variant).build();
+
+			// tag callbacks with the variant so runners resolve fixtures without inspecting the JVM command line
+			OutputFormat variantOutput = new RewritingOutputFormat(output,
+					params -> RewritingOutputFormat.withParameters(params, getRunVariantParameters(variant)));
+
+			for (RunResult result : runBenchmarks(variantOptions, variantOutput, estimate, selection, variant)) {
+				results.add(withRunVariant(result, variant));
+			}
+		}
+
+		if (dimensions.containsKey(THREADS_DIMENSION)) {
+			ScalingEfficiency.apply(results);
+		}
+
+		writeResultFile(options, results);
+
+		return results;
+	}
+
+	/**
+	 * Compute all combinations of run dimension values.
+	 */
+	private static List<Map<String, String>> getRunVariants(Map<String, List<String>> dimensions) {
+
+		List<Map<String, String>> variants = Collections.singletonList(Collections.emptyMap());
+
+		for (Map.Entry<String, List<String>> dimension : dimensions.entrySet()) {
+
+			List<Map<String, String>> combined = new ArrayList<>();
+
+			for (Map<String, String> variant : variants) {
+				for (String value : dimension.getValue()) {
+
+					Map<String, String> next = new LinkedHashMap<>(variant);
+					next.put(dimension.getKey(), value);
+					combined.add(next);
+				}
+			}
+
+			variants = combined;
+		}
+
+		return variants;
+	}
+
+	/**
+	 * Apply run dimension values to {@link ChainedOptionsBuilder}. JVM arguments of a {@code jvmArgsMatrix} entry are
+	 * applied per benchmark, see {@link #getOverrides(BenchmarkListEntry, Options, BenchmarkOverrides, Map)}.
+	 *
+	 * @param optionsBuilder must not be {@literal null}.
+	 * @param variant run dimension names mapped to their values.
+	 * @return {@link ChainedOptionsBuilder} with options applied.
+	 */
+	private static ChainedOptionsBuilder applyRunVariant(ChainedOptionsBuilder optionsBuilder,
+			Map<String, String> variant) {
+
+		if (variant.containsKey(JVM_DIMENSION)) {
+			optionsBuilder = optionsBuilder.jvm(variant.get(JVM_DIMENSION));
+		}
+
+		if (variant.containsKey(THREADS_DIMENSION)) {
+			optionsBuilder = optionsBuilder.threads(Integer.parseInt(variant.get(THREADS_DIMENSION)));
+		}
+
+		return optionsBuilder;
+	}
+
+	/**
+	 * Report run dimension values (except threads which JMH reports natively) as benchmark parameters so
+	 * {@link ResultsWriter}s and result files list them along with {@code @Param} values.
+	 *
+	 * @param result must not be {@literal null}.
+	 * @param variant run dimension names mapped to their values.
+	 * @return the {@link RunResult} with run dimension values as parameters.
+	 */
+	private static RunResult withRunVariant(RunResult result, Map<String, String> variant) {
+		return withParameters(result, getRunVariantParameters(variant));
+	}
+
+	private static Map<String, String> getRunVariantParameters(Map<String, String> variant) {
+
+		Map<String, String> parameters = new LinkedHashMap<>(variant);
+		parameters.remove(THREADS_DIMENSION);
+
+		return parameters;
+	}
+
+	/**
+	 * Add parameters to the {@link BenchmarkParams} of a {@link RunResult}.
+	 *
+	 * @param result must not be {@literal null}.
+	 * @param parameters parameter names mapped to their values.
+	 * @return the {@link RunResult} with additional parameters.
+	 */
+	static RunResult withParameters(RunResult result, Map<String, String> parameters) {
+		return RewritingOutputFormat.rewrite(result, params -> RewritingOutputFormat.withParameters(params, parameters));
+	}
+
+	/**
+	 * Run benchmarks grouped by their effective overrides and {@link FixtureSelection selected} parameter grids. Each
+	 * group runs in a separate JMH run.
+	 *
+	 * @param variant run dimension names mapped to their values of the current run.
+	 * @throws RunnerException if JMH fails or an override conflicts with the run variant.
+	 */
+	private Collection<RunResult> runBenchmarks(Options options, OutputFormat output, RuntimeEstimate estimate,
+			FixtureSelection selection, Map<String, String> variant) throws RunnerException {
+
+		BenchmarkOverrides overrides = getBenchmarkOverrides();
+
+		if (overrides.isEmpty() && !estimate.isScaled() && selection.isEmpty()
+				&& !variant.containsKey(JVM_ARGS_DIMENSION)) {
+			return runJmh(options, output);
+		}
+
+		Map<Map<String, String>, Map<Map<String, List<String>>, List<String>>> groups = new LinkedHashMap<>();
+
+		for (BenchmarkListEntry entry : findBenchmarks(options, output)) {
+
+			List<Map<String, List<String>>> grids = selection.isRestricted(entry.getUsername())
+					? selection.getParameterGrids(entry.getUsername(), variant)
+					: Collections.singletonList(Collections.emptyMap());
+
+			for (Map<String, String> benchmarkOverrides : getOverrides(entry, options, overrides, variant, estimate)) {
+				for (Map<String, List<String>> grid : grids) {
+
+					List<String> group = groups.computeIfAbsent(benchmarkOverrides, key -> new LinkedHashMap<>())
+							.computeIfAbsent(grid, key -> new ArrayList<>());
+
+					if (!group.contains(entry.getUsername())) {
+						group.add(entry.getUsername());
+					}
+				}
+			}
+		}
+
+		if (groups.size() == 1 && groups.containsKey(Collections.<String, String> emptyMap())
+				&& groups.get(Collections.<String, String> emptyMap()).keySet()
+						.equals(Collections.singleton(Collections.<String, List<String>> emptyMap()))) {
+			return runJmh(options, output);
+		}
+
+		List<RunResult> results = new ArrayList<>();
+
+		for (Map.Entry<Map<String, String>, Map<Map<String, List<String>>, List<String>>> group : groups.entrySet()) {
+			for (Map.Entry<Map<String, List<String>>, List<String>> grid : group.getValue().entrySet()) {
+
+				Map<String, String> groupOverrides = new LinkedHashMap<>(group.getKey());
+				String mode = groupOverrides.remove(MODE_OVERRIDE);
+
+				ChainedOptionsBuilder groupOptions = new OptionsBuilder().parent(options)
+						.exclude(excludeAllExcept(grid.getValue()));
+				groupOptions = BenchmarkOverrides.apply(groupOptions, groupOverrides);
+
+				if (mode != null) {
+					groupOptions = groupOptions.mode(Mode.valueOf(mode));
+				}
+
+				for (Map.Entry<String, List<String>> parameter : grid.getKey().entrySet()) {
+					groupOptions = groupOptions.param(parameter.getKey(), parameter.getValue().toArray(new String[0]));
+				}
+
+				results.addAll(runJmh(groupOptions.build(), output));
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Resolve the overrides of a benchmark for a run variant and a {@link RuntimeEstimate}. A scaled estimate yields
+	 * overrides per mode of the benchmark, each restricted to its mode through {@link #MODE_OVERRIDE}.
+	 *
+	 * @return option names mapped to their values, one map per JMH run of the benchmark.
+	 * @throws RunnerException if an override conflicts with the run variant.
+	 * @see #getOverrides(BenchmarkListEntry, Options, BenchmarkOverrides, Map)
+	 */
+	private static Collection<Map<String, String>> getOverrides(BenchmarkListEntry entry, Options options,
+			BenchmarkOverrides overrides, Map<String, String> variant, RuntimeEstimate estimate) throws RunnerException {
+
+		Map<String, String> benchmarkOverrides = getOverrides(entry, options, overrides, variant);
+
+		if (!estimate.isScaled()) {
+			return Collections.singletonList(benchmarkOverrides);
+		}
+
+		List<Map<String, String>> result = new ArrayList<>();
+
+		for (Mode mode : RuntimeEstimate.getModes(options, entry)) {
+
+			Map<String, String> modeOverrides = new LinkedHashMap<>(benchmarkOverrides);
+			modeOverrides.putAll(estimate.getOverrides(entry.getUsername(), mode));
+			modeOverrides.put(MODE_OVERRIDE, mode.name());
+			result.add(modeOverrides);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Resolve the overrides of a benchmark for a run variant. JVM arguments of overrides and of the
+	 * {@code jvmArgsMatrix} entry are appended to the {@code @Fork(jvmArgsAppend)} arguments of the benchmark (or the
+	 * appended JVM arguments of {@link Options}) instead of replacing them.
+	 *
+	 * @param entry the benchmark.
+	 * @param options the options of the run variant.
+	 * @param overrides the {@link BenchmarkOverrides}.
+	 * @param variant run dimension names mapped to their values of the current run.
+	 * @return option names mapped to their values.
+	 * @throws RunnerException if an override conflicts with the run variant.
+	 */
+	private static Map<String, String> getOverrides(BenchmarkListEntry entry, Options options,
+			BenchmarkOverrides overrides, Map<String, String> variant) throws RunnerException {
+
+		Map<String, String> benchmarkOverrides = new LinkedHashMap<>(overrides.getOverrides(entry.getUsername()));
+
+		if (variant.containsKey(THREADS_DIMENSION) && benchmarkOverrides.containsKey("threads")) {
+			throw new RunnerException(String.format(
+					"Benchmark override threads=%s of %s conflicts with threadsSweep, remove either of them",
+					benchmarkOverrides.get("threads"), entry.getUsername()));
+		}
+
+		String jvmArgs = benchmarkOverrides.get("jvmArgs");
+
+		if (jvmArgs == null && !variant.containsKey(JVM_ARGS_DIMENSION)) {
+			return benchmarkOverrides;
+		}
+
+		List<String> merged = new ArrayList<>(
+				options.getJvmArgsAppend().orElse(entry.getJvmArgsAppend().orElse(Collections.emptyList())));
+
+		if (jvmArgs != null) {
+			merged.addAll(splitArgs(jvmArgs));
+		}
+
+		if (variant.containsKey(JVM_ARGS_DIMENSION)) {
+			merged.addAll(splitArgs(variant.get(JVM_ARGS_DIMENSION)));
+		}
+
+		benchmarkOverrides.put("jvmArgs", String.join(" ", merged));
+
+		return benchmarkOverrides;
+	}
+
+	private Collection<RunResult> runJmh(Options options, OutputFormat output) throws RunnerException {
+
+		if (isInProcess()) {
+			return new IsolatedExecution().run(options, output);
+		}
+
+		if (!isFastForkStartup()) {
+			return runPrelaunched(options, output);
+		}
+
+		try (ForkStartup forkStartup = new ForkStartup()) {
+			return runPrelaunched(forkStartup.prepare(options), output);
+		}
+	}
+
+	private Collection<RunResult> runPrelaunched(Options options, OutputFormat output) throws RunnerException {
+
+		if (isPrelaunchForks() && options.getForkCount().orElse(1) != 0 && ForkPrelauncher.isSupported()) {
+
+			String jvm = options.getJvm().orElse(Utils.getCurrentJvm());
+
+			// forks report the launcher script as JVM, report the JVM it launches instead
+			UnaryOperator<BenchmarkParams> launched = params -> RewritingOutputFormat.withJvm(params, jvm,
+					params.getJvmArgs());
+
+			try (ForkPrelauncher prelauncher = ForkPrelauncher.create(options)) {
+				return RewritingOutputFormat.rewrite(
+						runForks(prelauncher.apply(options), new RewritingOutputFormat(output, launched)), launched);
+			} catch (IOException e) {
+				output.println(String.format("# WARNING: Cannot pre-launch forks: %s", e));
+			}
+		}
+
+		return runForks(options, output);
+	}
+
+	private Collection<RunResult> runForks(Options options, OutputFormat output) throws RunnerException {
+
+		if (isAdaptive()) {
+			return new AdaptiveMeasurement(getAdaptiveMeasurement(), getAdaptiveMaxIterations()).run(options, output);
+		}
+
+		if (isConcurrentForks()) {
+			return new ConcurrentForkScheduler(getConcurrentForksCpus()).run(options, output);
+		}
+
+		if (isForkWatchdog() && options.getForkCount().orElse(1) != 0 && ForkWatchdog.isSupported()) {
+
+			try (ForkWatchdog watchdog = new ForkWatchdog(getForkWatchdogFactor())) {
+				return new Runner(options, watchdog.wrap(output)).run();
+			}
+		}
+
+		return new Runner(options, output).run();
+	}
+
+	/**
+	 * Load per-class and per-method option overrides from {@code microbenchmark.properties} files on the class path.
+	 * Overrides are loaded once per {@link JmhSupport}.
+	 *
+	 * @return the {@link BenchmarkOverrides}, empty if no overrides are configured.
+	 */
+	BenchmarkOverrides getBenchmarkOverrides() {
+
+		if (benchmarkOverrides == null) {
+			benchmarkOverrides = BenchmarkOverrides.load(getClassLoader());
+		}
+
+		return benchmarkOverrides;
+	}
+
+	/**
+	 * Resolve {@code param.<name>} overrides from {@code microbenchmark.properties} files for a benchmark. Benchmark
+	 * descriptors use them to create the fixtures that actually run.
+	 *
+	 * @param benchmark the benchmark name ({@code fqcn + "." + method name}).
+	 * @return parameter names mapped to their values. Empty if no parameter override applies.
+	 */
+	public Map<String, List<String>> getParameterOverrides(String benchmark) {
+		return getBenchmarkOverrides().getParameters(benchmark);
+	}
+
+	private static ClassLoader getClassLoader() {
+
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		return classLoader != null ? classLoader : JmhSupport.class.getClassLoader();
+	}
+
+	/**
+	 * Resolve benchmarks selected by include and exclude patterns of {@link Options} from the benchmark list generated by
+	 * JMH.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @param output the {@link OutputFormat} to report problems to.
+	 * @return the selected benchmarks.
+	 */
+	static Collection<BenchmarkListEntry> findBenchmarks(Options options, OutputFormat output) {
+
+		List<String> includes = options.getIncludes().isEmpty() ? Collections.singletonList(".*") : options.getIncludes();
+		return BenchmarkList.defaultList().find(output, includes, options.getExcludes());
+	}
+
+	/**
+	 * Create an exclude pattern that excludes all benchmarks except the given ones.
+	 *
+	 * @param benchmarks fully qualified benchmark names.
+	 * @return the exclude pattern.
+	 */
+	static String excludeAllExcept(Collection<String> benchmarks) {
+		return "^(?!(" + benchmarks.stream().map(Pattern::quote).collect(Collectors.joining("|")) + ")$)";
+	}
+
+	private boolean isAdaptive() {
+		return getAdaptiveMeasurement() > 0;
+	}
+
+	/**
+	 * Rewrite the result file (if configured) as each JMH run overwrites the results of the previous run.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @param results results of all runs.
+	 */
+	private void writeResultFile(Options options, Collection<RunResult> results) {
+
+		if (!options.getResult().hasValue()) {
+			return;
+		}
+
+		ResultFormatType format = options.getResultFormat().orElse(Defaults.RESULT_FORMAT);
+		ResultFormatFactory.getInstance(format, options.getResult().get()).writeOut(results);
+	}
+
+	/**
+	 * Parse a time value. Plain numbers are considered seconds, non-positive numbers are considered not set.
+	 *
+	 * @param value can be {@literal null}.
+	 * @return the {@link TimeValue} or {@literal null} if not set.
+	 */
+	static TimeValue parseTime(String value) {
+
+		if (!StringUtils.hasText(value)) {
+			return null;
+		}
+
+		try {
+
+			long seconds = Long.parseLong(value.trim());
+			return seconds > 0 ? TimeValue.seconds(seconds) : null;
+		} catch (NumberFormatException e) {
+			return TimeValue.fromString(value.trim());
+		}
+	}
+
 	/**
 	 * Publish results to an external system.
 	 *
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader for result files written by JMH. Objects are read as {@link Map}, arrays as {@link List}, numbers
+ * as {@link Double}. JMH writes non-finite numbers as strings ({@code "NaN"}), see {@link #toDouble(Object)}.
+ */
+class JsonReader {
+
+	private final String json;
+	private int position;
+
+	private JsonReader(String json) {
+		this.json = json;
+	}
+
+	/**
+	 * Read a JSON document.
+	 *
+	 * @param json must not be {@literal null}.
+	 * @return the value.
+	 * @throws IllegalArgumentException if {@code json} is malformed.
+	 */
+	static Object read(String json) {
+
+		JsonReader reader = new JsonReader(json);
+		Object value = reader.readValue();
+
+		reader.skipWhitespace();
+		if (reader.position != json.length()) {
+			throw reader.error("Unexpected trailing content");
+		}
+
+		return value;
+	}
+
+	/**
+	 * Convert a JSON number or a string such as {@code "NaN"} to {@code double}.
+	 */
+	static double toDouble(Object value) {
+
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		}
+
+		if (value instanceof String) {
+			return Double.parseDouble((String) value);
+		}
+
+		return Double.NaN;
+	}
+
+	private Object readValue() {
+
+		skipWhitespace();
+
+		if (position >= json.length()) {
+			throw error("Unexpected end of input");
+		}
+
+		char c = json.charAt(position);
+
+		switch (c) {
+			case '{':
+				return readObject();
+			case '[':
+				return readArray();
+			case '"':
+				return readString();
+			case 't':
+				return readLiteral("true", Boolean.TRUE);
+			case 'f':
+				return readLiteral("false", Boolean.FALSE);
+			case 'n':
+				return readLiteral("null", null);
+			default:
+				return readNumber();
+		}
+	}
+
+	private Map<String, Object> readObject() {
+
+		Map<String, Object> object = new LinkedHashMap<>();
+		position++;
+
+		skipWhitespace();
+		if (peek() == '}') {
+			position++;
+			return object;
+		}
+
+		while (true) {
+
+			skipWhitespace();
+			String key = readString();
+
+			skipWhitespace();
+			expect(':');
+
+			object.put(key, readValue());
+
+			skipWhitespace();
+			if (peek() == ',') {
+				position++;
+				continue;
+			}
+
+			expect('}');
+			return object;
+		}
+	}
+
+	private List<Object> readArray() {
+
+		List<Object> array = new ArrayList<>();
+		position++;
+
+		skipWhitespace();
+		if (peek() == ']') {
+			position++;
+			return array;
+		}
+
+		while (true) {
+
+			array.add(readValue());
+
+			skipWhitespace();
+			if (peek() == ',') {
+				position++;
+				continue;
+			}
+
+			expect(']');
+			return array;
+		}
+	}
+
+	private String readString() {
+
+		expect('"');
+		StringBuilder sb = new StringBuilder();
+
+		while (position < json.length()) {
+
+			char c = json.charAt(position++);
+
+			if (c == '"') {
+				return sb.toString();
+			}
+
+			if (c != '\\') {
+				sb.append(c);
+				continue;
+			}
+
+			char escaped = json.charAt(position++);
+
+			switch (escaped) {
+				case 'b':
+					sb.append('\b');
+					break;
+				case 'f':
+					sb.append('\f');
+					break;
+				case 'n':
+					sb.append('\n');
+					break;
+				case 'r':
+					sb.append('\r');
+					break;
+				case 't':
+					sb.append('\t');
+					break;
+				case 'u':
+					sb.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+					position += 4;
+					break;
+				default:
+					sb.append(escaped);
+			}
+		}
+
+		throw error("Unterminated string");
+	}
+
+	private Double readNumber() {
+
+		int start = position;
+
+		while (position < json.length() && "+-0123456789.eE".indexOf(json.charAt(position)) != -1) {
+			position++;
+		}
+
+		if (start == position) {
+			throw error("Unexpected character '" + json.charAt(position) + "'");
+		}
+
+		return Double.valueOf(json.substring(start, position));
+	}
+
+	private Object readLiteral(String literal, Object value) {
+
+		if (!json.startsWith(literal, position)) {
+			throw error("Expected " + literal);
+		}
+
+		position += literal.length();
+		return value;
+	}
+
+	private void expect(char c) {
+
+		if (peek() != c) {
+			throw error("Expected '" + c + "'");
+		}
+
+		position++;
+	}
+
+	private char peek() {
+		return position < json.length() ? json.charAt(position) : 0;
+	}
+
+	private void skipWhitespace() {
+
+		while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+			position++;
+		}
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(String.format("%s at position %d", message, position));
+	}
+}
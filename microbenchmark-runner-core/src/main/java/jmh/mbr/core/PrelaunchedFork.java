@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.BufferedReader;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point of a pre-launched fork JVM. Loads the JMH fork infrastructure, signals readiness and waits for the fork
+ * arguments on a named pipe to run {@code org.openjdk.jmh.runner.ForkedMain}. Exits if released or after an idle
+ * timeout. The launcher that parked this JVM records its exit status for the launcher that hands a fork over to it.
+ *
+ * @see ForkPrelauncher
+ */
+public class PrelaunchedFork {
+
+	static final String EXIT = "exit\n";
+
+	private static final long IDLE_TIMEOUT_MINUTES = 10;
+
+	/**
+	 * @param args ready marker and named pipe to read fork arguments from.
+	 * @throws Exception if the fork cannot be started.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		Path ready = Paths.get(args[0]);
+		Path pipe = Paths.get(args[1]);
+
+		Method forkedMain = Class.forName("org.openjdk.jmh.runner.ForkedMain").getMethod("main", String[].class);
+
+		Thread idleTimeout = new Thread(() -> {
+
+			try {
+				Thread.sleep(TimeUnit.MINUTES.toMillis(IDLE_TIMEOUT_MINUTES));
+				System.exit(0);
+			} catch (InterruptedException e) {
+				// fork started
+			}
+		}, "prelaunch-idle-timeout");
+		idleTimeout.setDaemon(true);
+		idleTimeout.start();
+
+		Files.createFile(ready);
+
+		String line;
+		try (BufferedReader reader = Files.newBufferedReader(pipe, StandardCharsets.UTF_8)) {
+			line = reader.readLine();
+		}
+
+		if (line == null || line.equals(EXIT.trim())) {
+			return;
+		}
+
+		idleTimeout.interrupt();
+
+		forkedMain.invoke(null, (Object) line.trim().split(" "));
+	}
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import org.apache.commons.math3.stat.inference.MannWhitneyUTest;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Compares benchmark results using the per-iteration scores of all forks. For each pair of results this computes the
+ * ratio of mean scores with a bootstrap confidence interval, the two-sided Mann-Whitney U p-value and Cliff's delta as
+ * effect size. A pair is classified as {@link Verdict#IMPROVED improved} or {@link Verdict#REGRESSED regressed} if the
+ * p-value is below the significance level and the confidence interval of the ratio excludes {@code 1}. Whether higher
+ * scores are better is derived from the benchmark {@link Mode}.
+ */
+public class ResultComparison {
+
+	private final double significance;
+	private final double confidence;
+	private final int resamples;
+	private final long seed;
+
+	/**
+	 * Create a {@link ResultComparison}.
+	 *
+	 * @param significance significance level for the Mann-Whitney U test, such as {@code 0.01}.
+	 * @param confidence confidence level of the ratio interval, such as {@code 0.99}.
+	 * @param resamples number of bootstrap resamples.
+	 * @param seed random seed for bootstrap resampling to keep comparisons reproducible.
+	 */
+	public ResultComparison(double significance, double confidence, int resamples, long seed) {
+
+		if (significance <= 0 || significance >= 1 || confidence <= 0 || confidence >= 1) {
+			throw new IllegalArgumentException("Significance and confidence must be between 0 and 1");
+		}
+
+		if (resamples < 1) {
+			throw new IllegalArgumentException("Resamples must be greater than zero");
+		}
+
+		this.significance = significance;
+		this.confidence = confidence;
+		this.resamples = resamples;
+		this.seed = seed;
+	}
+
+	/**
+	 * @return a {@link ResultComparison} with {@code 0.01} significance, {@code 0.99} confidence and 10000 resamples.
+	 */
+	public static ResultComparison create() {
+		return new ResultComparison(0.01, 0.99, 10000, 0);
+	}
+
+	/**
+	 * Compare results matched by benchmark name, mode, thread count and parameters. Results without a counterpart are
+	 * not compared.
+	 *
+	 * @param baseline must not be {@literal null}.
+	 * @param candidate must not be {@literal null}.
+	 * @return the {@link Comparison}s in order of {@code candidate}.
+	 */
+	public List<Comparison> compare(Collection<RunResult> baseline, Collection<RunResult> candidate) {
+
+		Map<String, RunResult> baselines = new LinkedHashMap<>();
+		baseline.forEach(it -> baselines.put(getKey(it.getParams()), it));
+
+		List<Comparison> comparisons = new ArrayList<>();
+
+		for (RunResult result : candidate) {
+
+			RunResult counterpart = baselines.get(getKey(result.getParams()));
+
+			if (counterpart != null) {
+				comparisons.add(compare(result.getParams(), getSamples(counterpart), getSamples(result)));
+			}
+		}
+
+		return comparisons;
+	}
+
+	/**
+	 * Compare two sets of scores of the same benchmark.
+	 *
+	 * @param params the candidate {@link BenchmarkParams}.
+	 * @param baseline baseline scores.
+	 * @param candidate candidate scores.
+	 * @return the {@link Comparison}.
+	 */
+	public Comparison compare(BenchmarkParams params, double[] baseline, double[] candidate) {
+
+		Map<String, String> parameters = new LinkedHashMap<>();
+		params.getParamsKeys().forEach(key -> parameters.put(key, params.getParam(key)));
+
+		return compare(params.getBenchmark(), parameters, params.getMode() == Mode.Throughput, baseline, candidate);
+	}
+
+	/**
+	 * Compare two sets of scores.
+	 *
+	 * @param benchmark benchmark name.
+	 * @param params benchmark parameters.
+	 * @param higherIsBetter whether higher scores are better (throughput).
+	 * @param baseline baseline scores.
+	 * @param candidate candidate scores.
+	 * @return the {@link Comparison}.
+	 */
+	Comparison compare(String benchmark, Map<String, String> params, boolean higherIsBetter, double[] baseline,
+			double[] candidate) {
+
+		if (baseline.length == 0 || candidate.length == 0) {
+			throw new IllegalArgumentException(String.format("No scores to compare for %s", benchmark));
+		}
+
+		double ratio = mean(candidate) / mean(baseline);
+		double[] interval = bootstrapRatio(baseline, candidate);
+		double pValue = mannWhitneyU(baseline, candidate);
+		double effectSize = cliffsDelta(baseline, candidate);
+
+		Verdict verdict = Verdict.UNCHANGED;
+
+		if (pValue < significance && (interval[0] > 1 || interval[1] < 1)) {
+			verdict = (ratio > 1) == higherIsBetter ? Verdict.IMPROVED : Verdict.REGRESSED;
+		}
+
+		return new Comparison(benchmark, params, ratio, interval[0], interval[1], pValue, effectSize, verdict);
+	}
+
+	/**
+	 * Determine whether the significance level can be reached with the given number of scores. Small samples cannot
+	 * reach low significance levels even if all candidate scores differ from all baseline scores, such as 4 scores on
+	 * each side at a significance level of {@code 0.01}.
+	 *
+	 * @param baseline number of baseline scores.
+	 * @param candidate number of candidate scores.
+	 * @return {@literal true} if completely separated scores are significant.
+	 */
+	public boolean isSignificanceReachable(int baseline, int candidate) {
+
+		if (baseline == 0 || candidate == 0) {
+			return false;
+		}
+
+		double[] lower = IntStream.range(0, baseline).asDoubleStream().toArray();
+		double[] higher = IntStream.range(baseline, baseline + candidate).asDoubleStream().toArray();
+
+		return mannWhitneyU(lower, higher) < significance;
+	}
+
+	/**
+	 * Collect the primary score of each measurement iteration across all forks.
+	 *
+	 * @param result must not be {@literal null}.
+	 * @return the scores.
+	 */
+	public static double[] getSamples(RunResult result) {
+
+		List<Double> samples = new ArrayList<>();
+
+		for (BenchmarkResult benchmarkResult : result.getBenchmarkResults()) {
+			for (double sample : getSamples(benchmarkResult)) {
+				samples.add(sample);
+			}
+		}
+
+		return samples.stream().mapToDouble(Double::doubleValue).toArray();
+	}
+
+	/**
+	 * Collect the primary score of each measurement iteration.
+	 *
+	 * @param result must not be {@literal null}.
+	 * @return the scores.
+	 */
+	public static double[] getSamples(BenchmarkResult result) {
+		return result.getIterationResults().stream().map(IterationResult::getPrimaryResult)
+				.mapToDouble(it -> it.getScore()).toArray();
+	}
+
+	/**
+	 * Percentile bootstrap interval of the ratio of mean candidate to mean baseline score.
+	 */
+	private double[] bootstrapRatio(double[] baseline, double[] candidate) {
+
+		Random random = new Random(seed);
+		double[] ratios = new double[resamples];
+
+		for (int i = 0; i < resamples; i++) {
+			ratios[i] = resampledMean(candidate, random) / resampledMean(baseline, random);
+		}
+
+		Arrays.sort(ratios);
+
+		double tail = (1 - confidence) / 2;
+		int low = (int) Math.floor(tail * (resamples - 1));
+		int high = (int) Math.ceil((1 - tail) * (resamples - 1));
+
+		return new double[] { ratios[low], ratios[high] };
+	}
+
+	private static double resampledMean(double[] samples, Random random) {
+
+		double sum = 0;
+
+		for (int i = 0; i < samples.length; i++) {
+			sum += samples[random.nextInt(samples.length)];
+		}
+
+		return sum / samples.length;
+	}
+
+	/**
+	 * Two-sided p-value of the Mann-Whitney U test using the normal approximation.
+	 */
+	static double mannWhitneyU(double[] x, double[] y) {
+		return new MannWhitneyUTest().mannWhitneyUTest(x, y);
+	}
+
+	/**
+	 * Cliff's delta: probability that a candidate score is greater than a baseline score minus the probability that it
+	 * is smaller. Ranges from {@code -1} to {@code 1}.
+	 */
+	static double cliffsDelta(double[] baseline, double[] candidate) {
+
+		long greater = 0;
+		long smaller = 0;
+
+		for (double c : candidate) {
+			for (double b : baseline) {
+				if (c > b) {
+					greater++;
+				} else if (c < b) {
+					smaller++;
+				}
+			}
+		}
+
+		return (greater - smaller) / ((double) baseline.length * candidate.length);
+	}
+
+	private static double mean(double[] samples) {
+		return Arrays.stream(samples).average().orElse(Double.NaN);
+	}
+
+	private static String getKey(BenchmarkParams params) {
+
+		Map<String, String> values = new TreeMap<>();
+		params.getParamsKeys().forEach(key -> values.put(key, params.getParam(key)));
+
+		return params.getBenchmark() + " " + params.getMode().shortLabel() + " " + params.getThreads() + " " + values;
+	}
+
+	/**
+	 * Outcome of a comparison.
+	 */
+	public enum Verdict {
+		IMPROVED, REGRESSED, UNCHANGED
+	}
+
+	/**
+	 * Comparison of a benchmark result with its baseline.
+	 */
+	public static class Comparison {
+
+		private final String benchmark;
+		private final Map<String, String> params;
+		private final double ratio;
+		private final double ratioLow;
+		private final double ratioHigh;
+		private final double pValue;
+		private final double effectSize;
+		private final Verdict verdict;
+
+		Comparison(String benchmark, Map<String, String> params, double ratio, double ratioLow, double ratioHigh,
+				double pValue, double effectSize, Verdict verdict) {
+			this.benchmark = benchmark;
+			this.params = params;
+			this.ratio = ratio;
+			this.ratioLow = ratioLow;
+			this.ratioHigh = ratioHigh;
+			this.pValue = pValue;
+			this.effectSize = effectSize;
+			this.verdict = verdict;
+		}
+
+		public String getBenchmark() {
+			return benchmark;
+		}
+
+		public Map<String, String> getParams() {
+			return params;
+		}
+
+		/**
+		 * @return ratio of mean candidate to mean baseline score.
+		 */
+		public double getRatio() {
+			return ratio;
+		}
+
+		/**
+		 * @return lower bound of the bootstrap confidence interval of the ratio.
+		 */
+		public double getRatioLow() {
+			return ratioLow;
+		}
+
+		/**
+		 * @return upper bound of the bootstrap confidence interval of the ratio.
+		 */
+		public double getRatioHigh() {
+			return ratioHigh;
+		}
+
+		/**
+		 * @return two-sided Mann-Whitney U p-value.
+		 */
+		public double getPValue() {
+			return pValue;
+		}
+
+		/**
+		 * @return Cliff's delta of candidate versus baseline scores.
+		 */
+		public double getEffectSize() {
+			return effectSize;
+		}
+
+		public Verdict getVerdict() {
+			return verdict;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s%s: %s, ratio %.3f [%.3f, %.3f], p=%.4f, delta=%.2f", benchmark,
+					params.isEmpty() ? "" : " " + params, verdict, ratio, ratioLow, ratioHigh, pValue, effectSize);
+		}
+	}
+}
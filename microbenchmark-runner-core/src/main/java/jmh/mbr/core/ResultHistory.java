@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jmh.mbr.core.ChangePointDetection.ChangePoint;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * History of benchmark results stored as one JMH JSON result file per run in a directory. File names start with the
+ * run timestamp so runs are ordered chronologically by name. A history directory can also be used as
+ * {@link Baseline}.
+ */
+public class ResultHistory {
+
+	private final File directory;
+	private final List<String> runs = new ArrayList<>();
+	private final Map<String, Map<Integer, Double>> series = new LinkedHashMap<>();
+
+	private ResultHistory(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Load the history stored in {@code directory}.
+	 *
+	 * @param directory must not be {@literal null}, does not need to exist.
+	 * @return the {@link ResultHistory}.
+	 * @throws IllegalArgumentException if a result file cannot be read.
+	 */
+	public static ResultHistory load(File directory) {
+
+		ResultHistory history = new ResultHistory(directory);
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(".json"));
+
+		if (files == null) {
+			return history;
+		}
+
+		Arrays.sort(files);
+
+		for (File file : files) {
+			try {
+				history.add(file.getName(), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+			} catch (IOException e) {
+				throw new IllegalArgumentException(String.format("Cannot read result history file %s", file), e);
+			}
+		}
+
+		return history;
+	}
+
+	/**
+	 * Store {@link RunResult}s as a new run.
+	 *
+	 * @param results must not be {@literal null}.
+	 * @return the run name.
+	 * @throws IOException if the run cannot be written.
+	 */
+	public String append(Collection<RunResult> results) throws IOException {
+
+		SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS");
+		long timestamp = System.currentTimeMillis();
+		String run = format.format(new Date(timestamp)) + ".json";
+
+		// keep names unique and chronologically ordered for runs appended within the same millisecond
+		while (runs.contains(run) || new File(directory, run).exists()) {
+			run = format.format(new Date(++timestamp)) + ".json";
+		}
+
+		directory.mkdirs();
+		Files.write(new File(directory, run).toPath(), ResultsWriter.jsonifyResults(results).getBytes(StandardCharsets.UTF_8));
+
+		int index = runs.size();
+		runs.add(run);
+
+		for (RunResult result : results) {
+			if (result.getParams() != null && result.getPrimaryResult() != null) {
+				put(getKey(result.getParams()), index, result.getPrimaryResult().getScore());
+			}
+		}
+
+		return run;
+	}
+
+	/**
+	 * @return run names in chronological order.
+	 */
+	public List<String> getRuns() {
+		return Collections.unmodifiableList(runs);
+	}
+
+	/**
+	 * Detect change points of each benchmark and fixture across runs.
+	 *
+	 * @param detection must not be {@literal null}.
+	 * @return {@link Shift}s grouped by benchmark and fixture. Benchmarks without change points are omitted.
+	 */
+	public Map<String, List<Shift>> detectChangePoints(ChangePointDetection detection) {
+
+		Map<String, List<Shift>> shifts = new LinkedHashMap<>();
+
+		series.forEach((key, scores) -> {
+
+			List<Integer> indexes = new ArrayList<>(scores.keySet());
+			double[] values = scores.values().stream().mapToDouble(Double::doubleValue).toArray();
+			List<Shift> detected = new ArrayList<>();
+
+			for (ChangePoint changePoint : detection.detect(values)) {
+				detected.add(new Shift(runs.get(indexes.get(changePoint.getIndex())), changePoint));
+			}
+
+			if (!detected.isEmpty()) {
+				shifts.put(key, detected);
+			}
+		});
+
+		return shifts;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void add(String run, String json) {
+
+		int index = runs.size();
+		runs.add(run);
+
+		for (Object item : (List<Object>) JsonReader.read(json)) {
+
+			Map<String, Object> benchmark = (Map<String, Object>) item;
+			Map<String, Object> primaryMetric = (Map<String, Object>) benchmark.get("primaryMetric");
+			Map<String, String> params = new TreeMap<>();
+
+			if (benchmark.get("params") instanceof Map) {
+				((Map<String, Object>) benchmark.get("params")).forEach((key, value) -> params.put(key, String.valueOf(value)));
+			}
+
+			put(getKey((String) benchmark.get("benchmark"), (String) benchmark.get("mode"), params), index,
+					JsonReader.toDouble(primaryMetric.get("score")));
+		}
+	}
+
+	private void put(String key, int index, double score) {
+		series.computeIfAbsent(key, it -> new TreeMap<>()).put(index, score);
+	}
+
+	private static String getKey(BenchmarkParams params) {
+
+		Map<String, String> values = new TreeMap<>();
+		params.getParamsKeys().forEach(key -> values.put(key, params.getParam(key)));
+
+		return getKey(params.getBenchmark(), params.getMode().shortLabel(), values);
+	}
+
+	private static String getKey(String benchmark, String mode, Map<String, String> params) {
+		return benchmark + (params.isEmpty() ? "" : " " + params) + " (" + mode + ")";
+	}
+
+	/**
+	 * A {@link ChangePoint} along with the run at which the shift occurred.
+	 */
+	public static class Shift {
+
+		private final String run;
+		private final ChangePoint changePoint;
+
+		Shift(String run, ChangePoint changePoint) {
+			this.run = run;
+			this.changePoint = changePoint;
+		}
+
+		/**
+		 * @return name of the first run after the shift.
+		 */
+		public String getRun() {
+			return run;
+		}
+
+		public ChangePoint getChangePoint() {
+			return changePoint;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("shift at run %s: %.3f -> %.3f (%+.1f%%), confidence %.1f%%", run,
+					changePoint.getBefore(), changePoint.getAfter(), changePoint.getMagnitude() * 100,
+					changePoint.getConfidence() * 100);
+		}
+	}
+}
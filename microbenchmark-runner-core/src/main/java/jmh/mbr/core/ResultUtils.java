@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.runner.IterationType;
+import org.openjdk.jmh.util.ScoreFormatter;
+
+/**
+ * Miscellaneous utility methods to render JMH {@link Result}s.
+ */
+public class ResultUtils {
+
+	/**
+	 * Render the secondary results (such as {@code gc.alloc.rate.norm} reported by profilers) of a
+	 * {@link BenchmarkResult}.
+	 *
+	 * @param result can be {@literal null}.
+	 * @return secondary result labels mapped to their formatted score. Empty if {@code result} is {@literal null} or has
+	 *         no secondary results.
+	 */
+	public static Map<String, String> getSecondaryResults(BenchmarkResult result) {
+
+		if (result == null) {
+			return Collections.emptyMap();
+		}
+
+		Map<String, String> secondaryResults = new LinkedHashMap<>();
+		result.getSecondaryResults().forEach((label, it) -> secondaryResults.put(label, format(it)));
+
+		return secondaryResults;
+	}
+
+	/**
+	 * Render the progress of a benchmark after a warmup or measurement iteration.
+	 *
+	 * @param params must not be {@literal null}.
+	 * @param iteration the iteration number, starting at {@code 1}.
+	 * @param result must not be {@literal null}.
+	 * @return iteration (such as {@code 3/10}), phase ({@code warmup} or {@code measurement}), score and unit.
+	 */
+	public static Map<String, String> getIterationProgress(IterationParams params, int iteration,
+			IterationResult result) {
+
+		Result<?> primaryResult = result.getPrimaryResult();
+		Map<String, String> progress = new LinkedHashMap<>();
+
+		progress.put("iteration", iteration + "/" + params.getCount());
+		progress.put("phase", params.getType() == IterationType.WARMUP ? "warmup" : "measurement");
+		progress.put("score", ScoreFormatter.format(primaryResult.getScore()));
+		progress.put("unit", primaryResult.getScoreUnit());
+
+		return progress;
+	}
+
+	/**
+	 * Format a {@link Result} as score, error (if available), and unit.
+	 *
+	 * @param result must not be {@literal null}.
+	 * @return the formatted result such as {@code 24.000 ± 0.001 B/op}.
+	 */
+	public static String format(Result<?> result) {
+
+		StringBuilder sb = new StringBuilder(ScoreFormatter.format(result.getScore()));
+
+		if (!Double.isNaN(result.getScoreError())) {
+			sb.append(" ± ").append(ScoreFormatter.formatError(result.getScoreError()));
+		}
+
+		sb.append(' ').append(result.getScoreUnit());
+
+		return sb.toString();
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.WorkloadParams;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * {@link OutputFormat} that rewrites the {@link BenchmarkParams} of benchmark callbacks before delegating to another
+ * {@link OutputFormat}, such as to tag benchmarks with the run dimension values of the current run.
+ */
+class RewritingOutputFormat implements RoutingOutputFormat {
+
+	private final OutputFormat delegate;
+	private final UnaryOperator<BenchmarkParams> rewrite;
+
+	RewritingOutputFormat(OutputFormat delegate, UnaryOperator<BenchmarkParams> rewrite) {
+		this.delegate = delegate;
+		this.rewrite = rewrite;
+	}
+
+	/**
+	 * Add parameters to {@link BenchmarkParams}. Existing parameters with the same name are replaced.
+	 *
+	 * @param params must not be {@literal null}.
+	 * @param parameters parameter names mapped to their values.
+	 * @return the {@link BenchmarkParams} with additional parameters.
+	 */
+	static BenchmarkParams withParameters(BenchmarkParams params, Map<String, String> parameters) {
+
+		if (parameters.isEmpty()) {
+			return params;
+		}
+
+		return copy(params, parameters, params.getJvm(), params.getJvmArgs());
+	}
+
+	/**
+	 * Replace the JVM binary and JVM arguments of {@link BenchmarkParams}, such as to report the JVM a fork was
+	 * configured with instead of a launcher script.
+	 *
+	 * @param params must not be {@literal null}.
+	 * @param jvm the JVM binary.
+	 * @param jvmArgs the JVM arguments.
+	 * @return the {@link BenchmarkParams} with the given JVM binary and JVM arguments.
+	 */
+	static BenchmarkParams withJvm(BenchmarkParams params, String jvm, Collection<String> jvmArgs) {
+		return copy(params, Collections.emptyMap(), jvm, jvmArgs);
+	}
+
+	private static BenchmarkParams copy(BenchmarkParams params, Map<String, String> parameters, String jvm,
+			Collection<String> jvmArgs) {
+
+		WorkloadParams workload = new WorkloadParams();
+		int order = 0;
+
+		for (String key : params.getParamsKeys()) {
+			workload.put(key, params.getParam(key), order++);
+		}
+
+		for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+			workload.put(parameter.getKey(), parameter.getValue(), order++);
+		}
+
+		return new BenchmarkParams(params.getBenchmark(), params.generatedBenchmark(), params.shouldSynchIterations(),
+				params.getThreads(), params.getThreadGroups(), params.getThreadGroupLabels(), params.getForks(),
+				params.getWarmupForks(), params.getWarmup(), params.getMeasurement(), params.getMode(), workload,
+				params.getTimeUnit(), params.getOpsPerInvocation(), jvm, jvmArgs, params.getJdkVersion(),
+				params.getVmName(), params.getVmVersion(), params.getJmhVersion(), params.getTimeout());
+	}
+
+	/**
+	 * Rewrite the {@link BenchmarkParams} of a {@link RunResult}.
+	 *
+	 * @param result must not be {@literal null}.
+	 * @param rewrite the function to apply to {@link BenchmarkParams}.
+	 * @return the rewritten {@link RunResult}.
+	 */
+	static RunResult rewrite(RunResult result, UnaryOperator<BenchmarkParams> rewrite) {
+
+		if (result.getParams() == null) {
+			return result;
+		}
+
+		return new RunResult(rewrite.apply(result.getParams()), result.getBenchmarkResults());
+	}
+
+	/**
+	 * Rewrite the {@link BenchmarkParams} of {@link RunResult}s.
+	 *
+	 * @param results must not be {@literal null}.
+	 * @param rewrite the function to apply to {@link BenchmarkParams}.
+	 * @return the rewritten {@link RunResult}s.
+	 */
+	static List<RunResult> rewrite(Collection<RunResult> results, UnaryOperator<BenchmarkParams> rewrite) {
+
+		List<RunResult> rewritten = new ArrayList<>(results.size());
+
+		for (RunResult result : results) {
+			rewritten.add(rewrite(result, rewrite));
+		}
+
+		return rewritten;
+	}
+
+	/**
+	 * Rewrite the {@link BenchmarkParams} of a {@link BenchmarkResult}.
+	 *
+	 * @param result can be {@literal null}.
+	 * @param rewrite the function to apply to {@link BenchmarkParams}.
+	 * @return the rewritten {@link BenchmarkResult}.
+	 */
+	static BenchmarkResult rewrite(BenchmarkResult result, UnaryOperator<BenchmarkParams> rewrite) {
+
+		if (result == null || result.getParams() == null) {
+			return result;
+		}
+
+		BenchmarkResult rewritten = new BenchmarkResult(rewrite.apply(result.getParams()), result.getIterationResults(),
+				result.getMetadata());
+
+		for (String label : result.getBenchmarkResults().keys()) {
+			for (Result<?> benchmarkResult : result.getBenchmarkResults().get(label)) {
+				rewritten.addBenchmarkResult(benchmarkResult);
+			}
+		}
+
+		return rewritten;
+	}
+
+	@Override
+	public OutputFormat forRun() {
+		return new RewritingOutputFormat(RoutingOutputFormat.forRun(delegate), rewrite);
+	}
+
+	@Override
+	public void iteration(BenchmarkParams benchParams, IterationParams params, int iteration) {
+		delegate.iteration(rewrite.apply(benchParams), params, iteration);
+	}
+
+	@Override
+	public void iterationResult(BenchmarkParams benchParams, IterationParams params, int iteration,
+			IterationResult data) {
+		delegate.iterationResult(rewrite.apply(benchParams), params, iteration, data);
+	}
+
+	@Override
+	public void startBenchmark(BenchmarkParams benchParams) {
+		delegate.startBenchmark(rewrite.apply(benchParams));
+	}
+
+	@Override
+	public void endBenchmark(BenchmarkResult result) {
+		delegate.endBenchmark(rewrite(result, rewrite));
+	}
+
+	@Override
+	public void startRun() {
+		delegate.startRun();
+	}
+
+	@Override
+	public void endRun(Collection<RunResult> result) {
+		delegate.endRun(result);
+	}
+
+	@Override
+	public void print(String s) {
+		delegate.print(s);
+	}
+
+	@Override
+	public void println(String s) {
+		delegate.println(s);
+	}
+
+	@Override
+	public void flush() {
+		delegate.flush();
+	}
+
+	@Override
+	public void close() {
+		delegate.close();
+	}
+
+	@Override
+	public void verbosePrintln(String s) {
+		delegate.verbosePrintln(s);
+	}
+
+	@Override
+	public void write(int b) {
+		delegate.write(b);
+	}
+
+	@Override
+	public void write(byte[] b) throws IOException {
+		delegate.write(b);
+	}
+}
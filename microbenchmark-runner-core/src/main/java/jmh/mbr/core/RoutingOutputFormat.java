@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+/**
+ * {@link OutputFormat} that attributes callbacks to the benchmark in progress, such as failures reported by
+ * {@link #endBenchmark(org.openjdk.jmh.results.BenchmarkResult) endBenchmark(null)} along with the preceding output.
+ * Runs that execute concurrently report through their own {@link #forRun() routing} so callbacks are attributed to the
+ * benchmark of the run that reported them.
+ */
+public interface RoutingOutputFormat extends OutputFormat {
+
+	/**
+	 * Create an {@link OutputFormat} for a single run that tracks its benchmark in progress independently of other runs.
+	 *
+	 * @return the {@link OutputFormat} for the run.
+	 */
+	OutputFormat forRun();
+
+	/**
+	 * Create an {@link OutputFormat} for a single run.
+	 *
+	 * @param output must not be {@literal null}.
+	 * @return the {@link #forRun() routing} of a {@link RoutingOutputFormat}, {@code output} itself otherwise.
+	 */
+	static OutputFormat forRun(OutputFormat output) {
+		return output instanceof RoutingOutputFormat ? ((RoutingOutputFormat) output).forRun() : output;
+	}
+}
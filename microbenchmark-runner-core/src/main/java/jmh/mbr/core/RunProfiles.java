@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.Properties;
+
+/**
+ * Named run profiles that bundle benchmark settings such as warmup and measurement iterations and times, forks, mode
+ * and time unit. Profile properties are keyed by {@code <profile>.<propertyName>} (e.g.
+ * {@code smoke.measurementTime=100ms}). Profiles {@code smoke}, {@code dev}, and {@code thorough} are built in and can
+ * be overridden or complemented through {@value #RESOURCE_NAME} files on the class path.
+ */
+class RunProfiles {
+
+	static final String PROFILE_PROPERTY = "benchmarkProfile";
+	static final String RESOURCE_NAME = "microbenchmark-profiles.properties";
+
+	private final Properties properties;
+
+	RunProfiles(Properties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Load built-in profiles along with profiles defined in {@value #RESOURCE_NAME} files.
+	 *
+	 * @param classLoader the {@link ClassLoader} to look up profile files.
+	 * @return the {@link RunProfiles}.
+	 */
+	static RunProfiles load(ClassLoader classLoader) {
+
+		Properties properties = getDefaults();
+
+		try {
+
+			Enumeration<URL> resources = classLoader.getResources(RESOURCE_NAME);
+			while (resources.hasMoreElements()) {
+
+				try (InputStream is = resources.nextElement().openStream()) {
+					properties.load(is);
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(String.format("Cannot load benchmark profiles from %s", RESOURCE_NAME), e);
+		}
+
+		return new RunProfiles(properties);
+	}
+
+	/**
+	 * @param profile name of the profile.
+	 * @return {@literal true} if the profile is defined.
+	 */
+	boolean containsProfile(String profile) {
+		return properties.stringPropertyNames().stream().anyMatch(it -> it.startsWith(profile + "."));
+	}
+
+	/**
+	 * Retrieve a property value from {@code profile}.
+	 *
+	 * @param profile name of the profile.
+	 * @param propertyName name of the property.
+	 * @return the value or {@literal null} if the profile does not define the property.
+	 * @throws IllegalArgumentException if the profile is not defined.
+	 */
+	String getProperty(String profile, String propertyName) {
+
+		if (!containsProfile(profile)) {
+			throw new IllegalArgumentException(String.format("Unknown benchmark profile '%s'", profile));
+		}
+
+		return properties.getProperty(profile + "." + propertyName);
+	}
+
+	private static Properties getDefaults() {
+
+		Properties defaults = new Properties();
+
+		defaults.setProperty("smoke.forks", "1");
+		defaults.setProperty("smoke.warmupIterations", "0");
+		defaults.setProperty("smoke.measurementIterations", "1");
+		defaults.setProperty("smoke.measurementTime", "100ms");
+
+		defaults.setProperty("dev.forks", "1");
+		defaults.setProperty("dev.warmupIterations", "2");
+		defaults.setProperty("dev.warmupTime", "1s");
+		defaults.setProperty("dev.measurementIterations", "3");
+		defaults.setProperty("dev.measurementTime", "1s");
+
+		defaults.setProperty("thorough.forks", "3");
+		defaults.setProperty("thorough.warmupIterations", "5");
+		defaults.setProperty("thorough.warmupTime", "10s");
+		defaults.setProperty("thorough.measurementIterations", "10");
+		defaults.setProperty("thorough.measurementTime", "10s");
+
+		return defaults;
+	}
+}
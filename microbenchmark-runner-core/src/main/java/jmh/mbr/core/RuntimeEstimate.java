@@ -0,0 +1,552 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.BenchmarkListEntry;
+import org.openjdk.jmh.runner.Defaults;
+import org.openjdk.jmh.runner.IterationType;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Up-front estimation of the wall-clock time of a benchmark run. The estimate considers the benchmarks selected by
+ * include patterns, their parameter combinations, modes, run dimensions, forks, iteration counts and times (resolved
+ * with the same precedence as JMH: {@link BenchmarkOverrides}, {@link Options}, annotations and JMH defaults) and the
+ * fork startup cost measured by previous runs. Iterations in {@link Mode#SingleShotTime single shot} mode are not
+ * time-bound and are therefore not accounted for.
+ * <p>
+ * An estimate can be {@link #fitTo(TimeValue) fitted} to a time budget by scaling down warmup forks, forks and
+ * iterations of each benchmark by the same factor.
+ */
+public class RuntimeEstimate {
+
+	static final String FORK_STARTUP_KEY = "forkStartupMillis";
+
+	private static final long DEFAULT_FORK_STARTUP = TimeUnit.SECONDS.toMillis(1);
+
+	private final List<Benchmark> benchmarks;
+	private final long forkStartup;
+	private final boolean scaled;
+
+	RuntimeEstimate(List<Benchmark> benchmarks, long forkStartup, boolean scaled) {
+		this.benchmarks = benchmarks;
+		this.forkStartup = forkStartup;
+		this.scaled = scaled;
+	}
+
+	/**
+	 * Estimate the run time of benchmarks.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @param entries the benchmarks selected by {@code options}.
+	 * @param overrides per-benchmark option overrides.
+	 * @param selection the {@link FixtureSelection} restricting the fixtures of benchmarks.
+	 * @param variants number of run dimension variants each benchmark runs with.
+	 * @param forkStartup fork startup cost in milliseconds.
+	 * @return the {@link RuntimeEstimate}.
+	 */
+	static RuntimeEstimate create(Options options, Collection<BenchmarkListEntry> entries, BenchmarkOverrides overrides,
+			FixtureSelection selection, int variants, long forkStartup) {
+
+		Map<String, Benchmark> benchmarks = new LinkedHashMap<>();
+
+		for (BenchmarkListEntry entry : entries) {
+
+			Map<String, String> benchmarkOverrides = overrides.getOverrides(entry.getUsername());
+
+			for (Mode mode : getModes(options, entry)) {
+
+				String key = entry.getUsername() + " " + mode.shortLabel();
+
+				if (!benchmarks.containsKey(key)) {
+					benchmarks.put(key, createBenchmark(options, entry, benchmarkOverrides, selection, mode, variants));
+				}
+			}
+		}
+
+		return new RuntimeEstimate(new ArrayList<>(benchmarks.values()), forkStartup, false);
+	}
+
+	private static Benchmark createBenchmark(Options options, BenchmarkListEntry entry, Map<String, String> overrides,
+			FixtureSelection selection, Mode mode, int variants) {
+
+		boolean singleShot = mode == Mode.SingleShotTime;
+
+		int forks = getInt(overrides, "forks", options.getForkCount().orElse(entry.getForks().orElse(Defaults.MEASUREMENT_FORKS)));
+		int warmupForks = options.getWarmupForkCount().orElse(entry.getWarmupForks().orElse(Defaults.WARMUP_FORKS));
+		int warmupIterations = getInt(overrides, "warmupIterations", options.getWarmupIterations().orElse(entry
+				.getWarmupIterations().orElse(singleShot ? Defaults.WARMUP_ITERATIONS_SINGLESHOT : Defaults.WARMUP_ITERATIONS)));
+		int measurementIterations = getInt(overrides, "measurementIterations",
+				options.getMeasurementIterations().orElse(entry.getMeasurementIterations()
+						.orElse(singleShot ? Defaults.MEASUREMENT_ITERATIONS_SINGLESHOT : Defaults.MEASUREMENT_ITERATIONS)));
+		long warmupTime = singleShot ? 0
+				: getTime(overrides, "warmupTime", options.getWarmupTime().orElse(entry.getWarmupTime().orElse(Defaults.WARMUP_TIME)));
+		long measurementTime = singleShot ? 0 : getTime(overrides, "measurementTime",
+				options.getMeasurementTime().orElse(entry.getMeasurementTime().orElse(Defaults.MEASUREMENT_TIME)));
+
+		int fixtures = 1;
+
+		if (entry.getParams().hasValue()) {
+
+			for (Map.Entry<String, String[]> param : entry.getParams().get().entrySet()) {
+
+				String override = overrides.get("param." + param.getKey());
+
+				if (override != null) {
+					fixtures *= override.split(",").length;
+				} else {
+					fixtures *= options.getParameter(param.getKey()).hasValue()
+							? options.getParameter(param.getKey()).get().size()
+							: param.getValue().length;
+				}
+			}
+		}
+
+		int runs = selection.isRestricted(entry.getUsername()) ? selection.getFixtureCount(entry.getUsername())
+				: fixtures * variants;
+
+		return new Benchmark(entry.getUsername(), mode, runs, forks, warmupForks, warmupIterations, warmupTime,
+				measurementIterations, measurementTime);
+	}
+
+	/**
+	 * Resolve the modes a benchmark runs in.
+	 *
+	 * @param options must not be {@literal null}.
+	 * @param entry the benchmark.
+	 * @return the modes of the benchmark, {@link Mode#All} expanded to all modes.
+	 */
+	static Collection<Mode> getModes(Options options, BenchmarkListEntry entry) {
+
+		Collection<Mode> modes = options.getBenchModes().isEmpty() ? Collections.singleton(entry.getMode())
+				: options.getBenchModes();
+
+		if (!modes.contains(Mode.All)) {
+			return modes;
+		}
+
+		Set<Mode> all = new LinkedHashSet<>(Arrays.asList(Mode.values()));
+		all.remove(Mode.All);
+		return all;
+	}
+
+	private static int getInt(Map<String, String> overrides, String option, int defaultValue) {
+		return overrides.containsKey(option) ? Integer.parseInt(overrides.get(option)) : defaultValue;
+	}
+
+	private static long getTime(Map<String, String> overrides, String option, TimeValue defaultValue) {
+
+		TimeValue time = overrides.containsKey(option) ? JmhSupport.parseTime(overrides.get(option)) : defaultValue;
+		return time == null ? 0 : time.convertTo(TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Fit this estimate to a time budget by scaling down forks and iterations of each benchmark by the largest common
+	 * factor that keeps the estimated run time within {@code budget}. Each benchmark keeps at least one fork and one
+	 * measurement iteration.
+	 *
+	 * @param budget must not be {@literal null}.
+	 * @return this estimate if it is already within budget, otherwise the scaled {@link RuntimeEstimate}.
+	 * @throws IllegalStateException if the run does not fit into the budget even with a single fork and iteration per
+	 *           benchmark.
+	 */
+	public RuntimeEstimate fitTo(TimeValue budget) {
+
+		long millis = budget.convertTo(TimeUnit.MILLISECONDS);
+
+		if (getDuration() <= millis) {
+			return this;
+		}
+
+		RuntimeEstimate minimal = scale(0);
+
+		if (minimal.getDuration() > millis) {
+			throw new IllegalStateException(String.format(
+					"Estimated run time %s exceeds the time budget of %s even with a single fork and iteration per benchmark",
+					format(minimal.getDuration()), format(millis)));
+		}
+
+		double low = 0;
+		double high = 1;
+
+		for (int i = 0; i < 30; i++) {
+
+			double factor = (low + high) / 2;
+
+			if (scale(factor).getDuration() <= millis) {
+				low = factor;
+			} else {
+				high = factor;
+			}
+		}
+
+		return scale(low);
+	}
+
+	private RuntimeEstimate scale(double factor) {
+
+		List<Benchmark> scaled = new ArrayList<>(benchmarks.size());
+		benchmarks.forEach(it -> scaled.add(it.scale(factor)));
+
+		return new RuntimeEstimate(scaled, forkStartup, true);
+	}
+
+	/**
+	 * Resolve the options to apply to a benchmark in a mode to fit into the time budget. Modes of a benchmark are scaled
+	 * independently as their iteration settings may differ.
+	 *
+	 * @param benchmark the benchmark name ({@code fqcn + "." + method name}).
+	 * @param mode the benchmark mode.
+	 * @return option names ({@code forks}, {@code warmupForks}, {@code warmupIterations},
+	 *         {@code measurementIterations}) mapped to their values. Empty if the estimate was not scaled.
+	 */
+	Map<String, String> getOverrides(String benchmark, Mode mode) {
+
+		if (!scaled) {
+			return Collections.emptyMap();
+		}
+
+		for (Benchmark candidate : benchmarks) {
+
+			if (candidate.name.equals(benchmark) && candidate.mode == mode) {
+
+				Map<String, String> overrides = new LinkedHashMap<>();
+				overrides.put("forks", Integer.toString(candidate.forks));
+				overrides.put("warmupForks", Integer.toString(candidate.warmupForks));
+				overrides.put("warmupIterations", Integer.toString(candidate.warmupIterations));
+				overrides.put("measurementIterations", Integer.toString(candidate.measurementIterations));
+				return overrides;
+			}
+		}
+
+		return Collections.emptyMap();
+	}
+
+	/**
+	 * @return {@literal true} if forks and iterations were scaled down to fit a time budget.
+	 */
+	public boolean isScaled() {
+		return scaled;
+	}
+
+	/**
+	 * @return the estimated run time in milliseconds.
+	 */
+	public long getDuration() {
+		return benchmarks.stream().mapToLong(it -> it.getDuration(forkStartup)).sum();
+	}
+
+	/**
+	 * @return the estimated time spent in warmup and measurement iterations in milliseconds.
+	 */
+	long getIterationTime() {
+		return benchmarks.stream().mapToLong(it -> it.getDuration(0)).sum();
+	}
+
+	/**
+	 * @return number of benchmarks and modes.
+	 */
+	public int getBenchmarkCount() {
+		return benchmarks.size();
+	}
+
+	/**
+	 * @return number of benchmark runs across all parameter combinations and run dimensions.
+	 */
+	public int getFixtureCount() {
+		return benchmarks.stream().mapToInt(it -> it.runs).sum();
+	}
+
+	/**
+	 * @return number of forked JVMs including warmup forks.
+	 */
+	public int getForkCount() {
+		return benchmarks.stream().mapToInt(it -> it.runs * (it.forks + it.warmupForks)).sum();
+	}
+
+	/**
+	 * Load the fork startup cost recorded by previous runs.
+	 *
+	 * @param file the file recording the fork startup cost, does not need to exist.
+	 * @return the fork startup cost in milliseconds. Defaults to one second if no cost was recorded.
+	 */
+	static long loadForkStartup(File file) {
+
+		if (!file.isFile()) {
+			return DEFAULT_FORK_STARTUP;
+		}
+
+		Properties properties = new Properties();
+
+		try (InputStream is = new FileInputStream(file)) {
+			properties.load(is);
+			return Long.parseLong(properties.getProperty(FORK_STARTUP_KEY, Long.toString(DEFAULT_FORK_STARTUP)));
+		} catch (IOException | NumberFormatException e) {
+			return DEFAULT_FORK_STARTUP;
+		}
+	}
+
+	/**
+	 * Record the fork startup cost measured by a run. The cost is averaged with the previously recorded cost to smooth
+	 * out outliers.
+	 *
+	 * @param file the file recording the fork startup cost.
+	 * @param observed the average fork startup cost in milliseconds, see {@link ForkTimingOutputFormat}.
+	 * @throws IOException if the file cannot be written.
+	 */
+	static void recordForkStartup(File file, long observed) throws IOException {
+
+		long startup = file.isFile() ? (loadForkStartup(file) + observed) / 2 : observed;
+
+		Properties properties = new Properties();
+		properties.setProperty(FORK_STARTUP_KEY, Long.toString(startup));
+
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+
+		try (OutputStream os = new FileOutputStream(file)) {
+			properties.store(os, "Fork startup cost recorded by microbenchmark-runner");
+		}
+	}
+
+	/**
+	 * Format a duration as hours, minutes and seconds.
+	 *
+	 * @param millis duration in milliseconds.
+	 * @return the formatted duration such as {@code 1h 05m 30s}.
+	 */
+	static String format(long millis) {
+
+		long seconds = TimeUnit.MILLISECONDS.toSeconds(millis + 999);
+		long hours = seconds / 3600;
+		long minutes = seconds % 3600 / 60;
+
+		if (hours > 0) {
+			return String.format("%dh %02dm %02ds", hours, minutes, seconds % 60);
+		}
+
+		if (minutes > 0) {
+			return String.format("%dm %02ds", minutes, seconds % 60);
+		}
+
+		return String.format("%ds", seconds);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s (%d benchmarks, %d fixtures, %d forks)", format(getDuration()), getBenchmarkCount(),
+				getFixtureCount(), getForkCount());
+	}
+
+	/**
+	 * {@link OutputFormat} measuring the startup cost of forks as the time between the start of a benchmark or the last
+	 * iteration of the previous fork and the first iteration of a fork. The cost includes JVM startup, trial-level setup
+	 * and teardown but neither iteration overrun nor work of the host such as benchmark discovery or result reporting.
+	 */
+	static class ForkTimingOutputFormat implements OutputFormat {
+
+		private final OutputFormat delegate;
+		private final LongSupplier nanoTime;
+
+		private long mark;
+		private long total;
+		private int forks;
+
+		ForkTimingOutputFormat(OutputFormat delegate) {
+			this(delegate, System::nanoTime);
+		}
+
+		ForkTimingOutputFormat(OutputFormat delegate, LongSupplier nanoTime) {
+			this.delegate = delegate;
+			this.nanoTime = nanoTime;
+		}
+
+		/**
+		 * @return the average fork startup cost in milliseconds or {@literal -1} if no fork was measured.
+		 */
+		long getForkStartup() {
+			return forks == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(total / forks);
+		}
+
+		@Override
+		public void iteration(BenchmarkParams benchParams, IterationParams params, int iteration) {
+
+			if (iteration == 1
+					&& (params.getType() == IterationType.WARMUP || benchParams.getWarmup().getCount() == 0)) {
+				total += nanoTime.getAsLong() - mark;
+				forks++;
+			}
+
+			delegate.iteration(benchParams, params, iteration);
+		}
+
+		@Override
+		public void iterationResult(BenchmarkParams benchParams, IterationParams params, int iteration,
+				IterationResult data) {
+
+			delegate.iterationResult(benchParams, params, iteration, data);
+			mark = nanoTime.getAsLong();
+		}
+
+		@Override
+		public void startBenchmark(BenchmarkParams benchParams) {
+
+			delegate.startBenchmark(benchParams);
+			mark = nanoTime.getAsLong();
+		}
+
+		@Override
+		public void endBenchmark(BenchmarkResult result) {
+			delegate.endBenchmark(result);
+		}
+
+		@Override
+		public void startRun() {
+			delegate.startRun();
+		}
+
+		@Override
+		public void endRun(Collection<RunResult> result) {
+			delegate.endRun(result);
+		}
+
+		@Override
+		public void print(String s) {
+			delegate.print(s);
+		}
+
+		@Override
+		public void println(String s) {
+			delegate.println(s);
+		}
+
+		@Override
+		public void flush() {
+			delegate.flush();
+		}
+
+		@Override
+		public void close() {
+			delegate.close();
+		}
+
+		@Override
+		public void verbosePrintln(String s) {
+			delegate.verbosePrintln(s);
+		}
+
+		@Override
+		public void write(int b) {
+			delegate.write(b);
+		}
+
+		@Override
+		public void write(byte[] b) throws IOException {
+			delegate.write(b);
+		}
+	}
+
+	/**
+	 * Estimated settings of a benchmark in one mode.
+	 */
+	static class Benchmark {
+
+		private final String name;
+		private final Mode mode;
+		private final int runs;
+		private final int forks;
+		private final int warmupForks;
+		private final int warmupIterations;
+		private final long warmupTime;
+		private final int measurementIterations;
+		private final long measurementTime;
+
+		Benchmark(String name, Mode mode, int runs, int forks, int warmupForks, int warmupIterations, long warmupTime,
+				int measurementIterations, long measurementTime) {
+			this.name = name;
+			this.mode = mode;
+			this.runs = runs;
+			this.forks = forks;
+			this.warmupForks = warmupForks;
+			this.warmupIterations = warmupIterations;
+			this.warmupTime = warmupTime;
+			this.measurementIterations = measurementIterations;
+			this.measurementTime = measurementTime;
+		}
+
+		/**
+		 * Estimate the duration. Benchmarks without forks run once in the host JVM.
+		 */
+		long getDuration(long forkStartup) {
+
+			long iterations = warmupIterations * warmupTime + measurementIterations * measurementTime;
+
+			if (forks == 0) {
+				return runs * iterations;
+			}
+
+			return runs * (forks + warmupForks) * (forkStartup + iterations);
+		}
+
+		/**
+		 * Drop warmup forks first as they do not contribute to the result, then scale forks as each fork adds startup
+		 * cost, then scale iterations by the remaining factor.
+		 */
+		Benchmark scale(double factor) {
+
+			if (forks == 0 || warmupForks == 0) {
+				return scale(factor, warmupForks);
+			}
+
+			double total = (forks + warmupForks) * factor;
+
+			return total >= forks ? scale(1, (int) (total - forks)) : scale(total / forks, 0);
+		}
+
+		private Benchmark scale(double factor, int scaledWarmupForks) {
+
+			int scaledForks = forks == 0 ? 0 : Math.max(1, (int) (forks * factor));
+			double remaining = forks == 0 ? factor : Math.min(1, factor * forks / scaledForks);
+
+			int scaledWarmup = warmupIterations == 0 ? 0 : Math.max(1, (int) (warmupIterations * remaining));
+			int scaledMeasurement = Math.max(1, (int) (measurementIterations * remaining));
+
+			return new Benchmark(name, mode, runs, scaledForks, scaledWarmupForks, scaledWarmup, warmupTime, scaledMeasurement,
+					measurementTime);
+		}
+	}
+}
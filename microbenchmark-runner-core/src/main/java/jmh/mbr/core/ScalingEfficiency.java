@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * Computes the scaling efficiency of benchmarks that were run with different thread counts. The efficiency is the
+ * throughput at {@code N} threads divided by {@code N} times the throughput at the lowest thread count (typically one
+ * thread). The efficiency is attached as secondary result {@value #LABEL} so {@link ResultsWriter}s pick it up.
+ */
+class ScalingEfficiency {
+
+	static final String LABEL = "scaling.efficiency";
+
+	private ScalingEfficiency() {}
+
+	/**
+	 * Attach scaling efficiency results to {@link RunResult}s. Results are grouped by benchmark, mode and
+	 * {@code @Param} values. Groups with a single thread count are left unchanged.
+	 *
+	 * @param results must not be {@literal null}.
+	 */
+	static void apply(Collection<RunResult> results) {
+
+		Map<String, List<RunResult>> groups = new LinkedHashMap<>();
+
+		for (RunResult result : results) {
+
+			if (result.getParams() == null || result.getBenchmarkResults().isEmpty()) {
+				continue;
+			}
+
+			groups.computeIfAbsent(getGroupKey(result.getParams()), it -> new ArrayList<>()).add(result);
+		}
+
+		for (List<RunResult> group : groups.values()) {
+
+			if (group.size() < 2) {
+				continue;
+			}
+
+			RunResult baseline = group.stream().min(Comparator.comparingInt(it -> it.getParams().getThreads())).get();
+
+			for (RunResult result : group) {
+
+				double efficiency = getEfficiency(baseline, result);
+				BenchmarkResult benchmarkResult = result.getBenchmarkResults().iterator().next();
+				benchmarkResult.addBenchmarkResult(new ScalarResult(LABEL, efficiency, "ratio", AggregationPolicy.AVG));
+			}
+		}
+	}
+
+	/**
+	 * Compute the per-thread throughput of {@code result} relative to {@code baseline}. Time-based modes report time per
+	 * operation so a lower score means higher throughput.
+	 */
+	static double getEfficiency(RunResult baseline, RunResult result) {
+
+		int baselineThreads = baseline.getParams().getThreads();
+		int threads = result.getParams().getThreads();
+		double baselineScore = baseline.getPrimaryResult().getScore();
+		double score = result.getPrimaryResult().getScore();
+
+		if (result.getParams().getMode() == Mode.Throughput) {
+			return (score / threads) / (baselineScore / baselineThreads);
+		}
+
+		return baselineScore / score;
+	}
+
+	private static String getGroupKey(BenchmarkParams params) {
+
+		StringBuilder key = new StringBuilder(params.getBenchmark()).append('-').append(params.getMode());
+
+		for (String param : params.getParamsKeys()) {
+			key.append('-').append(param).append('=').append(params.getParam(param));
+		}
+
+		return key.toString();
+	}
+}
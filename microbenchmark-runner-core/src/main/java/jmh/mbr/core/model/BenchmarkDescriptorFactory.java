@@ -15,12 +15,13 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -33,45 +34,139 @@ import org.openjdk.jmh.annotations.Benchmark;
 public class BenchmarkDescriptorFactory {
 
 	private final Class<?> benchmarkClass;
+	private final Map<String, List<String>> runDimensions;
+	private final ParameterSampling sampling;
+	private final Function<String, Map<String, List<String>>> parameterOverrides;
+
+	private BenchmarkDescriptorFactory(Class<?> benchmarkClass, Map<String, List<String>> runDimensions,
+			ParameterSampling sampling, Function<String, Map<String, List<String>>> parameterOverrides) {
 
-	private BenchmarkDescriptorFactory(Class<?> benchmarkClass) {
 		this.benchmarkClass = benchmarkClass;
+		this.runDimensions = runDimensions;
+		this.sampling = sampling;
+		this.parameterOverrides = parameterOverrides;
 	}
 
 	public static BenchmarkDescriptorFactory create(Class<?> benchmarkClass) {
+		return create(benchmarkClass, Collections.emptyMap());
+	}
+
+	/**
+	 * Create a {@link BenchmarkDescriptorFactory} that expands every benchmark method into fixtures for each value of the
+	 * given run dimensions (such as thread counts). Run dimensions are not JMH {@code @Param}s but are applied by the
+	 * runner when launching JMH.
+	 *
+	 * @param benchmarkClass the benchmark class to inspect.
+	 * @param runDimensions dimension names mapped to their values. Empty to use {@code @Param} fixtures only.
+	 * @return the {@link BenchmarkDescriptorFactory}.
+	 */
+	public static BenchmarkDescriptorFactory create(Class<?> benchmarkClass, Map<String, List<String>> runDimensions) {
+		return create(benchmarkClass, runDimensions, ParameterSampling.all());
+	}
+
+	/**
+	 * Create a {@link BenchmarkDescriptorFactory} that expands every benchmark method into fixtures for the
+	 * {@code @Param} combinations selected by {@link ParameterSampling}. Each selected combination is expanded for all
+	 * values of the given run dimensions.
+	 *
+	 * @param benchmarkClass the benchmark class to inspect.
+	 * @param runDimensions dimension names mapped to their values. Empty to use {@code @Param} fixtures only.
+	 * @param sampling the {@link ParameterSampling} to select {@code @Param} combinations.
+	 * @return the {@link BenchmarkDescriptorFactory}.
+	 */
+	public static BenchmarkDescriptorFactory create(Class<?> benchmarkClass, Map<String, List<String>> runDimensions,
+			ParameterSampling sampling) {
+		return create(benchmarkClass, runDimensions, sampling, it -> Collections.emptyMap());
+	}
+
+	/**
+	 * Create a {@link BenchmarkDescriptorFactory} that expands every benchmark method into fixtures for the
+	 * {@code @Param} combinations selected by {@link ParameterSampling}. {@code @Param} values are replaced by the
+	 * values resolved from {@code parameterOverrides} before sampling, so fixtures reflect the parameters that actually
+	 * run.
+	 *
+	 * @param benchmarkClass the benchmark class to inspect.
+	 * @param runDimensions dimension names mapped to their values. Empty to use {@code @Param} fixtures only.
+	 * @param sampling the {@link ParameterSampling} to select {@code @Param} combinations.
+	 * @param parameterOverrides resolves {@code @Param} names mapped to the values to use for a benchmark name
+	 *          ({@code fqcn + "." + method name}).
+	 * @return the {@link BenchmarkDescriptorFactory}.
+	 */
+	public static BenchmarkDescriptorFactory create(Class<?> benchmarkClass, Map<String, List<String>> runDimensions,
+			ParameterSampling sampling, Function<String, Map<String, List<String>>> parameterOverrides) {
 
 		Objects.requireNonNull(benchmarkClass, "Benchmark class must not be null");
+		Objects.requireNonNull(runDimensions, "Run dimensions must not be null");
+		Objects.requireNonNull(sampling, "ParameterSampling must not be null");
+		Objects.requireNonNull(parameterOverrides, "Parameter overrides must not be null");
 
-		return new BenchmarkDescriptorFactory(benchmarkClass);
+		return new BenchmarkDescriptorFactory(benchmarkClass, runDimensions, sampling, parameterOverrides);
 	}
 
 	/**
 	 * @return the {@link BenchmarkDescriptor} for the underlying {@link Class}.
 	 */
 	public BenchmarkClass createDescriptor() {
+		return createDescriptor(DiscoveryCache.none());
+	}
+
+	/**
+	 * Create the {@link BenchmarkDescriptor} for the underlying {@link Class} reusing benchmark methods and
+	 * {@code @Param} values from {@link DiscoveryCache} if the benchmark class and its state classes did not change.
+	 *
+	 * @param cache the {@link DiscoveryCache} to look up and record discovered methods.
+	 * @return the {@link BenchmarkDescriptor} for the underlying {@link Class}.
+	 */
+	public BenchmarkClass createDescriptor(DiscoveryCache cache) {
+
+		Objects.requireNonNull(cache, "DiscoveryCache must not be null");
 
-		List<BenchmarkDescriptor> children = getBenchmarkMethods(it -> it.isAnnotationPresent(Benchmark.class)).map(it -> {
+		Map<BenchmarkMethod, List<BenchmarkArgument>> methods = cache.get(benchmarkClass);
 
-			if (it.isParametrized()) {
+		if (methods == null) {
 
-				List<BenchmarkFixture> fixtures = createFixtures(it);
+			methods = new LinkedHashMap<>();
 
-				return new ParametrizedBenchmarkMethod(it, fixtures);
+			for (BenchmarkMethod method : getBenchmarkMethods(it -> it.isAnnotationPresent(Benchmark.class))
+					.collect(Collectors.toList())) {
+				methods.put(method, discoverArguments(method));
 			}
 
-			return it;
-		}).collect(Collectors.toList());
+			cache.put(benchmarkClass, methods);
+		}
+
+		List<BenchmarkDescriptor> children = new ArrayList<>(methods.size());
+
+		methods.forEach((method, arguments) -> {
+
+			if (!arguments.isEmpty() || !runDimensions.isEmpty()) {
+				children.add(new ParametrizedBenchmarkMethod(method, createFixtures(method, arguments)));
+			} else {
+				children.add(method);
+			}
+		});
 
 		return BenchmarkClass.create(benchmarkClass, children);
 	}
 
 	/**
-	 * Creates {@link BenchmarkFixture} for a parametrized {@link BenchmarkMethod}.
+	 * Creates {@link BenchmarkFixture} for a parametrized {@link BenchmarkMethod}. Fixtures are not materialized but
+	 * computed on demand from the parameter values of each argument. {@code @Param} combinations are restricted to
+	 * those selected by the {@link ParameterSampling}.
 	 *
 	 * @param method the {@link BenchmarkMethod} to inspect.
-	 * @return list of fixtures if parameterized. Empty list if the method is not parametrized.
+	 * @return list of fixtures if parameterized or run dimensions are configured. Empty list if the method is not
+	 *         parametrized.
+	 */
+	public BenchmarkFixtures createFixtures(BenchmarkMethod method) {
+		return createFixtures(method, discoverArguments(method));
+	}
+
+	/**
+	 * Discover {@code @Param} arguments of the declaring class and the {@code @State} parameters of a
+	 * {@link BenchmarkMethod}.
 	 */
-	public List<BenchmarkFixture> createFixtures(BenchmarkMethod method) {
+	private static List<BenchmarkArgument> discoverArguments(BenchmarkMethod method) {
 
 		List<StateClass> stateClasses = new ArrayList<>();
 
@@ -87,40 +182,37 @@ public class BenchmarkDescriptorFactory {
 
 		stateClasses.addAll(argumentStateClasses);
 
-		Collection<BenchmarkArgument> arguments = BenchmarkParameters.discover(stateClasses);
-		Iterator<BenchmarkArgument> iterator = arguments.iterator();
-
-		return iterator.hasNext() ? createFixtures(iterator.next(), iterator) : Collections.emptyList();
+		return new ArrayList<>(BenchmarkParameters.discover(stateClasses));
 	}
 
-	private List<BenchmarkFixture> createFixtures(BenchmarkArgument argument, Iterator<BenchmarkArgument> iterator) {
-
-		List<BenchmarkFixture> fixtures = new ArrayList<>(argument.getParameterCount());
+	private BenchmarkFixtures createFixtures(BenchmarkMethod method, List<BenchmarkArgument> parameters) {
 
-		for (String parameter : argument.getParameters()) {
-			fixtures.add(BenchmarkFixture.create(argument.getName(), parameter));
-		}
-
-		while (iterator.hasNext()) {
-			fixtures = enhance(fixtures, iterator.next());
-		}
+		Map<String, List<String>> overrides = parameterOverrides
+				.apply(method.getDeclaringClass().getName() + "." + method.getName());
+		List<BenchmarkArgument> arguments = new ArrayList<>(parameters.size());
 
-		return fixtures;
+		for (BenchmarkArgument parameter : parameters) {
 
-	}
+			if (overrides.containsKey(parameter.getName())) {
 
-	private List<BenchmarkFixture> enhance(List<BenchmarkFixture> fixtures, BenchmarkArgument argument) {
+				BenchmarkArgument argument = new BenchmarkArgument(parameter.getName());
+				argument.getParameters().addAll(overrides.get(parameter.getName()));
+				arguments.add(argument);
+			} else {
+				arguments.add(parameter);
+			}
+		}
 
-		List<BenchmarkFixture> enhanced = new ArrayList<>(fixtures.size() * argument.getParameterCount());
+		int parameterCount = arguments.size();
 
-		for (BenchmarkFixture fixture : fixtures) {
+		runDimensions.forEach((name, values) -> {
 
-			for (String parameter : argument.getParameters()) {
-				enhanced.add(fixture.enhance(argument.getName(), parameter));
-			}
-		}
+			BenchmarkArgument argument = new BenchmarkArgument(name);
+			argument.getParameters().addAll(values);
+			arguments.add(argument);
+		});
 
-		return enhanced;
+		return BenchmarkFixtures.create(arguments, sampling, parameterCount);
 	}
 
 	public Optional<BenchmarkMethod> getBenchmarkMethod(String name, Class<?>... parameterTypes) {
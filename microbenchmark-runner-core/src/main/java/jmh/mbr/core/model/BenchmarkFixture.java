@@ -9,22 +9,20 @@
  */
 package jmh.mbr.core.model;
 
-import lombok.EqualsAndHashCode;
-
-import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
- * Represents a parametrized fixture.
+ * Represents a parametrized fixture. Fixtures are encoded as ordinal into {@link BenchmarkFixtures} and compute their
+ * parameter map and display name on demand.
  */
-@EqualsAndHashCode
 public class BenchmarkFixture implements BenchmarkDescriptor {
 
-	private final Map<String, Object> fixture;
+	private final BenchmarkFixtures fixtures;
+	private final long ordinal;
 
-	private BenchmarkFixture(Map<String, Object> fixture) {
-		this.fixture = fixture;
+	BenchmarkFixture(BenchmarkFixtures fixtures, long ordinal) {
+		this.fixtures = fixtures;
+		this.ordinal = ordinal;
 	}
 
 	/**
@@ -36,7 +34,7 @@ public class BenchmarkFixture implements BenchmarkDescriptor {
 	 * @see org.openjdk.jmh.annotations.Param
 	 */
 	public static BenchmarkFixture create(String name, String parameter) {
-		return new BenchmarkFixture(Collections.singletonMap(name, parameter));
+		return new BenchmarkFixtures(new String[] { name }, new String[][] { { parameter } }).get(0);
 	}
 
 	/**
@@ -47,33 +45,54 @@ public class BenchmarkFixture implements BenchmarkDescriptor {
 	 * @return the {@link BenchmarkFixture}.
 	 */
 	public BenchmarkFixture enhance(String name, String parameter) {
-
-		Map<String, Object> fixture = new LinkedHashMap<>(this.fixture.size() + 1);
-		fixture.putAll(this.fixture);
-		fixture.put(name, parameter);
-
-		return new BenchmarkFixture(fixture);
+		return fixtures.enhance(ordinal, name, parameter).get(0);
 	}
 
 	public Map<String, Object> getFixture() {
-		return fixture;
+		return fixtures.toMap(ordinal);
 	}
 
 	public String getDisplayName() {
+		return fixtures.describe(ordinal);
+	}
+
+	/**
+	 * @return ordinal of this fixture within the parameter space of its {@link BenchmarkFixtures}.
+	 */
+	public long getOrdinal() {
+		return ordinal;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+
+		if (this == o) {
+			return true;
+		}
 
-		String name = fixture.toString();
-		if (name.startsWith("{") && name.endsWith("}")) {
-			return "[" + name.substring(1, name.length() - 1) + "]";
+		if (!(o instanceof BenchmarkFixture)) {
+			return false;
 		}
 
-		return name;
+		BenchmarkFixture that = (BenchmarkFixture) o;
+
+		if (fixtures == that.fixtures) {
+			return ordinal == that.ordinal;
+		}
+
+		return getFixture().equals(that.getFixture());
+	}
+
+	@Override
+	public int hashCode() {
+		return fixtures.hash(ordinal);
 	}
 
 	@Override
 	public String toString() {
 		StringBuffer sb = new StringBuffer();
 		sb.append(getClass().getSimpleName());
-		sb.append(fixture);
+		sb.append(getFixture());
 		return sb.toString();
 	}
 }
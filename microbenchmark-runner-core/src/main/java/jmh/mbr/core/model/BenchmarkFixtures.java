@@ -0,0 +1,348 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import jmh.mbr.core.model.BenchmarkParameters.BenchmarkArgument;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Compact representation of the cartesian product of benchmark arguments. Parameter values are stored once per
+ * argument and each {@link BenchmarkFixture} is encoded as its index into the product, where the last argument varies
+ * fastest. Fixtures, their parameter maps and display names are created on demand so the parameter space does not need
+ * to be materialized. {@link ParameterSampling Sampled} fixtures keep the ordinals of the selected combinations only.
+ */
+public class BenchmarkFixtures extends AbstractList<BenchmarkFixture> implements RandomAccess {
+
+	private final String[] names;
+	private final String[][] values;
+	private final long[] selection;
+	private final int size;
+
+	BenchmarkFixtures(String[] names, String[][] values) {
+		this(names, values, null);
+	}
+
+	private BenchmarkFixtures(String[] names, String[][] values, long[] selection) {
+
+		this.names = names;
+		this.values = values;
+		this.selection = selection;
+
+		if (selection != null) {
+			this.size = selection.length;
+			return;
+		}
+
+		long combinations = getCombinations(values);
+
+		if (combinations > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(String.format(
+					"Parameter space of %d fixtures is too large to run, consider parameter sampling", combinations));
+		}
+
+		this.size = (int) combinations;
+	}
+
+	/**
+	 * Create {@link BenchmarkFixtures} spanning all combinations of {@link BenchmarkArgument} values.
+	 *
+	 * @param arguments the arguments in fixture order.
+	 * @return the {@link BenchmarkFixtures}. Empty if there are no arguments.
+	 */
+	static BenchmarkFixtures create(Collection<BenchmarkArgument> arguments) {
+		return create(arguments, ParameterSampling.all(), arguments.size());
+	}
+
+	/**
+	 * Create {@link BenchmarkFixtures} spanning the combinations of {@link BenchmarkArgument} values selected by
+	 * {@link ParameterSampling}. Only the leading {@code sampledArguments} are sampled, each selected combination is
+	 * combined with all values of the remaining arguments.
+	 *
+	 * @param arguments the arguments in fixture order.
+	 * @param sampling the {@link ParameterSampling} to apply.
+	 * @param sampledArguments number of leading arguments to sample.
+	 * @return the {@link BenchmarkFixtures}. Empty if there are no arguments.
+	 */
+	static BenchmarkFixtures create(Collection<BenchmarkArgument> arguments, ParameterSampling sampling,
+			int sampledArguments) {
+
+		String[] names = new String[arguments.size()];
+		String[][] values = new String[arguments.size()][];
+
+		int index = 0;
+		for (BenchmarkArgument argument : arguments) {
+
+			names[index] = argument.getName();
+			values[index] = argument.getParameters().toArray(new String[0]);
+			index++;
+		}
+
+		if (sampling.isAll() || sampledArguments == 0) {
+			return new BenchmarkFixtures(names, values);
+		}
+
+		int[] radices = new int[sampledArguments];
+		for (int i = 0; i < sampledArguments; i++) {
+			radices[i] = values[i].length;
+		}
+
+		long[] sampled = sampling.sample(radices);
+		long remaining = getCombinations(Arrays.copyOfRange(values, sampledArguments, values.length), 1);
+		long[] selection = new long[Math.toIntExact(Math.multiplyExact(sampled.length, remaining))];
+
+		for (int i = 0; i < sampled.length; i++) {
+			for (int j = 0; j < remaining; j++) {
+				selection[(int) (i * remaining + j)] = sampled[i] * remaining + j;
+			}
+		}
+
+		return new BenchmarkFixtures(names, values, selection);
+	}
+
+	private static long getCombinations(String[][] values) {
+		return getCombinations(values, values.length == 0 ? 0 : 1);
+	}
+
+	private static long getCombinations(String[][] values, long initial) {
+
+		long combinations = initial;
+
+		for (String[] parameters : values) {
+			try {
+				combinations = Math.multiplyExact(combinations, parameters.length);
+			} catch (ArithmeticException e) {
+				throw new IllegalArgumentException("Parameter space exceeds " + Long.MAX_VALUE + " fixtures", e);
+			}
+		}
+
+		return combinations;
+	}
+
+	@Override
+	public BenchmarkFixture get(int index) {
+		return new BenchmarkFixture(this, getOrdinal(index));
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return {@literal true} if these fixtures are a sampled subset of the parameter space.
+	 */
+	public boolean isSampled() {
+		return selection != null;
+	}
+
+	/**
+	 * @return number of arguments per fixture.
+	 */
+	public int getArgumentCount() {
+		return names.length;
+	}
+
+	/**
+	 * Resolve the ordinal of the fixture at {@code index} within the full parameter space.
+	 *
+	 * @param index fixture index.
+	 * @return the ordinal.
+	 */
+	public long getOrdinal(int index) {
+
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+
+		return selection == null ? index : selection[index];
+	}
+
+	/**
+	 * Decode an ordinal into one value index per argument.
+	 *
+	 * @param ordinal fixture ordinal.
+	 * @return value indexes in argument order.
+	 */
+	public int[] decode(long ordinal) {
+
+		int[] indexes = new int[names.length];
+
+		for (int i = names.length - 1; i >= 0; i--) {
+			indexes[i] = (int) (ordinal % values[i].length);
+			ordinal /= values[i].length;
+		}
+
+		return indexes;
+	}
+
+	/**
+	 * Encode value indexes into an ordinal.
+	 *
+	 * @param indexes value indexes in argument order.
+	 * @return the fixture ordinal.
+	 */
+	public long encode(int[] indexes) {
+
+		long ordinal = 0;
+
+		for (int i = 0; i < names.length; i++) {
+			ordinal = ordinal * values[i].length + indexes[i];
+		}
+
+		return ordinal;
+	}
+
+	/**
+	 * Look up a fixture by its {@link BenchmarkFixture#getDisplayName() display name} without expanding the parameter
+	 * space.
+	 *
+	 * @param displayName the display name.
+	 * @return the fixture index or {@code -1} if no fixture has the given display name.
+	 */
+	public int indexOf(String displayName) {
+
+		if (size == 0 || !displayName.startsWith("[") || !displayName.endsWith("]")) {
+			return -1;
+		}
+
+		return indexOf(displayName, 1, 0, 0);
+	}
+
+	private int indexOf(String displayName, int offset, int argument, long ordinal) {
+
+		if (argument == names.length) {
+			return offset == displayName.length() ? indexOfOrdinal(ordinal) : -1;
+		}
+
+		String name = names[argument];
+		if (!displayName.startsWith(name, offset) || !displayName.startsWith("=", offset + name.length())) {
+			return -1;
+		}
+
+		int valueOffset = offset + name.length() + 1;
+		String separator = argument == names.length - 1 ? "]" : ", ";
+
+		// values may contain separators, so try every matching value
+		for (int i = 0; i < values[argument].length; i++) {
+
+			String value = values[argument][i];
+			int next = valueOffset + value.length();
+
+			if (displayName.startsWith(value, valueOffset) && displayName.startsWith(separator, next)) {
+
+				int result = indexOf(displayName, next + separator.length(), argument + 1,
+						ordinal * values[argument].length + i);
+
+				if (result != -1) {
+					return result;
+				}
+			}
+		}
+
+		return -1;
+	}
+
+	private int indexOfOrdinal(long ordinal) {
+
+		if (selection == null) {
+			return (int) ordinal;
+		}
+
+		int index = Arrays.binarySearch(selection, ordinal);
+		return index < 0 ? -1 : index;
+	}
+
+	/**
+	 * @param index fixture index.
+	 * @return the display name of the fixture at {@code index}, such as {@code [foo=1, bar=2]}.
+	 */
+	public String getDisplayName(int index) {
+		return describe(getOrdinal(index));
+	}
+
+	/**
+	 * @param ordinal fixture ordinal.
+	 * @return parameter names mapped to the values of the fixture.
+	 */
+	Map<String, Object> toMap(long ordinal) {
+
+		int[] indexes = decode(ordinal);
+		Map<String, Object> fixture = new LinkedHashMap<>(names.length * 2);
+
+		for (int i = 0; i < names.length; i++) {
+			fixture.put(names[i], values[i][indexes[i]]);
+		}
+
+		return Collections.unmodifiableMap(fixture);
+	}
+
+	/**
+	 * @param ordinal fixture ordinal.
+	 * @return the display name of the fixture.
+	 */
+	String describe(long ordinal) {
+
+		int[] indexes = decode(ordinal);
+		StringBuilder sb = new StringBuilder("[");
+
+		for (int i = 0; i < names.length; i++) {
+
+			if (i != 0) {
+				sb.append(", ");
+			}
+
+			sb.append(names[i]).append('=').append(values[i][indexes[i]]);
+		}
+
+		return sb.append(']').toString();
+	}
+
+	/**
+	 * Compute the {@link Map#hashCode()} of the fixture map without creating it.
+	 */
+	int hash(long ordinal) {
+
+		int[] indexes = decode(ordinal);
+		int hashCode = 0;
+
+		for (int i = 0; i < names.length; i++) {
+			hashCode += names[i].hashCode() ^ values[i][indexes[i]].hashCode();
+		}
+
+		return hashCode;
+	}
+
+	/**
+	 * Create fixtures that extend the fixture at {@code ordinal} by an additional parameter.
+	 */
+	BenchmarkFixtures enhance(long ordinal, String name, String parameter) {
+
+		int[] indexes = decode(ordinal);
+		String[] names = new String[this.names.length + 1];
+		String[][] values = new String[this.names.length + 1][];
+
+		for (int i = 0; i < this.names.length; i++) {
+			names[i] = this.names[i];
+			values[i] = new String[] { this.values[i][indexes[i]] };
+		}
+
+		names[this.names.length] = name;
+		values[this.names.length] = new String[] { parameter };
+
+		return new BenchmarkFixtures(names, values);
+	}
+}
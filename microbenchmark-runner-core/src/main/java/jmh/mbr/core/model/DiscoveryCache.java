@@ -0,0 +1,551 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import jmh.mbr.core.model.BenchmarkParameters.BenchmarkArgument;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent cache of discovered benchmark methods and their {@code @Param} values per benchmark class. Entries are
+ * keyed by fingerprints (size, modification time and content hash) of the class files that were inspected to discover
+ * them: the benchmark class, {@code @State} classes, their superclasses and enum {@code @Param} types. Fingerprints are
+ * considered unchanged if size and modification time match, otherwise the content hash decides. Classes loaded from JAR
+ * files are fingerprinted by JAR size and modification time.
+ * <p>
+ * Run dimensions, {@link ParameterSampling} and parameter overrides are not cached but applied to the cached parameter
+ * values.
+ */
+public class DiscoveryCache {
+
+	private static final int VERSION = 1;
+
+	private static final DiscoveryCache NONE = new DiscoveryCache(null, null);
+
+	private static final Map<File, DiscoveryCache> CACHES = new ConcurrentHashMap<>();
+
+	private final File file;
+	private final ClassLoader classLoader;
+	private final Map<String, Fingerprint> fingerprints = new HashMap<>();
+	private final Map<String, Entry> entries = new HashMap<>();
+	private final Map<String, Boolean> verified = new HashMap<>();
+	private boolean dirty;
+
+	private DiscoveryCache(File file, ClassLoader classLoader) {
+		this.file = file;
+		this.classLoader = classLoader;
+	}
+
+	/**
+	 * @return a {@link DiscoveryCache} that neither caches nor records anything.
+	 */
+	public static DiscoveryCache none() {
+		return NONE;
+	}
+
+	/**
+	 * Load the cache from {@code file}. Caches are shared per file within the JVM so that runners created for individual
+	 * classes reuse the loaded state. Unreadable files are ignored and overwritten on {@link #save()}.
+	 *
+	 * @param file must not be {@literal null}, does not need to exist.
+	 * @param classLoader the {@link ClassLoader} to resolve class files.
+	 * @return the {@link DiscoveryCache}.
+	 */
+	public static DiscoveryCache load(File file, ClassLoader classLoader) {
+
+		Objects.requireNonNull(file, "File must not be null!");
+
+		return CACHES.computeIfAbsent(file.getAbsoluteFile(), key -> read(key, classLoader));
+	}
+
+	static DiscoveryCache read(File file, ClassLoader classLoader) {
+
+		DiscoveryCache cache = new DiscoveryCache(file, classLoader);
+
+		if (file.exists()) {
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+				cache.read(in);
+			} catch (IOException e) {
+				cache.fingerprints.clear();
+				cache.entries.clear();
+			}
+		}
+
+		return cache;
+	}
+
+	/**
+	 * Write the cache file if entries were added or fingerprints changed. The file is written to a temporary file in the
+	 * same directory and moved atomically so that concurrent writers do not corrupt it. Failures to write the cache are
+	 * reported and do not affect discovery.
+	 */
+	public synchronized void save() {
+
+		if (this == NONE || !dirty) {
+			return;
+		}
+
+		File directory = file.getAbsoluteFile().getParentFile();
+		Path temp = null;
+
+		try {
+
+			Files.createDirectories(directory.toPath());
+			temp = Files.createTempFile(directory.toPath(), file.getName(), ".tmp");
+
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				write(out);
+			}
+
+			Files.move(temp, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			dirty = false;
+		} catch (IOException e) {
+
+			System.err.println(String.format("Cannot write discovery cache to '%s'. Error was %s.", file, e));
+
+			if (temp != null) {
+				try {
+					Files.deleteIfExists(temp);
+				} catch (IOException ignore) {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Look up benchmark methods of {@code benchmarkClass} along with their {@code @Param} arguments.
+	 *
+	 * @param benchmarkClass the benchmark class.
+	 * @return benchmark methods mapped to their arguments or {@literal null} if the class is not cached or changed.
+	 */
+	synchronized Map<BenchmarkMethod, List<BenchmarkArgument>> get(Class<?> benchmarkClass) {
+
+		if (this == NONE) {
+			return null;
+		}
+
+		Entry entry = entries.get(benchmarkClass.getName());
+
+		if (entry == null) {
+			return null;
+		}
+
+		for (String dependency : entry.dependencies) {
+			if (!isUnchanged(dependency)) {
+				return null;
+			}
+		}
+
+		try {
+			return entry.resolve(benchmarkClass.getClassLoader());
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Record benchmark methods of {@code benchmarkClass} along with their {@code @Param} arguments.
+	 *
+	 * @param benchmarkClass the benchmark class.
+	 * @param methods benchmark methods mapped to their arguments.
+	 */
+	synchronized void put(Class<?> benchmarkClass, Map<BenchmarkMethod, List<BenchmarkArgument>> methods) {
+
+		if (this == NONE) {
+			return;
+		}
+
+		List<String> dependencies = new ArrayList<>();
+
+		for (Class<?> dependency : getDependencies(benchmarkClass, methods.keySet())) {
+
+			Fingerprint fingerprint = fingerprint(dependency.getName());
+
+			if (fingerprint != null) {
+				fingerprints.put(dependency.getName(), fingerprint);
+				verified.put(dependency.getName(), true);
+				dependencies.add(dependency.getName());
+			}
+		}
+
+		entries.put(benchmarkClass.getName(), Entry.create(dependencies, methods));
+		dirty = true;
+	}
+
+	/**
+	 * Collect classes inspected during discovery: class hierarchies of the benchmark class and of benchmark method
+	 * parameter types and enum types of {@code @Param} fields.
+	 */
+	static Set<Class<?>> getDependencies(Class<?> benchmarkClass, Collection<BenchmarkMethod> methods) {
+
+		Set<Class<?>> stateClasses = new LinkedHashSet<>();
+		addHierarchy(benchmarkClass, stateClasses);
+
+		for (BenchmarkMethod method : methods) {
+
+			addHierarchy(method.getDeclaringClass(), stateClasses);
+
+			for (Class<?> parameterType : method.getMethod().getParameterTypes()) {
+				addHierarchy(parameterType, stateClasses);
+			}
+		}
+
+		Set<Class<?>> dependencies = new LinkedHashSet<>(stateClasses);
+
+		for (Class<?> stateClass : stateClasses) {
+			for (Field field : StateClass.create(stateClass).getParametrizedFields()) {
+				if (field.getType().isEnum()) {
+					dependencies.add(field.getType());
+				}
+			}
+		}
+
+		return dependencies;
+	}
+
+	private static void addHierarchy(Class<?> type, Set<Class<?>> classes) {
+
+		for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+			classes.add(current);
+		}
+	}
+
+	private boolean isUnchanged(String className) {
+
+		return verified.computeIfAbsent(className, key -> {
+
+			Fingerprint recorded = fingerprints.get(key);
+			Fingerprint current = fingerprint(key, recorded);
+
+			if (recorded == null || current == null || !recorded.hash.equals(current.hash)) {
+				return false;
+			}
+
+			if (recorded.size != current.size || recorded.lastModified != current.lastModified) {
+				fingerprints.put(key, current);
+				dirty = true;
+			}
+
+			return true;
+		});
+	}
+
+	private Fingerprint fingerprint(String className) {
+		return fingerprint(className, null);
+	}
+
+	/**
+	 * Compute the fingerprint of a class file. The content hash is reused from {@code recorded} if size and modification
+	 * time did not change.
+	 *
+	 * @return the fingerprint or {@literal null} if the class is not loaded from a file or JAR file.
+	 */
+	private Fingerprint fingerprint(String className, Fingerprint recorded) {
+
+		URL resource = classLoader.getResource(className.replace('.', '/') + ".class");
+
+		if (resource == null) {
+			return null;
+		}
+
+		try {
+
+			if (resource.getProtocol().equals("file")) {
+
+				File classFile = new File(resource.toURI());
+				long size = classFile.length();
+				long lastModified = classFile.lastModified();
+
+				if (recorded != null && recorded.size == size && recorded.lastModified == lastModified) {
+					return recorded;
+				}
+
+				return new Fingerprint(size, lastModified, hash(resource));
+			}
+
+			if (resource.getProtocol().equals("jar")) {
+
+				File jar = new File(((JarURLConnection) resource.openConnection()).getJarFileURL().toURI());
+				return new Fingerprint(jar.length(), jar.lastModified(),
+						jar.getName() + ":" + jar.length() + ":" + jar.lastModified());
+			}
+		} catch (Exception e) {
+			return null;
+		}
+
+		return null;
+	}
+
+	private static String hash(URL resource) throws IOException {
+
+		MessageDigest digest;
+
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+		try (InputStream in = resource.openStream()) {
+
+			byte[] buffer = new byte[8192];
+			int read;
+
+			while ((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		}
+
+		StringBuilder hash = new StringBuilder();
+
+		for (byte b : digest.digest()) {
+			hash.append(String.format("%02x", b));
+		}
+
+		return hash.toString();
+	}
+
+	private void read(DataInputStream in) throws IOException {
+
+		if (in.readInt() != VERSION) {
+			return;
+		}
+
+		int fingerprintCount = in.readInt();
+
+		for (int i = 0; i < fingerprintCount; i++) {
+			fingerprints.put(in.readUTF(), new Fingerprint(in.readLong(), in.readLong(), in.readUTF()));
+		}
+
+		int entryCount = in.readInt();
+
+		for (int i = 0; i < entryCount; i++) {
+			entries.put(in.readUTF(), Entry.read(in));
+		}
+	}
+
+	private void write(DataOutputStream out) throws IOException {
+
+		Set<String> referenced = new LinkedHashSet<>();
+		entries.values().forEach(it -> referenced.addAll(it.dependencies));
+		referenced.retainAll(fingerprints.keySet());
+
+		out.writeInt(VERSION);
+		out.writeInt(referenced.size());
+
+		for (String className : referenced) {
+
+			Fingerprint fingerprint = fingerprints.get(className);
+
+			out.writeUTF(className);
+			out.writeLong(fingerprint.size);
+			out.writeLong(fingerprint.lastModified);
+			out.writeUTF(fingerprint.hash);
+		}
+
+		out.writeInt(entries.size());
+
+		for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+			out.writeUTF(entry.getKey());
+			entry.getValue().write(out);
+		}
+	}
+
+	private static List<String> readStrings(DataInputStream in) throws IOException {
+
+		int count = in.readInt();
+		List<String> strings = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			strings.add(in.readUTF());
+		}
+
+		return strings;
+	}
+
+	private static void writeStrings(DataOutputStream out, Collection<String> strings) throws IOException {
+
+		out.writeInt(strings.size());
+
+		for (String string : strings) {
+			out.writeUTF(string);
+		}
+	}
+
+	/**
+	 * Fingerprint of a class file.
+	 */
+	private static class Fingerprint {
+
+		final long size;
+		final long lastModified;
+		final String hash;
+
+		Fingerprint(long size, long lastModified, String hash) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * Cached discovery result of a benchmark class.
+	 */
+	private static class Entry {
+
+		final List<String> dependencies;
+		final List<CachedMethod> methods;
+
+		Entry(List<String> dependencies, List<CachedMethod> methods) {
+			this.dependencies = dependencies;
+			this.methods = methods;
+		}
+
+		static Entry create(List<String> dependencies, Map<BenchmarkMethod, List<BenchmarkArgument>> methods) {
+
+			List<CachedMethod> cachedMethods = new ArrayList<>(methods.size());
+			methods.forEach((method, arguments) -> cachedMethods.add(CachedMethod.create(method.getMethod(), arguments)));
+
+			return new Entry(dependencies, cachedMethods);
+		}
+
+		static Entry read(DataInputStream in) throws IOException {
+
+			List<String> dependencies = readStrings(in);
+			int methodCount = in.readInt();
+			List<CachedMethod> methods = new ArrayList<>(methodCount);
+
+			for (int i = 0; i < methodCount; i++) {
+				methods.add(CachedMethod.read(in));
+			}
+
+			return new Entry(dependencies, methods);
+		}
+
+		void write(DataOutputStream out) throws IOException {
+
+			writeStrings(out, dependencies);
+			out.writeInt(methods.size());
+
+			for (CachedMethod method : methods) {
+				method.write(out);
+			}
+		}
+
+		Map<BenchmarkMethod, List<BenchmarkArgument>> resolve(ClassLoader classLoader)
+				throws ReflectiveOperationException {
+
+			Map<BenchmarkMethod, List<BenchmarkArgument>> resolved = new LinkedHashMap<>();
+
+			for (CachedMethod method : methods) {
+				resolved.put(new BenchmarkMethod(method.resolve(classLoader)), method.arguments);
+			}
+
+			return resolved;
+		}
+	}
+
+	/**
+	 * Benchmark method signature along with its {@code @Param} arguments.
+	 */
+	private static class CachedMethod {
+
+		final String declaringClass;
+		final String name;
+		final List<String> parameterTypes;
+		final List<BenchmarkArgument> arguments;
+
+		CachedMethod(String declaringClass, String name, List<String> parameterTypes, List<BenchmarkArgument> arguments) {
+			this.declaringClass = declaringClass;
+			this.name = name;
+			this.parameterTypes = parameterTypes;
+			this.arguments = arguments;
+		}
+
+		static CachedMethod create(Method method, List<BenchmarkArgument> arguments) {
+
+			List<String> parameterTypes = new ArrayList<>();
+
+			for (Class<?> parameterType : method.getParameterTypes()) {
+				parameterTypes.add(parameterType.getName());
+			}
+
+			return new CachedMethod(method.getDeclaringClass().getName(), method.getName(), parameterTypes, arguments);
+		}
+
+		static CachedMethod read(DataInputStream in) throws IOException {
+
+			String declaringClass = in.readUTF();
+			String name = in.readUTF();
+			List<String> parameterTypes = readStrings(in);
+			int argumentCount = in.readInt();
+			List<BenchmarkArgument> arguments = new ArrayList<>(argumentCount);
+
+			for (int i = 0; i < argumentCount; i++) {
+
+				BenchmarkArgument argument = new BenchmarkArgument(in.readUTF());
+				argument.getParameters().addAll(readStrings(in));
+				arguments.add(argument);
+			}
+
+			return new CachedMethod(declaringClass, name, parameterTypes, arguments);
+		}
+
+		void write(DataOutputStream out) throws IOException {
+
+			out.writeUTF(declaringClass);
+			out.writeUTF(name);
+			writeStrings(out, parameterTypes);
+			out.writeInt(arguments.size());
+
+			for (BenchmarkArgument argument : arguments) {
+				out.writeUTF(argument.getName());
+				writeStrings(out, argument.getParameters());
+			}
+		}
+
+		Method resolve(ClassLoader classLoader) throws ReflectiveOperationException {
+
+			Class<?>[] types = new Class<?>[parameterTypes.size()];
+
+			for (int i = 0; i < types.length; i++) {
+				types[i] = Class.forName(parameterTypes.get(i), false, classLoader);
+			}
+
+			return Class.forName(declaringClass, false, classLoader).getDeclaredMethod(name, types);
+		}
+	}
+}
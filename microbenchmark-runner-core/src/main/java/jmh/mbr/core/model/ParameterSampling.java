@@ -0,0 +1,387 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Strategy to select a representative subset of parameter combinations instead of the full cartesian product.
+ * Combinations are encoded as ordinals of the product where the last parameter varies fastest. Sampling is
+ * deterministic so that repeated discovery yields the same fixtures.
+ */
+public abstract class ParameterSampling {
+
+	private static final ParameterSampling ALL = new ParameterSampling("all") {
+
+		@Override
+		long[] sample(int[] radices) {
+
+			long[] ordinals = new long[Math.toIntExact(getCombinations(radices))];
+
+			for (int i = 0; i < ordinals.length; i++) {
+				ordinals[i] = i;
+			}
+
+			return ordinals;
+		}
+	};
+
+	private final String name;
+
+	private ParameterSampling(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @return {@link ParameterSampling} that selects all combinations.
+	 */
+	public static ParameterSampling all() {
+		return ALL;
+	}
+
+	/**
+	 * @return {@link ParameterSampling} that selects combinations so that each pair of values of any two parameters is
+	 *         covered at least once.
+	 */
+	public static ParameterSampling pairwise() {
+		return new Pairwise();
+	}
+
+	/**
+	 * Create a {@link ParameterSampling} that spreads {@code samples} combinations evenly across the value range of each
+	 * parameter.
+	 *
+	 * @param samples number of samples, must be greater than zero.
+	 * @return the latin hypercube {@link ParameterSampling}.
+	 */
+	public static ParameterSampling latinHypercube(int samples) {
+		return new LatinHypercube(samples);
+	}
+
+	/**
+	 * Create a {@link ParameterSampling} that selects {@code samples} distinct combinations at random.
+	 *
+	 * @param samples number of samples, must be greater than zero.
+	 * @param seed random seed to keep the selection reproducible.
+	 * @return the random {@link ParameterSampling}.
+	 */
+	public static ParameterSampling random(int samples, long seed) {
+		return new RandomSampling(samples, seed);
+	}
+
+	/**
+	 * Parse a sampling specification: {@code all}, {@code pairwise}, {@code latin-hypercube:N} or
+	 * {@code random:N[:seed]}.
+	 *
+	 * @param spec the specification, can be {@literal null}.
+	 * @return the {@link ParameterSampling}. {@link #all()} if {@code spec} is empty.
+	 * @throws IllegalArgumentException if the specification is invalid.
+	 */
+	public static ParameterSampling parse(String spec) {
+
+		if (spec == null || spec.trim().isEmpty() || spec.trim().equals("all")) {
+			return all();
+		}
+
+		String[] parts = spec.trim().split(":");
+
+		try {
+			switch (parts[0]) {
+				case "pairwise":
+					if (parts.length == 1) {
+						return pairwise();
+					}
+					break;
+				case "latin-hypercube":
+					if (parts.length == 2) {
+						return latinHypercube(Integer.parseInt(parts[1]));
+					}
+					break;
+				case "random":
+					if (parts.length == 2 || parts.length == 3) {
+						return random(Integer.parseInt(parts[1]), parts.length == 3 ? Long.parseLong(parts[2]) : 0);
+					}
+					break;
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("Invalid parameter sampling '%s'", spec), e);
+		}
+
+		throw new IllegalArgumentException(String.format(
+				"Invalid parameter sampling '%s', expected all, pairwise, latin-hypercube:N or random:N:seed", spec));
+	}
+
+	/**
+	 * @return {@literal true} if this sampling selects all combinations.
+	 */
+	public boolean isAll() {
+		return this == ALL;
+	}
+
+	/**
+	 * Select combinations of parameter values.
+	 *
+	 * @param radices number of values per parameter.
+	 * @return ordinals of the selected combinations in ascending order.
+	 */
+	abstract long[] sample(int[] radices);
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	static long getCombinations(int[] radices) {
+
+		long combinations = radices.length == 0 ? 0 : 1;
+
+		for (int radix : radices) {
+			combinations = Math.multiplyExact(combinations, radix);
+		}
+
+		return combinations;
+	}
+
+	private static long encode(int[] radices, int[] indexes) {
+
+		long ordinal = 0;
+
+		for (int i = 0; i < radices.length; i++) {
+			ordinal = ordinal * radices[i] + indexes[i];
+		}
+
+		return ordinal;
+	}
+
+	private static long[] toArray(TreeSet<Long> ordinals) {
+		return ordinals.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	private static int requirePositive(int samples) {
+
+		if (samples < 1) {
+			throw new IllegalArgumentException("Number of samples must be greater than zero");
+		}
+
+		return samples;
+	}
+
+	/**
+	 * Greedy pairwise coverage: each combination starts with an uncovered pair and completes the remaining parameters
+	 * with the values that cover most uncovered pairs.
+	 */
+	static class Pairwise extends ParameterSampling {
+
+		Pairwise() {
+			super("pairwise");
+		}
+
+		@Override
+		long[] sample(int[] radices) {
+
+			int k = radices.length;
+
+			if (k < 3 || getCombinations(radices) == 0) {
+				return ALL.sample(radices);
+			}
+
+			boolean[][][] covered = new boolean[k][k][];
+			int uncovered = 0;
+
+			for (int i = 0; i < k; i++) {
+				for (int j = i + 1; j < k; j++) {
+					covered[i][j] = new boolean[radices[i] * radices[j]];
+					uncovered += covered[i][j].length;
+				}
+			}
+
+			TreeSet<Long> ordinals = new TreeSet<>();
+
+			while (uncovered > 0) {
+
+				int[] combination = new int[k];
+				boolean[] assigned = new boolean[k];
+
+				seed(radices, covered, combination, assigned);
+
+				for (int p = 0; p < k; p++) {
+					if (!assigned[p]) {
+						combination[p] = bestValue(radices, covered, combination, assigned, p);
+						assigned[p] = true;
+					}
+				}
+
+				for (int i = 0; i < k; i++) {
+					for (int j = i + 1; j < k; j++) {
+
+						int pair = combination[i] * radices[j] + combination[j];
+
+						if (!covered[i][j][pair]) {
+							covered[i][j][pair] = true;
+							uncovered--;
+						}
+					}
+				}
+
+				ordinals.add(encode(radices, combination));
+			}
+
+			return toArray(ordinals);
+		}
+
+		/**
+		 * Assign the first uncovered pair.
+		 */
+		private static void seed(int[] radices, boolean[][][] covered, int[] combination, boolean[] assigned) {
+
+			for (int i = 0; i < radices.length; i++) {
+				for (int j = i + 1; j < radices.length; j++) {
+					for (int pair = 0; pair < covered[i][j].length; pair++) {
+
+						if (!covered[i][j][pair]) {
+
+							combination[i] = pair / radices[j];
+							combination[j] = pair % radices[j];
+							assigned[i] = assigned[j] = true;
+							return;
+						}
+					}
+				}
+			}
+		}
+
+		private static int bestValue(int[] radices, boolean[][][] covered, int[] combination, boolean[] assigned, int p) {
+
+			int best = 0;
+			int bestGain = -1;
+
+			for (int value = 0; value < radices[p]; value++) {
+
+				int gain = 0;
+
+				for (int q = 0; q < radices.length; q++) {
+
+					if (!assigned[q]) {
+						continue;
+					}
+
+					boolean pairCovered = q < p ? covered[q][p][combination[q] * radices[p] + value]
+							: covered[p][q][value * radices[q] + combination[q]];
+
+					if (!pairCovered) {
+						gain++;
+					}
+				}
+
+				if (gain > bestGain) {
+					best = value;
+					bestGain = gain;
+				}
+			}
+
+			return best;
+		}
+	}
+
+	/**
+	 * Latin hypercube sampling: the value range of each parameter is divided into one stratum per sample and each
+	 * stratum is used exactly once.
+	 */
+	static class LatinHypercube extends ParameterSampling {
+
+		private final int samples;
+
+		LatinHypercube(int samples) {
+			super("latin-hypercube:" + samples);
+			this.samples = requirePositive(samples);
+		}
+
+		@Override
+		long[] sample(int[] radices) {
+
+			if (getCombinations(radices) == 0) {
+				return new long[0];
+			}
+
+			Random random = new Random(0);
+			int[][] strata = new int[radices.length][samples];
+
+			for (int p = 0; p < radices.length; p++) {
+
+				for (int i = 0; i < samples; i++) {
+					strata[p][i] = i;
+				}
+
+				for (int i = samples - 1; i > 0; i--) {
+
+					int j = random.nextInt(i + 1);
+					int stratum = strata[p][i];
+					strata[p][i] = strata[p][j];
+					strata[p][j] = stratum;
+				}
+			}
+
+			TreeSet<Long> ordinals = new TreeSet<>();
+
+			for (int s = 0; s < samples; s++) {
+
+				int[] combination = new int[radices.length];
+
+				for (int p = 0; p < radices.length; p++) {
+					combination[p] = (int) ((long) strata[p][s] * radices[p] / samples);
+				}
+
+				ordinals.add(encode(radices, combination));
+			}
+
+			return toArray(ordinals);
+		}
+	}
+
+	/**
+	 * Uniform random sampling without replacement using Floyd's algorithm.
+	 */
+	static class RandomSampling extends ParameterSampling {
+
+		private final int samples;
+		private final long seed;
+
+		RandomSampling(int samples, long seed) {
+			super("random:" + samples + ":" + seed);
+			this.samples = requirePositive(samples);
+			this.seed = seed;
+		}
+
+		@Override
+		long[] sample(int[] radices) {
+
+			long combinations = getCombinations(radices);
+
+			if (combinations <= samples) {
+				return ALL.sample(radices);
+			}
+
+			Random random = new Random(seed);
+			TreeSet<Long> ordinals = new TreeSet<>();
+
+			for (long j = combinations - samples; j < combinations; j++) {
+
+				long candidate = j < Integer.MAX_VALUE ? random.nextInt((int) j + 1) : Math.floorMod(random.nextLong(), j + 1);
+
+				if (!ordinals.add(candidate)) {
+					ordinals.add(j);
+				}
+			}
+
+			return toArray(ordinals);
+		}
+	}
+}
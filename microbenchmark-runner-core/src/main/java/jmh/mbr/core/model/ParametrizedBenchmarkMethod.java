@@ -20,8 +20,11 @@ import java.util.List;
 @EqualsAndHashCode(callSuper = true)
 public class ParametrizedBenchmarkMethod extends HierarchicalBenchmarkDescriptor implements MethodAware {
 
-	ParametrizedBenchmarkMethod(BenchmarkMethod descriptor, List<BenchmarkFixture> children) {
+	@EqualsAndHashCode.Exclude private final BenchmarkFixtures fixtures;
+
+	ParametrizedBenchmarkMethod(BenchmarkMethod descriptor, BenchmarkFixtures children) {
 		super(descriptor, children);
+		this.fixtures = children;
 	}
 
 	@Override
@@ -34,6 +37,13 @@ public class ParametrizedBenchmarkMethod extends HierarchicalBenchmarkDescriptor
 		return (List) super.getChildren();
 	}
 
+	/**
+	 * @return the compact {@link BenchmarkFixtures} backing {@link #getChildren()}.
+	 */
+	public BenchmarkFixtures getFixtures() {
+		return fixtures;
+	}
+
 	@Override
 	public Method getMethod() {
 		return getDescriptor().getMethod();
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import jmh.mbr.core.AdaptiveMeasurement.DeferringOutputFormat;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Unit tests for {@link AdaptiveMeasurement}.
+ */
+class AdaptiveMeasurementUnitTests {
+
+	AdaptiveMeasurement measurement = new AdaptiveMeasurement(0.05, 100);
+
+	@Test
+	void shouldConsiderStableResultConverged() {
+		assertThat(measurement.isConverged(runResult(100, 100.1, 99.9, 100))).isTrue();
+	}
+
+	@Test
+	void shouldConsiderNoisyResultNotConverged() {
+		assertThat(measurement.isConverged(runResult(50, 150, 100, 80))).isFalse();
+	}
+
+	@Test
+	void shouldConsiderSingleIterationNotConverged() {
+		assertThat(measurement.isConverged(runResult(100))).isFalse();
+	}
+
+	@Test
+	void shouldRunAdditionalRoundsInBenchmarkMode() {
+
+		OptionsBuilder options = new OptionsBuilder();
+		options.mode(Mode.AverageTime);
+
+		assertThat(measurement.createRoundOptions(options.build(), runResult(100)).getBenchModes())
+				.containsExactly(Mode.Throughput);
+	}
+
+	@Test
+	void shouldReportFailedRoundOnCompletion() {
+
+		List<String> calls = new ArrayList<>();
+		OutputFormat recording = (OutputFormat) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { OutputFormat.class }, (proxy, method, args) -> {
+					calls.add(method.getName() + (args != null && args[0] instanceof String ? ":" + args[0] : ""));
+					return null;
+				});
+
+		RunResult result = runResult(100, 150);
+		DeferringOutputFormat output = new DeferringOutputFormat(recording);
+
+		output.startBenchmark(result.getParams());
+		output.endBenchmark(result.getAggregatedResult());
+		output.suppressLifecycle();
+
+		output.startBenchmark(result.getParams());
+		output.println(BenchmarkFailure.MARKER);
+		output.println("java.lang.IllegalStateException: boom");
+		output.endBenchmark(null);
+
+		assertThat(calls).containsExactly("startBenchmark");
+
+		output.complete(Collections.singletonList(result));
+
+		assertThat(calls).containsExactly("startBenchmark", "println:" + BenchmarkFailure.MARKER,
+				"println:java.lang.IllegalStateException: boom", "endBenchmark", "endRun");
+	}
+
+	private static RunResult runResult(double... scores) {
+		return TestBenchmarks.runResult(TestBenchmarks.params().measurement(5, TimeValue.seconds(1)).build(), scores);
+	}
+}
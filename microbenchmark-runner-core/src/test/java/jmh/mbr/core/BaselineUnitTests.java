@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.BenchmarkResult;
+
+/**
+ * Unit tests for {@link Baseline}.
+ */
+class BaselineUnitTests {
+
+	static final String JSON = "[ { \"benchmark\" : \"com.example.Foo.exec\", \"mode\" : \"thrpt\", \"threads\" : 1, "
+			+ "\"forks\" : 1, \"params\" : { }, \"primaryMetric\" : { \"score\" : 100.0, \"scoreError\" : 1.0, "
+			+ "\"scoreConfidence\" : [ 99.0, 101.0 ], \"scoreUnit\" : \"ops/ms\", \"rawData\" : [ [ 99.5, 100.5, 100.0, 99.8, 100.2 ], [ 100.1, 99.9, 100.3, 99.7, 100.0 ] ] }, "
+			+ "\"secondaryMetrics\" : { } } ]";
+
+	Baseline baseline = Baseline.from(JSON, 0.05);
+
+	@Test
+	void shouldReportSignificantRegression() {
+
+		BenchmarkResult result = result("com.example.Foo.exec", 80, 80.1, 79.9, 80.2, 79.8, 80, 80.3, 79.7, 80.1, 79.9);
+
+		assertThat(baseline.compare(result)).hasValueSatisfying(it -> {
+
+			assertThat(it.getRegression()).isCloseTo(0.2, offset(0.01));
+			assertThat(it.getExpected()).startsWith("100.000 ± 1.000 ops/ms");
+			assertThat(it.getMessage()).contains("com.example.Foo.exec regressed by 20.0%");
+		});
+	}
+
+	@Test
+	void shouldIgnoreInsignificantRegression() {
+		assertThat(baseline.compare(result("com.example.Foo.exec", 60, 120))).isEmpty();
+	}
+
+	@Test
+	void shouldAcceptImprovement() {
+		assertThat(baseline.compare(result("com.example.Foo.exec", 120, 120.1, 119.9))).isEmpty();
+	}
+
+	@Test
+	void shouldTolerateRegressionWithinThreshold() {
+		assertThat(baseline.compare(result("com.example.Foo.exec", 98, 98.1, 97.9))).isEmpty();
+	}
+
+	@Test
+	void shouldIgnoreBenchmarksWithoutBaseline() {
+		assertThat(baseline.compare(result("com.example.Bar.exec", 10, 10.1, 9.9))).isEmpty();
+	}
+
+	@Test
+	void shouldMatchRunDimensions() {
+
+		Baseline baseline = Baseline.from(JSON.replace("\"params\" : { }", "\"params\" : { \"jvm\" : \"/opt/jdk8/bin/java\" }"),
+				0.05);
+		double[] scores = { 80, 80.1, 79.9, 80.2, 79.8, 80, 80.3, 79.7, 80.1, 79.9 };
+
+		assertThat(baseline.compare(result("com.example.Foo.exec", TimeUnit.MILLISECONDS,
+				Collections.singletonMap(JmhSupport.JVM_DIMENSION, "/opt/jdk8/bin/java"), scores))).isPresent();
+		assertThat(baseline.compare(result("com.example.Foo.exec", TimeUnit.MILLISECONDS,
+				Collections.singletonMap(JmhSupport.JVM_DIMENSION, "/opt/jdk11/bin/java"), scores))).isEmpty();
+		assertThat(baseline.compare(result("com.example.Foo.exec", scores))).isEmpty();
+	}
+
+	@Test
+	void shouldConvertBaselineUnit() {
+
+		BenchmarkResult result = result("com.example.Foo.exec", TimeUnit.SECONDS, Collections.emptyMap(), 80_000,
+				80_100, 79_900, 80_200, 79_800, 80_000, 80_300, 79_700, 80_100, 79_900);
+
+		assertThat(baseline.compare(result)).hasValueSatisfying(it -> {
+
+			assertThat(it.getRegression()).isCloseTo(0.2, offset(0.01));
+			assertThat(it.getExpected()).startsWith("100000.000 ± 1000.000 ops/s");
+		});
+	}
+
+	@Test
+	void shouldRejectIncompatibleBaselineUnit() {
+
+		Baseline baseline = Baseline.from(JSON.replace("ops/ms", "ms/op"), 0.05);
+
+		assertThat(baseline.compare(result("com.example.Foo.exec", 100, 100.1, 99.9))).hasValueSatisfying(
+				it -> assertThat(it.getMessage()).contains("baseline unit ms/op does not match ops/ms"));
+	}
+
+	@Test
+	void shouldFallBackToConfidenceIntervalsForFewSamples() {
+
+		Baseline baseline = Baseline.from(JSON.replace(", 100.2 ], [ 100.1, 99.9, 100.3, 99.7, 100.0", ""), 0.05);
+
+		assertThat(ResultComparison.create().isSignificanceReachable(4, 4)).isFalse();
+		assertThat(baseline.compare(result("com.example.Foo.exec", 80, 80.1, 79.9, 80.2))).isPresent();
+	}
+
+	private static BenchmarkResult result(String benchmark, double... scores) {
+		return result(benchmark, TimeUnit.MILLISECONDS, Collections.emptyMap(), scores);
+	}
+
+	private static BenchmarkResult result(String benchmark, TimeUnit timeUnit, Map<String, String> parameters,
+			double... scores) {
+
+		TestBenchmarks.ParamsBuilder params = TestBenchmarks.params().benchmark(benchmark).timeUnit(timeUnit);
+		parameters.forEach(params::param);
+
+		return TestBenchmarks.benchmarkResult(params.build(), scores);
+	}
+}
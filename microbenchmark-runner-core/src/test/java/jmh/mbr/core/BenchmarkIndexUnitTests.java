@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link BenchmarkIndex}.
+ */
+class BenchmarkIndexUnitTests {
+
+	@Test
+	void shouldResolveFixtureRegardlessOfParameterOrder() {
+
+		BenchmarkIndex<String> index = new BenchmarkIndex<>();
+		index.addMethod("com.example.Bench.foo", "method");
+
+		for (int i = 0; i < 1000; i++) {
+
+			Map<String, Object> fixture = new LinkedHashMap<>();
+			fixture.put("size", i);
+			fixture.put("mode", "fast");
+			index.addFixture("com.example.Bench.foo", fixture, "fixture-" + i);
+		}
+
+		Map<String, String> lookup = new LinkedHashMap<>();
+		lookup.put("mode", "fast");
+		lookup.put("size", "42");
+
+		assertThat(index.hasFixtures("com.example.Bench.foo")).isTrue();
+		assertThat(index.getFixture("com.example.Bench.foo", lookup)).isEqualTo("fixture-42");
+		assertThat(index.getMethod("com.example.Bench.foo")).isEqualTo("method");
+	}
+
+	@Test
+	void shouldNotResolveUnknownFixture() {
+
+		BenchmarkIndex<String> index = new BenchmarkIndex<>();
+		index.addMethod("com.example.Bench.foo", "method");
+
+		Map<String, String> lookup = new LinkedHashMap<>();
+		lookup.put("size", "42");
+
+		assertThat(index.hasFixtures("com.example.Bench.foo")).isFalse();
+		assertThat(index.getFixture("com.example.Bench.foo", lookup)).isNull();
+		assertThatIllegalArgumentException().isThrownBy(() -> index.getMethod("com.example.Bench.bar"));
+	}
+}
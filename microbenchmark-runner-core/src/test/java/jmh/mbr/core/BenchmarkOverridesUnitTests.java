@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Unit tests for {@link BenchmarkOverrides}.
+ */
+class BenchmarkOverridesUnitTests {
+
+	@Test
+	void shouldApplyClassOverrides() {
+
+		Properties properties = new Properties();
+		properties.setProperty("com.example.*Benchmark.forks", "1");
+
+		BenchmarkOverrides overrides = BenchmarkOverrides.from(properties);
+
+		assertThat(overrides.getOverrides("com.example.FooBenchmark.bar")).containsEntry("forks", "1");
+		assertThat(overrides.getOverrides("com.example.Foo.bar")).isEmpty();
+	}
+
+	@Test
+	void shouldPreferMethodOverrides() {
+
+		Properties properties = new Properties();
+		properties.setProperty("com.example.Foo#parse*.measurementIterations", "20");
+		properties.setProperty("com.example.*.measurementIterations", "5");
+		properties.setProperty("com.example.*.param.size", "10,100");
+
+		BenchmarkOverrides overrides = BenchmarkOverrides.from(properties);
+
+		assertThat(overrides.getOverrides("com.example.Foo.parseJson")).containsEntry("measurementIterations", "20")
+				.containsEntry("param.size", "10,100");
+		assertThat(overrides.getOverrides("com.example.Foo.write")).containsEntry("measurementIterations", "5");
+		assertThat(overrides.getParameters("com.example.Foo.write")).containsEntry("size", Arrays.asList("10", "100"));
+	}
+
+	@Test
+	void shouldApplyOverridesToOptions() {
+
+		Properties properties = new Properties();
+		properties.setProperty("com.example.Foo.measurementTime", "100ms");
+		properties.setProperty("com.example.Foo.jvmArgs", "-Xmx1g -Dfoo=bar");
+		properties.setProperty("com.example.Foo.param.size", "10, 100");
+
+		BenchmarkOverrides overrides = BenchmarkOverrides.from(properties);
+
+		Options options = BenchmarkOverrides
+				.apply(new OptionsBuilder(), overrides.getOverrides("com.example.Foo.bar")).build();
+
+		assertThat(options.getMeasurementTime().get().toString()).isEqualTo("100 ms");
+		assertThat(options.getJvmArgsAppend().get()).containsExactly("-Xmx1g", "-Dfoo=bar");
+		assertThat(options.getParameter("size").get()).containsExactly("10", "100");
+	}
+
+	@Test
+	void shouldRejectUnknownOption() {
+
+		Properties properties = new Properties();
+		properties.setProperty("com.example.Foo.unknown", "1");
+
+		assertThatIllegalArgumentException().isThrownBy(() -> BenchmarkOverrides.from(properties));
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Unit tests for {@link ChangeImpact}.
+ */
+class ChangeImpactUnitTests {
+
+	static final String BENCHMARK = SimpleBenchmark.class.getName() + ".run";
+
+	@Test
+	void shouldResolveStateClassesFromBenchmarkSignature() throws IOException {
+
+		assertThat(ChangeImpact.getReferencedClasses(read(SimpleBenchmark.class)))
+				.contains(SimpleState.class.getName().replace('.', '/'), "org/openjdk/jmh/annotations/Benchmark");
+	}
+
+	@Test
+	void shouldSelectBenchmarksWithoutRecordedState() throws IOException {
+
+		File file = File.createTempFile("change-impact", ".properties");
+		file.delete();
+
+		assertThat(ChangeImpact.load(file, getClass().getClassLoader()).isChanged(BENCHMARK)).isTrue();
+	}
+
+	@Test
+	void shouldSkipUnchangedBenchmarks() throws IOException {
+
+		File file = File.createTempFile("change-impact", ".properties");
+
+		try {
+
+			ChangeImpact changeImpact = ChangeImpact.load(file, getClass().getClassLoader());
+			changeImpact.record(BENCHMARK, "1.000 ops/s");
+			changeImpact.save();
+
+			ChangeImpact reloaded = ChangeImpact.load(file, getClass().getClassLoader());
+
+			assertThat(reloaded.isChanged(BENCHMARK)).isFalse();
+			assertThat(reloaded.getSkipReason(BENCHMARK)).endsWith("1.000 ops/s");
+			assertThat(Files.readAllLines(file.toPath())).anySatisfy(it -> assertThat(it).startsWith("hash."));
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	void shouldRecordPassingBenchmarksOnly() throws IOException {
+
+		File file = File.createTempFile("change-impact", ".properties");
+		String failing = SimpleState.class.getName() + ".run";
+
+		try {
+
+			ChangeImpact changeImpact = ChangeImpact.load(file, getClass().getClassLoader());
+			changeImpact.record(failing, "1.000 ops/s");
+			changeImpact.record(Arrays.asList(result(BENCHMARK), result(failing)), Collections.singleton(failing),
+					FixtureSelection.none());
+
+			ChangeImpact reloaded = ChangeImpact.load(file, getClass().getClassLoader());
+
+			assertThat(reloaded.isChanged(BENCHMARK)).isFalse();
+			assertThat(reloaded.isChanged(failing)).isTrue();
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	void shouldNotRecordPartialRuns() throws IOException {
+
+		File file = File.createTempFile("change-impact", ".properties");
+		String overridden = SimpleState.class.getName() + ".run";
+
+		Properties properties = new Properties();
+		properties.setProperty(SimpleState.class.getName() + ".param.size", "10");
+
+		try {
+
+			ChangeImpact changeImpact = ChangeImpact.load(file, getClass().getClassLoader(),
+					BenchmarkOverrides.from(properties));
+			changeImpact.record(Arrays.asList(result(BENCHMARK), result(overridden)), Collections.emptyList(),
+					FixtureSelection.none().and(BENCHMARK, Collections.emptyList()));
+
+			ChangeImpact reloaded = ChangeImpact.load(file, getClass().getClassLoader());
+
+			assertThat(reloaded.isChanged(BENCHMARK)).isTrue();
+			assertThat(reloaded.isChanged(overridden)).isTrue();
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	void shouldConsiderAllBenchmarksChangedIfDisabled() {
+		assertThat(ChangeImpact.none().isChanged(BENCHMARK)).isTrue();
+	}
+
+	private static RunResult result(String benchmark) {
+		return TestBenchmarks.runResult(TestBenchmarks.params().benchmark(benchmark).timeUnit(TimeUnit.SECONDS).build(), 1);
+	}
+
+	private static byte[] read(Class<?> type) throws IOException {
+
+		try (InputStream in = type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class")) {
+
+			byte[] bytes = new byte[8192];
+			int length = 0;
+			int read;
+
+			while ((read = in.read(bytes, length, bytes.length - length)) > 0) {
+				length += read;
+			}
+
+			return Arrays.copyOf(bytes, length);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class SimpleState {
+
+		int value;
+	}
+
+	public static class SimpleBenchmark {
+
+		@Benchmark
+		public int run(SimpleState state) {
+			return state.value;
+		}
+	}
+}
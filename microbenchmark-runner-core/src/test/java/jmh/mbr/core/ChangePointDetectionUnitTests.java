@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+
+import jmh.mbr.core.ChangePointDetection.ChangePoint;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ChangePointDetection}.
+ */
+class ChangePointDetectionUnitTests {
+
+	ChangePointDetection detection = ChangePointDetection.create();
+	Random random = new Random(1);
+
+	@Test
+	void shouldDetectShift() {
+
+		double[] series = new double[40];
+		for (int i = 0; i < series.length; i++) {
+			series[i] = (i < 25 ? 100 : 120) + random.nextGaussian() * 2;
+		}
+
+		List<ChangePoint> changePoints = detection.detect(series);
+
+		assertThat(changePoints).hasSize(1);
+		assertThat(changePoints.get(0).getIndex()).isEqualTo(25);
+		assertThat(changePoints.get(0).getMagnitude()).isCloseTo(0.2, offset(0.02));
+		assertThat(changePoints.get(0).getConfidence()).isGreaterThan(0.95);
+	}
+
+	@Test
+	void shouldIgnoreSingleOutlier() {
+
+		double[] series = new double[40];
+		for (int i = 0; i < series.length; i++) {
+			series[i] = 100 + random.nextGaussian() * 2;
+		}
+		series[17] = 130;
+
+		assertThat(detection.detect(series)).isEmpty();
+	}
+
+	@Test
+	void shouldIgnoreShortSeries() {
+		assertThat(detection.detect(new double[] { 100, 100, 200, 200 })).isEmpty();
+	}
+}
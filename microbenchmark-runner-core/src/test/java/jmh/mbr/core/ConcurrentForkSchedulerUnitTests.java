@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import jmh.mbr.core.ConcurrentForkScheduler.CpuSets;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ConcurrentForkScheduler}.
+ */
+class ConcurrentForkSchedulerUnitTests {
+
+	@Test
+	void shouldHandOutDisjointCpuSets() throws InterruptedException {
+
+		CpuSets cpuSets = new CpuSets(new int[] { 0, 1, 2, 3 });
+
+		assertThat(cpuSets.acquire(1)).containsExactly(0);
+		assertThat(cpuSets.acquire(2)).containsExactly(1, 2);
+		assertThat(cpuSets.acquire(1)).containsExactly(3);
+	}
+
+	@Test
+	void shouldReuseReleasedCpuSets() throws InterruptedException {
+
+		CpuSets cpuSets = new CpuSets(new int[] { 0, 1, 2, 3 });
+
+		int[] first = cpuSets.acquire(2);
+		cpuSets.acquire(2);
+		cpuSets.release(first);
+
+		assertThat(cpuSets.acquire(2)).containsExactly(0, 1);
+	}
+
+	@Test
+	void shouldLimitCpuSetToAvailableCpus() throws InterruptedException {
+		assertThat(new CpuSets(new int[] { 0, 1 }).acquire(8)).containsExactly(0, 1);
+	}
+
+	@Test
+	void shouldHandOutAllowedCpus() throws InterruptedException {
+
+		CpuSets cpuSets = new CpuSets(new int[] { 8, 9, 12, 13 });
+
+		int[] first = cpuSets.acquire(3);
+		cpuSets.release(first);
+
+		assertThat(first).containsExactly(8, 9, 12);
+		assertThat(cpuSets.acquire(4)).containsExactly(8, 9, 12, 13);
+	}
+
+	@Test
+	void shouldReadAllowedCpus() throws IOException {
+
+		Path status = Files.createTempFile("status", "");
+
+		try {
+
+			Files.write(status, Arrays.asList("Name:\tjava", "Cpus_allowed:\tf0f", "Cpus_allowed_list:\t0-3,8-11"));
+
+			assertThat(ConcurrentForkScheduler.getAllowedCpus(status, 16)).containsExactly(0, 1, 2, 3, 8, 9, 10, 11);
+			assertThat(ConcurrentForkScheduler.getAllowedCpus(status, 5)).containsExactly(0, 1, 2, 3, 8);
+			assertThat(ConcurrentForkScheduler.getAllowedCpus(status.resolveSibling("missing"), 2)).containsExactly(0, 1);
+		} finally {
+			Files.delete(status);
+		}
+	}
+
+	@Test
+	void shouldParseCpuList() {
+		assertThat(ConcurrentForkScheduler.parseCpuList("2,4-6,10")).containsExactly(2, 4, 5, 6, 10);
+	}
+}
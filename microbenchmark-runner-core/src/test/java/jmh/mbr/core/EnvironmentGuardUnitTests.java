@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link EnvironmentGuard}.
+ */
+class EnvironmentGuardUnitTests {
+
+	Path root;
+
+	@BeforeEach
+	void before() throws IOException {
+		root = Files.createTempDirectory("environment-guard");
+	}
+
+	@Test
+	void shouldConsiderQuietEnvironment() throws IOException {
+
+		write("proc/loadavg", "0.10 0.20 0.30 1/100 1234");
+		write("sys/devices/system/cpu/cpu0/cpufreq/scaling_governor", "performance");
+		write("sys/devices/system/cpu/cpu0/cpufreq/scaling_cur_freq", "3000000");
+		write("sys/devices/system/cpu/cpu0/cpufreq/cpuinfo_max_freq", "3000000");
+
+		assertThat(new EnvironmentGuard(root, false, 4).check(0)).isEmpty();
+	}
+
+	@Test
+	void shouldReportNoisyEnvironment() throws IOException {
+
+		write("proc/loadavg", "3.50 0.20 0.30 1/100 1234");
+		write("sys/devices/system/cpu/cpu0/cpufreq/scaling_governor", "powersave");
+		write("sys/devices/system/cpu/intel_pstate/no_turbo", "0");
+
+		assertThat(new EnvironmentGuard(root, false, 4).check(0)).hasSize(3)
+				.anySatisfy(it -> assertThat(it).startsWith("Load average 3.50"))
+				.anySatisfy(it -> assertThat(it).contains("powersave"))
+				.anySatisfy(it -> assertThat(it).contains("Turbo boost"));
+	}
+
+	@Test
+	void shouldConsiderBenchmarkThreadsInLoadAverage() throws IOException {
+
+		write("proc/loadavg", "3.50 0.20 0.30 1/100 1234");
+
+		assertThat(new EnvironmentGuard(root, false, 4).check(4)).isEmpty();
+	}
+
+	@Test
+	void shouldReportSwapActivity() throws IOException {
+
+		write("proc/loadavg", "0.10 0.20 0.30 1/100 1234");
+		write("proc/vmstat", "pswpin 10\npswpout 10\n");
+
+		EnvironmentGuard guard = new EnvironmentGuard(root, false, 4);
+		assertThat(guard.check(0)).isEmpty();
+
+		write("proc/vmstat", "pswpin 15\npswpout 10\n");
+		assertThat(guard.check(0)).containsExactly("Swap activity detected (5 pages)");
+	}
+
+	@Test
+	void shouldSkipChecksWithoutProcFilesystem() {
+		assertThat(new EnvironmentGuard(root, true, 4).check(0)).isEmpty();
+	}
+
+	@Test
+	void shouldExcludeDescendantsOfHostJvm() {
+
+		Map<String, String> parents = new HashMap<>();
+		parents.put("100", "1");
+		parents.put("101", "100");
+		parents.put("102", "101");
+		parents.put("103", "102");
+		parents.put("200", "1");
+
+		assertThat(EnvironmentGuard.getDescendants(parents, "100")).containsExactlyInAnyOrder("100", "101", "102", "103");
+	}
+
+	private void write(String path, String content) throws IOException {
+
+		Path file = root.resolve(path);
+		Files.createDirectories(file.getParent());
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+	}
+}
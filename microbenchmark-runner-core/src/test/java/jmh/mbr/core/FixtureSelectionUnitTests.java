@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jmh.mbr.core.model.BenchmarkFixture;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link FixtureSelection}.
+ */
+class FixtureSelectionUnitTests {
+
+	@Test
+	void shouldCollapseCompleteGrid() {
+
+		List<Map<String, String>> combinations = new ArrayList<>();
+
+		for (String size : Arrays.asList("10", "100")) {
+			for (String type : Arrays.asList("a", "b", "c")) {
+				combinations.add(fixture("size", size, "type", type));
+			}
+		}
+
+		assertThat(FixtureSelection.partition(combinations)).hasSize(1).first()
+				.isEqualTo(grid("size", Arrays.asList("10", "100"), "type", Arrays.asList("a", "b", "c")));
+	}
+
+	@Test
+	void shouldPartitionIntoDisjointGrids() {
+
+		List<Map<String, String>> combinations = Arrays.asList(fixture("size", "10", "type", "a"),
+				fixture("size", "10", "type", "b"), fixture("size", "100", "type", "c"));
+
+		assertThat(FixtureSelection.partition(combinations)).containsExactly(
+				grid("size", Collections.singletonList("10"), "type", Arrays.asList("a", "b")),
+				grid("size", Collections.singletonList("100"), "type", Collections.singletonList("c")));
+	}
+
+	@Test
+	void shouldResolveParameterGridsOfRunVariant() {
+
+		FixtureSelection selection = FixtureSelection.none().and("com.example.Benchmark.run",
+				Arrays.asList(BenchmarkFixture.create("size", "10").enhance("threads", "1"),
+						BenchmarkFixture.create("size", "100").enhance("threads", "2")));
+
+		assertThat(selection.isRestricted("com.example.Benchmark.run")).isTrue();
+		assertThat(selection.isRestricted("com.example.Benchmark.other")).isFalse();
+		assertThat(selection.getFixtureCount("com.example.Benchmark.run")).isEqualTo(2);
+
+		assertThat(selection.getParameterGrids("com.example.Benchmark.run", Collections.singletonMap("threads", "2")))
+				.containsExactly(Collections.singletonMap("size", Collections.singletonList("100")));
+		assertThat(selection.getParameterGrids("com.example.Benchmark.run", Collections.singletonMap("threads", "4")))
+				.isEmpty();
+	}
+
+	private static Map<String, String> fixture(String key1, String value1, String key2, String value2) {
+
+		Map<String, String> fixture = new LinkedHashMap<>();
+		fixture.put(key1, value1);
+		fixture.put(key2, value2);
+
+		return fixture;
+	}
+
+	private static Map<String, List<String>> grid(String key1, List<String> values1, String key2, List<String> values2) {
+
+		Map<String, List<String>> grid = new LinkedHashMap<>();
+		grid.put(key1, values1);
+		grid.put(key2, values2);
+
+		return grid;
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Unit tests for {@link ForkPrelauncher}.
+ */
+class ForkPrelauncherUnitTests {
+
+	@Test
+	void shouldRunForksThroughLauncher() throws Exception {
+
+		assumeTrue(ForkPrelauncher.isSupported());
+
+		Options options = new OptionsBuilder().jvm("/bin/echo").build();
+
+		try (ForkPrelauncher prelauncher = ForkPrelauncher.create(options)) {
+
+			String jvm = prelauncher.apply(options).getJvm().get();
+
+			assertThat(jvm).endsWith("launch.sh");
+			assertThat(run(jvm, "-version")).isEqualTo("-version\n");
+		}
+	}
+
+	@Test
+	void shouldPropagateExitStatusOfPrelaunchedFork() throws Exception {
+
+		assumeTrue(ForkPrelauncher.isSupported());
+
+		Path jvm = Files.createTempFile("jvm", ".sh");
+		Files.write(jvm, String.join("\n", //
+				"#!/bin/bash", //
+				"[ \"${@: -3:1}\" = " + PrelaunchedFork.class.getName() + " ] || exit 0", //
+				"touch \"${@: -2:1}\"", //
+				"read line < \"${@: -1}\"", //
+				"[ \"$line\" = exit ] && exit 0", //
+				"echo \"fork $line\"", //
+				"exit 3", //
+				"").getBytes(StandardCharsets.UTF_8));
+		jvm.toFile().setExecutable(true);
+
+		Options options = new OptionsBuilder().jvm(jvm.toString()).build();
+
+		try (ForkPrelauncher prelauncher = ForkPrelauncher.create(options)) {
+
+			String launcher = prelauncher.apply(options).getJvm().get();
+			String[] fork = { launcher, "-Xmx64m", "org.openjdk.jmh.runner.ForkedMain", "localhost", "1234" };
+
+			// no parked JVM yet, parks one for the next fork
+			assertThat(new ProcessBuilder(fork).start().waitFor()).isZero();
+
+			awaitParked(Paths.get(launcher).getParent());
+
+			Process process = new ProcessBuilder(fork).start();
+
+			assertThat(read(process)).isEqualTo("fork localhost 1234\n");
+			assertThat(process.waitFor()).isEqualTo(3);
+		} finally {
+			Files.delete(jvm);
+		}
+	}
+
+	@Test
+	void shouldQuoteJvm() {
+
+		assertThat(ForkPrelauncher.createScript("/opt/it's/java", "/tmp/jmh")).contains("JAVA='/opt/it'\\''s/java'")
+				.contains("DIR='/tmp/jmh'");
+	}
+
+	private static void awaitParked(Path directory) throws InterruptedException, IOException {
+
+		for (int i = 0; i < 100; i++) {
+
+			try (Stream<Path> files = Files.walk(directory)) {
+				if (files.anyMatch(it -> it.getParent().getFileName().toString().startsWith("ready-"))) {
+					return;
+				}
+			}
+
+			Thread.sleep(50);
+		}
+
+		throw new IllegalStateException("No JVM parked");
+	}
+
+	private static String run(String... command) throws Exception {
+
+		Process process = new ProcessBuilder(command).start();
+		String output = read(process);
+
+		process.waitFor();
+
+		return output;
+	}
+
+	private static String read(Process process) throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (InputStream in = process.getInputStream()) {
+
+			byte[] buffer = new byte[1024];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+		}
+
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
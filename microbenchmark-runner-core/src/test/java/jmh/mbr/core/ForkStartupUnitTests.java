@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Unit tests for {@link ForkStartup}.
+ */
+class ForkStartupUnitTests {
+
+	@Test
+	void shouldNotChangeInProcessOptions() {
+
+		Options options = new OptionsBuilder().forks(0).build();
+
+		try (ForkStartup forkStartup = new ForkStartup()) {
+
+			assertThat(forkStartup.prepare(options)).isSameAs(options);
+			assertThat(System.getProperty("jmh.separateClasspathJAR")).isNull();
+		}
+	}
+
+	@Test
+	void shouldRestoreSeparateClasspathJarProperty() {
+
+		Options options = new OptionsBuilder().forks(1).build();
+
+		try (ForkStartup forkStartup = new ForkStartup()) {
+
+			forkStartup.prepare(options);
+
+			assertThat(System.getProperty("jmh.separateClasspathJAR")).isEqualTo("true");
+		}
+
+		assertThat(System.getProperty("jmh.separateClasspathJAR")).isNull();
+	}
+}
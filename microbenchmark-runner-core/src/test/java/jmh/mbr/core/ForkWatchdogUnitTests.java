@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Unit tests for {@link ForkWatchdog}.
+ */
+class ForkWatchdogUnitTests {
+
+	Path proc;
+
+	@BeforeEach
+	void before() throws IOException {
+		proc = Files.createTempDirectory("proc");
+	}
+
+	@Test
+	void shouldComputeDeadlineFromIterations() {
+
+		ForkWatchdog watchdog = new ForkWatchdog(proc, 3);
+
+		// (1 minute allowance + 5 * 10s warmup + 5 * 10s measurement) * 3 per fork
+		assertThat(watchdog.getDeadline(params(Mode.Throughput))).isEqualTo((60_000 + 100_000) * 3);
+	}
+
+	@Test
+	void shouldComputeSingleShotDeadlineFromTimeout() {
+
+		ForkWatchdog watchdog = new ForkWatchdog(proc, 1);
+
+		// 1 minute allowance + 10 iterations * 10 minutes timeout per fork
+		assertThat(watchdog.getDeadline(params(Mode.SingleShotTime))).isEqualTo(60_000 + 10 * 600_000);
+	}
+
+	@Test
+	void shouldDetectFirstIterationOfFork() {
+
+		BenchmarkParams throughput = params(Mode.Throughput);
+		BenchmarkParams singleShot = params(Mode.SingleShotTime);
+
+		assertThat(ForkWatchdog.isFirstIteration(throughput, throughput.getWarmup(), 1)).isTrue();
+		assertThat(ForkWatchdog.isFirstIteration(throughput, throughput.getWarmup(), 2)).isFalse();
+		assertThat(ForkWatchdog.isFirstIteration(throughput, throughput.getMeasurement(), 1)).isFalse();
+		assertThat(ForkWatchdog.isFirstIteration(singleShot, singleShot.getMeasurement(), 1)).isTrue();
+	}
+
+	@Test
+	void shouldRejectFactorBelowOne() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new ForkWatchdog(proc, 0.5));
+	}
+
+	@Test
+	void shouldFindForksOfHostJvm() throws IOException {
+
+		Path prelaunch = Files.createDirectories(proc.resolve("prelaunch"));
+		Files.write(prelaunch.resolve("102.fork"), "200\n".getBytes(StandardCharsets.UTF_8));
+
+		process(100, 1, "java", "-jar", "host.jar");
+		Files.createSymbolicLink(proc.resolve("self"), Paths.get("100"));
+
+		process(101, 100, "/usr/bin/java", "-Xmx1g", ForkWatchdog.FORKED_MAIN, "127.0.0.1", "5000");
+		process(102, 100, "/bin/bash", prelaunch.resolve(ForkPrelauncher.LAUNCHER).toString(), ForkWatchdog.FORKED_MAIN,
+				"127.0.0.1", "5001");
+		process(103, 100, "sh", "-c", "java");
+		process(104, 103, "/usr/bin/java", ForkWatchdog.FORKED_MAIN, "127.0.0.1", "5002");
+		process(105, 1, "/usr/bin/java", ForkWatchdog.FORKED_MAIN, "127.0.0.1", "5003");
+		process(106, 101, "/usr/bin/java", ForkWatchdog.FORKED_MAIN, "127.0.0.1", "5004");
+
+		assertThat(new ForkWatchdog(proc, 3).findForks()).containsExactlyInAnyOrder(101L, 200L, 104L);
+	}
+
+	private void process(long pid, long parent, String... commandLine) throws IOException {
+
+		Path process = Files.createDirectories(proc.resolve(Long.toString(pid)));
+		String name = Paths.get(commandLine[0]).getFileName().toString();
+
+		Files.write(process.resolve("stat"),
+				String.format("%d (%s (x)) S %d %d 0 0", pid, name, parent, pid).getBytes(StandardCharsets.UTF_8));
+		Files.write(process.resolve("cmdline"), (String.join("\0", commandLine) + "\0").getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static BenchmarkParams params(Mode mode) {
+
+		return TestBenchmarks.params().mode(mode).forks(2).warmup(mode == Mode.SingleShotTime ? 0 : 5, TimeValue.seconds(10))
+				.measurement(mode == Mode.SingleShotTime ? 10 : 5, TimeValue.seconds(10)).jvm("java")
+				.timeout(TimeValue.minutes(10)).build();
+	}
+}
@@ -10,8 +10,10 @@
 package jmh.mbr.core;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.infra.BenchmarkParams;
@@ -20,6 +22,7 @@ import org.openjdk.jmh.results.BenchmarkResult;
 import org.openjdk.jmh.results.IterationResult;
 import org.openjdk.jmh.results.RunResult;
 import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.options.TimeValue;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -66,6 +69,126 @@ class JmhSupportUnitTests {
 		assertThat(FooResultWriter.written).isTrue();
 	}
 
+	@Test
+	void shouldParseProfilers() {
+
+		System.setProperty("profilers", "gc, stack:lines=5,");
+
+		try {
+			assertThat(new JmhSupport().getProfilers()).containsExactly("gc", "stack:lines=5");
+		} finally {
+			System.clearProperty("profilers");
+		}
+	}
+
+	@Test
+	void shouldRetainSubSecondTimes() {
+
+		System.setProperty("measurementTime", "100ms");
+		System.setProperty("warmupTime", "2");
+
+		try {
+			assertThat(new JmhSupport().getMeasurementTimeValue()).isEqualTo(TimeValue.milliseconds(100));
+			assertThat(new JmhSupport().getWarmupTimeValue()).isEqualTo(TimeValue.seconds(2));
+			assertThat(new JmhSupport().getWarmupTime()).isEqualTo(2);
+		} finally {
+			System.clearProperty("measurementTime");
+			System.clearProperty("warmupTime");
+		}
+	}
+
+	@Test
+	void shouldResolveJvmArgsMatrixFixture() {
+
+		System.setProperty("jvmArgsMatrix", "-XX:+UseG1GC; -XX:+UseParallelGC  -XX:-UseCompressedOops;");
+
+		try {
+
+			JmhSupport support = new JmhSupport();
+			BenchmarkParams params = RewritingOutputFormat.withParameters(
+					params("java", "-Xmx1g", "-XX:+UseParallelGC", "-XX:-UseCompressedOops"),
+					Collections.singletonMap(JmhSupport.JVM_ARGS_DIMENSION, "-XX:+UseParallelGC -XX:-UseCompressedOops"));
+
+			assertThat(support.getJvmArgsMatrix()).containsExactly("-XX:+UseG1GC",
+					"-XX:+UseParallelGC -XX:-UseCompressedOops", "");
+			assertThat(support.getFixture(params)).containsEntry(JmhSupport.JVM_ARGS_DIMENSION,
+					"-XX:+UseParallelGC -XX:-UseCompressedOops");
+		} finally {
+			System.clearProperty("jvmArgsMatrix");
+		}
+	}
+
+	@Test
+	void shouldResolveJvmFixtureFromRunVariant() {
+
+		System.setProperty("jvms", "/opt/jdk17/bin/java, /opt/jdk21/bin/java,");
+
+		try {
+
+			JmhSupport support = new JmhSupport();
+			List<BenchmarkParams> started = new ArrayList<>();
+			OutputFormat recording = new RewritingOutputFormat(SilentOutputFormat.INSTANCE, params -> {
+				started.add(params);
+				return params;
+			});
+			OutputFormat output = new RewritingOutputFormat(recording, params -> RewritingOutputFormat
+					.withParameters(params, Collections.singletonMap(JmhSupport.JVM_DIMENSION, "/opt/jdk21/bin/java")));
+
+			// forks started through a launcher script report the script as JVM
+			output.startBenchmark(params("/tmp/jmh-prelaunch/launch.sh"));
+
+			assertThat(support.getJvms()).containsExactly("/opt/jdk17/bin/java", "/opt/jdk21/bin/java");
+			assertThat(support.getRunDimensions()).containsKey(JmhSupport.JVM_DIMENSION);
+			assertThat(support.getFixture(started.get(0))).containsEntry(JmhSupport.JVM_DIMENSION,
+					"/opt/jdk21/bin/java");
+		} finally {
+			System.clearProperty("jvms");
+		}
+	}
+
+	@Test
+	void shouldDropJvmDimensionsWithoutForks() {
+
+		System.setProperty("jvms", "/opt/jdk17/bin/java,/opt/jdk21/bin/java");
+		System.setProperty("jvmArgsMatrix", "-XX:+UseG1GC;-XX:+UseParallelGC");
+		System.setProperty("threadsSweep", "1,2");
+
+		try {
+
+			System.setProperty("inProcess", "true");
+			assertThat(new JmhSupport().getRunDimensions()).containsOnlyKeys(JmhSupport.THREADS_DIMENSION);
+
+			System.clearProperty("inProcess");
+			System.setProperty("forks", "0");
+			assertThat(new JmhSupport().getRunDimensions()).containsOnlyKeys(JmhSupport.THREADS_DIMENSION);
+
+			System.setProperty("forks", "1");
+			assertThat(new JmhSupport().getRunDimensions()).containsOnlyKeys(JmhSupport.JVM_DIMENSION,
+					JmhSupport.THREADS_DIMENSION, JmhSupport.JVM_ARGS_DIMENSION);
+		} finally {
+			System.clearProperty("jvms");
+			System.clearProperty("jvmArgsMatrix");
+			System.clearProperty("threadsSweep");
+			System.clearProperty("inProcess");
+			System.clearProperty("forks");
+		}
+	}
+
+	@Test
+	void shouldTagResultsWithParameters() {
+
+		RunResult result = new RunResult(params("java"), Collections.emptyList());
+		RunResult tagged = JmhSupport.withParameters(result,
+				Collections.singletonMap(IsolatedExecution.EXECUTION_PARAMETER, IsolatedExecution.IN_PROCESS));
+
+		assertThat(tagged.getParams().getParam(IsolatedExecution.EXECUTION_PARAMETER)).isEqualTo("in-process");
+		assertThat(tagged.getParams().getBenchmark()).isEqualTo("com.example.Foo.exec");
+	}
+
+	private static BenchmarkParams params(String jvm, String... jvmArgs) {
+		return TestBenchmarks.params().jvm(jvm, jvmArgs).build();
+	}
+
 	static class FooResultWriter implements ResultsWriter {
 
 		static boolean written = false;
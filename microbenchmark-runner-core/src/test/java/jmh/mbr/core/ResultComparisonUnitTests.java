@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Collections;
+
+import jmh.mbr.core.ResultComparison.Comparison;
+import jmh.mbr.core.ResultComparison.Verdict;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ResultComparison}.
+ */
+class ResultComparisonUnitTests {
+
+	static final double[] BASELINE = { 100, 101, 99, 100.5, 99.5, 100.2, 99.8, 100.1, 99.9, 100 };
+	static final double[] SLOWER = { 90, 91, 89, 90.5, 89.5, 90.2, 89.8, 90.1, 89.9, 90 };
+
+	ResultComparison comparison = new ResultComparison(0.01, 0.99, 1000, 0);
+
+	@Test
+	void shouldComputeMannWhitneyPValue() {
+
+		double[] x = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+		double[] y = { 11, 12, 13, 14, 15, 16, 17, 18, 19, 20 };
+
+		assertThat(ResultComparison.mannWhitneyU(x, y)).isCloseTo(1.57e-4, offset(1e-5));
+		assertThat(ResultComparison.mannWhitneyU(x, x)).isCloseTo(1, offset(1e-6));
+	}
+
+	@Test
+	void shouldComputeCliffsDelta() {
+
+		assertThat(ResultComparison.cliffsDelta(BASELINE, SLOWER)).isEqualTo(-1);
+		assertThat(ResultComparison.cliffsDelta(BASELINE, BASELINE)).isBetween(-0.1, 0.1);
+	}
+
+	@Test
+	void shouldClassifyThroughputDecreaseAsRegression() {
+
+		Comparison result = comparison.compare("foo", Collections.emptyMap(), true, BASELINE, SLOWER);
+
+		assertThat(result.getVerdict()).isEqualTo(Verdict.REGRESSED);
+		assertThat(result.getRatio()).isCloseTo(0.9, offset(0.001));
+		assertThat(result.getRatioLow()).isLessThan(result.getRatio());
+		assertThat(result.getRatioHigh()).isGreaterThan(result.getRatio()).isLessThan(1);
+	}
+
+	@Test
+	void shouldClassifyTimeDecreaseAsImprovement() {
+		assertThat(comparison.compare("foo", Collections.emptyMap(), false, BASELINE, SLOWER).getVerdict())
+				.isEqualTo(Verdict.IMPROVED);
+	}
+
+	@Test
+	void shouldClassifyNoiseAsUnchanged() {
+
+		double[] noisy = { 100.3, 99.6, 100.1, 99.9, 100.4, 99.7, 100, 100.2, 99.8, 100.1 };
+
+		assertThat(comparison.compare("foo", Collections.emptyMap(), true, BASELINE, noisy).getVerdict())
+				.isEqualTo(Verdict.UNCHANGED);
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.AverageTimeResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.ResultRole;
+import org.openjdk.jmh.runner.IterationType;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Unit tests for {@link ResultUtils}.
+ */
+class ResultUtilsUnitTests {
+
+	@Test
+	void shouldRenderMeasurementProgress() {
+
+		IterationParams params = new IterationParams(IterationType.MEASUREMENT, 10, TimeValue.seconds(1), 1);
+
+		assertThat(ResultUtils.getIterationProgress(params, 3, result(params))).containsEntry("iteration", "3/10")
+				.containsEntry("phase", "measurement").containsEntry("score", "2.000").containsEntry("unit", "ms/op");
+	}
+
+	@Test
+	void shouldRenderWarmupProgress() {
+
+		IterationParams params = new IterationParams(IterationType.WARMUP, 5, TimeValue.seconds(1), 1);
+
+		assertThat(ResultUtils.getIterationProgress(params, 1, result(params))).containsEntry("iteration", "1/5")
+				.containsEntry("phase", "warmup");
+	}
+
+	private static IterationResult result(IterationParams params) {
+
+		IterationResult result = new IterationResult(null, params, null);
+		result.addResult(new AverageTimeResult(ResultRole.PRIMARY, "foo", 1, 2_000_000, TimeUnit.MILLISECONDS));
+		return result;
+	}
+}
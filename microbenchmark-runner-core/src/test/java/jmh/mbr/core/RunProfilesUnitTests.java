@@ -0,0 +1,43 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RunProfiles}.
+ */
+class RunProfilesUnitTests {
+
+	RunProfiles profiles = RunProfiles.load(getClass().getClassLoader());
+
+	@Test
+	void shouldProvideBuiltInProfiles() {
+
+		assertThat(profiles.getProperty("smoke", "warmupIterations")).isEqualTo("0");
+		assertThat(profiles.getProperty("smoke", "measurementTime")).isEqualTo("100ms");
+		assertThat(profiles.getProperty("thorough", "forks")).isEqualTo("3");
+	}
+
+	@Test
+	void shouldLoadProfilesFromClasspath() {
+
+		assertThat(profiles.containsProfile("custom")).isTrue();
+		assertThat(profiles.getProperty("custom", "benchmarkMode")).isEqualTo("avgt");
+		assertThat(profiles.getProperty("dev", "forks")).isEqualTo("2");
+	}
+
+	@Test
+	void shouldRejectUnknownProfile() {
+		assertThatIllegalArgumentException().isThrownBy(() -> profiles.getProperty("unknown", "forks"));
+	}
+}
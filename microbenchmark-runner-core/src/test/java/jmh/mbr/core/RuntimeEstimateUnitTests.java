@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jmh.mbr.core.RuntimeEstimate.Benchmark;
+import jmh.mbr.core.RuntimeEstimate.ForkTimingOutputFormat;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Unit tests for {@link RuntimeEstimate}.
+ */
+class RuntimeEstimateUnitTests {
+
+	// 4 fixtures, 5 forks, 5 warmup and 5 measurement iterations of 10 seconds each
+	Benchmark benchmark = new Benchmark("com.example.Foo.exec", Mode.Throughput, 4, 5, 0, 5, 10_000, 5, 10_000);
+
+	@Test
+	void shouldEstimateDuration() {
+
+		RuntimeEstimate estimate = new RuntimeEstimate(Collections.singletonList(benchmark), 1000, false);
+
+		assertThat(estimate.getDuration()).isEqualTo(4 * 5 * (1000 + 100_000));
+		assertThat(estimate.getIterationTime()).isEqualTo(4 * 5 * 100_000);
+		assertThat(estimate.getFixtureCount()).isEqualTo(4);
+		assertThat(estimate.getForkCount()).isEqualTo(20);
+		assertThat(estimate.toString()).isEqualTo("33m 40s (1 benchmarks, 4 fixtures, 20 forks)");
+		assertThat(estimate.getOverrides("com.example.Foo.exec", Mode.Throughput)).isEmpty();
+	}
+
+	@Test
+	void shouldEstimateRunWithoutForks() {
+
+		Benchmark inProcess = new Benchmark("com.example.Foo.exec", Mode.Throughput, 2, 0, 0, 1, 1000, 2, 1000);
+		RuntimeEstimate estimate = new RuntimeEstimate(Collections.singletonList(inProcess), 1000, false);
+
+		assertThat(estimate.getDuration()).isEqualTo(6000);
+		assertThat(estimate.getForkCount()).isZero();
+	}
+
+	@Test
+	void shouldKeepEstimateWithinBudget() {
+
+		RuntimeEstimate estimate = new RuntimeEstimate(Collections.singletonList(benchmark), 1000, false);
+
+		assertThat(estimate.fitTo(TimeValue.hours(1))).isSameAs(estimate);
+	}
+
+	@Test
+	void shouldScaleToBudget() {
+
+		RuntimeEstimate estimate = new RuntimeEstimate(Arrays.asList(benchmark,
+				new Benchmark("com.example.Bar.exec", Mode.Throughput, 1, 2, 0, 10, 1000, 10, 1000)), 1000, false);
+
+		RuntimeEstimate scaled = estimate.fitTo(TimeValue.minutes(10));
+
+		assertThat(scaled.isScaled()).isTrue();
+		assertThat(scaled.getDuration()).isLessThanOrEqualTo(600_000).isGreaterThan(300_000);
+		assertThat(scaled.getOverrides("com.example.Foo.exec", Mode.Throughput)).containsOnlyKeys("forks",
+				"warmupForks", "warmupIterations", "measurementIterations");
+		assertThat(Integer.parseInt(scaled.getOverrides("com.example.Foo.exec", Mode.Throughput).get("forks")))
+				.isBetween(1, 4);
+		assertThat(scaled.getOverrides("com.example.Unknown.exec", Mode.Throughput)).isEmpty();
+	}
+
+	@Test
+	void shouldScaleModesIndependently() {
+
+		RuntimeEstimate estimate = new RuntimeEstimate(Arrays.asList(benchmark,
+				new Benchmark("com.example.Foo.exec", Mode.SingleShotTime, 4, 5, 0, 0, 0, 100, 0)), 1000, false);
+
+		RuntimeEstimate scaled = estimate.fitTo(TimeValue.minutes(10));
+
+		assertThat(scaled.getOverrides("com.example.Foo.exec", Mode.Throughput)).containsEntry("measurementIterations",
+				"5");
+		assertThat(scaled.getOverrides("com.example.Foo.exec", Mode.SingleShotTime))
+				.containsEntry("measurementIterations", "100");
+		assertThat(scaled.getOverrides("com.example.Foo.exec", Mode.AverageTime)).isEmpty();
+	}
+
+	@Test
+	void shouldDropWarmupForksFirst() {
+
+		RuntimeEstimate estimate = new RuntimeEstimate(Collections.singletonList(
+				new Benchmark("com.example.Foo.exec", Mode.Throughput, 1, 1, 3, 0, 0, 1, 10_000)), 1000, false);
+
+		RuntimeEstimate scaled = estimate.fitTo(TimeValue.seconds(20));
+
+		assertThat(scaled.getForkCount()).isEqualTo(1);
+		assertThat(scaled.getOverrides("com.example.Foo.exec", Mode.Throughput)).containsEntry("forks", "1")
+				.containsEntry("warmupForks", "0").containsEntry("measurementIterations", "1");
+	}
+
+	@Test
+	void shouldRejectRunExceedingBudget() {
+
+		RuntimeEstimate estimate = new RuntimeEstimate(Collections.singletonList(benchmark), 1000, false);
+
+		assertThatIllegalStateException().isThrownBy(() -> estimate.fitTo(TimeValue.seconds(30)))
+				.withMessageContaining("exceeds the time budget of 30s");
+	}
+
+	@Test
+	void shouldRecordForkStartup() throws IOException {
+
+		File file = new File(Files.createTempDirectory("runtime").toFile(), "runtime.properties");
+		RuntimeEstimate estimate = new RuntimeEstimate(Collections.singletonList(benchmark), 1000, false);
+
+		assertThat(RuntimeEstimate.loadForkStartup(file)).isEqualTo(1000);
+
+		RuntimeEstimate.recordForkStartup(file, 3000);
+		assertThat(RuntimeEstimate.loadForkStartup(file)).isEqualTo(3000);
+
+		RuntimeEstimate.recordForkStartup(file, 1000);
+		assertThat(RuntimeEstimate.loadForkStartup(file)).isEqualTo(2000);
+	}
+
+	@Test
+	void shouldMeasureForkStartupBetweenIterations() {
+
+		BenchmarkParams params = TestBenchmarks.params().forks(2).warmup(1, TimeValue.seconds(1))
+				.measurement(1, TimeValue.seconds(1)).jvm("java").build();
+		IterationParams warmup = params.getWarmup();
+		IterationParams measurement = params.getMeasurement();
+		AtomicLong clock = new AtomicLong();
+		ForkTimingOutputFormat timing = new ForkTimingOutputFormat(JmhSupportUnitTests.SilentOutputFormat.INSTANCE,
+				clock::get);
+
+		assertThat(timing.getForkStartup()).isEqualTo(-1);
+
+		timing.startBenchmark(params);
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+		timing.iteration(params, warmup, 1);
+
+		// iterations within a fork are not accounted for
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+		timing.iterationResult(params, warmup, 1, null);
+		timing.iteration(params, measurement, 1);
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+		timing.iterationResult(params, measurement, 1, null);
+
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+		timing.iteration(params, warmup, 1);
+
+		assertThat(timing.getForkStartup()).isEqualTo(200);
+	}
+
+	@Test
+	void shouldFormatDuration() {
+
+		assertThat(RuntimeEstimate.format(1500)).isEqualTo("2s");
+		assertThat(RuntimeEstimate.format(90_000)).isEqualTo("1m 30s");
+		assertThat(RuntimeEstimate.format(9 * 3_600_000L + 5 * 60_000)).isEqualTo("9h 05m 00s");
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Unit tests for {@link ScalingEfficiency}.
+ */
+class ScalingEfficiencyUnitTests {
+
+	@Test
+	void shouldComputeThroughputEfficiency() {
+
+		RunResult one = runResult(Mode.Throughput, 1, 100);
+		RunResult four = runResult(Mode.Throughput, 4, 200);
+
+		ScalingEfficiency.apply(Arrays.asList(one, four));
+
+		assertThat(efficiency(one)).isEqualTo(1.0);
+		assertThat(efficiency(four)).isEqualTo(0.5);
+	}
+
+	@Test
+	void shouldComputeAverageTimeEfficiency() {
+
+		RunResult one = runResult(Mode.AverageTime, 1, 10);
+		RunResult two = runResult(Mode.AverageTime, 2, 40);
+
+		ScalingEfficiency.apply(Arrays.asList(one, two));
+
+		assertThat(efficiency(two)).isEqualTo(0.25);
+	}
+
+	@Test
+	void shouldNotAttachEfficiencyForSingleRun() {
+
+		RunResult one = runResult(Mode.Throughput, 1, 100);
+
+		ScalingEfficiency.apply(Collections.singletonList(one));
+
+		assertThat(one.getSecondaryResults()).doesNotContainKey(ScalingEfficiency.LABEL);
+	}
+
+	private static double efficiency(RunResult result) {
+		return result.getSecondaryResults().get(ScalingEfficiency.LABEL).getScore();
+	}
+
+	private static RunResult runResult(Mode mode, int threads, double score) {
+		return TestBenchmarks.runResult(TestBenchmarks.params().mode(mode).threads(threads).build(), score);
+	}
+}
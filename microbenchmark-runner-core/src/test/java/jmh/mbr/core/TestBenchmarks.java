@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.results.AverageTimeResult;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ResultRole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.ThroughputResult;
+import org.openjdk.jmh.runner.IterationType;
+import org.openjdk.jmh.runner.WorkloadParams;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Test utility to create {@link BenchmarkParams} and JMH results without running JMH.
+ */
+public class TestBenchmarks {
+
+	private TestBenchmarks() {}
+
+	/**
+	 * @return a builder for {@link BenchmarkParams} of {@code com.example.Foo.exec} running in {@link Mode#Throughput}
+	 *         with one thread and one fork.
+	 */
+	public static ParamsBuilder params() {
+		return new ParamsBuilder();
+	}
+
+	/**
+	 * Create a {@link RunResult} with one iteration per score.
+	 *
+	 * @param params the benchmark parameters.
+	 * @param scores primary scores in the mode and time unit of {@code params}.
+	 * @return the {@link RunResult}.
+	 */
+	public static RunResult runResult(BenchmarkParams params, double... scores) {
+		return new RunResult(params, Collections.singletonList(benchmarkResult(params, scores)));
+	}
+
+	/**
+	 * Create a {@link BenchmarkResult} with one iteration per score.
+	 *
+	 * @param params the benchmark parameters.
+	 * @param scores primary scores in the mode and time unit of {@code params}.
+	 * @return the {@link BenchmarkResult}.
+	 */
+	public static BenchmarkResult benchmarkResult(BenchmarkParams params, double... scores) {
+
+		List<IterationResult> iterations = new ArrayList<>();
+
+		for (double score : scores) {
+
+			IterationResult iteration = new IterationResult(params, params.getMeasurement(), null);
+			iteration.addResult(primaryResult(params, score));
+			iterations.add(iteration);
+		}
+
+		return new BenchmarkResult(params, iterations);
+	}
+
+	private static Result<?> primaryResult(BenchmarkParams params, double score) {
+
+		TimeUnit timeUnit = params.getTimeUnit();
+
+		if (params.getMode() == Mode.Throughput) {
+			return new ThroughputResult(ResultRole.PRIMARY, "foo", score, timeUnit.toNanos(1), timeUnit);
+		}
+
+		return new AverageTimeResult(ResultRole.PRIMARY, "foo", 1, (long) (score * timeUnit.toNanos(1)), timeUnit);
+	}
+
+	/**
+	 * Builder for {@link BenchmarkParams}.
+	 */
+	public static class ParamsBuilder {
+
+		private String benchmark = "com.example.Foo.exec";
+		private Mode mode = Mode.Throughput;
+		private int threads = 1;
+		private int forks = 1;
+		private IterationParams warmup;
+		private IterationParams measurement;
+		private final WorkloadParams workload = new WorkloadParams();
+		private TimeUnit timeUnit = TimeUnit.MILLISECONDS;
+		private String jvm = "";
+		private List<String> jvmArgs = Collections.emptyList();
+		private TimeValue timeout = TimeValue.NONE;
+
+		public ParamsBuilder benchmark(String benchmark) {
+			this.benchmark = benchmark;
+			return this;
+		}
+
+		public ParamsBuilder mode(Mode mode) {
+			this.mode = mode;
+			return this;
+		}
+
+		public ParamsBuilder threads(int threads) {
+			this.threads = threads;
+			return this;
+		}
+
+		public ParamsBuilder forks(int forks) {
+			this.forks = forks;
+			return this;
+		}
+
+		public ParamsBuilder warmup(int count, TimeValue time) {
+			this.warmup = new IterationParams(IterationType.WARMUP, count, time, 1);
+			return this;
+		}
+
+		public ParamsBuilder measurement(int count, TimeValue time) {
+			this.measurement = new IterationParams(IterationType.MEASUREMENT, count, time, 1);
+			return this;
+		}
+
+		public ParamsBuilder param(String name, String value) {
+			this.workload.put(name, value, workload.keys().size());
+			return this;
+		}
+
+		public ParamsBuilder timeUnit(TimeUnit timeUnit) {
+			this.timeUnit = timeUnit;
+			return this;
+		}
+
+		public ParamsBuilder jvm(String jvm, String... jvmArgs) {
+			this.jvm = jvm;
+			this.jvmArgs = Arrays.asList(jvmArgs);
+			return this;
+		}
+
+		public ParamsBuilder timeout(TimeValue timeout) {
+			this.timeout = timeout;
+			return this;
+		}
+
+		public BenchmarkParams build() {
+			return new BenchmarkParams(benchmark, "bar", true, threads, new int[] { threads },
+					Collections.singletonList("thread"), forks, 0, warmup, measurement, mode, workload, timeUnit, 1, jvm,
+					jvmArgs, "1.8", "JDK", "1.8", "1.21", timeout);
+		}
+	}
+}
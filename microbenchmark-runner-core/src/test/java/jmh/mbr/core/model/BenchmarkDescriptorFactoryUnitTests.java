@@ -16,6 +16,8 @@ import jmh.mbr.core.model.BenchmarkDescriptorFactoryUnitTests.BenchmarkClass.Thr
 import jmh.mbr.core.model.BenchmarkDescriptorFactoryUnitTests.BenchmarkClass.Three2;
 import jmh.mbr.core.model.BenchmarkDescriptorFactoryUnitTests.BenchmarkClass.TwoParameters;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -99,6 +101,65 @@ class BenchmarkDescriptorFactoryUnitTests {
 		assertThat(fixtures).hasSize(3);
 	}
 
+	@Test
+	void shouldCreateFixturesForRunDimensions() {
+
+		BenchmarkDescriptorFactory factory = BenchmarkDescriptorFactory.create(BenchmarkClass.class,
+				Collections.singletonMap("threads", Arrays.asList("1", "2")));
+		BenchmarkMethod single = factory.getRequiredBenchmarkMethod("single", TwoParameters.class);
+
+		List<BenchmarkFixture> fixtures = factory.createFixtures(single);
+		assertThat(fixtures).hasSize(4);
+		assertThat(fixtures.get(1).getDisplayName()).isEqualTo("[param2=1, threads=2]");
+	}
+
+	@Test
+	void shouldCreateParametrizedMethodForRunDimensions() {
+
+		BenchmarkDescriptorFactory factory = BenchmarkDescriptorFactory.create(ParametrizedBenchmarkClass.class,
+				Collections.singletonMap("threads", Arrays.asList("1", "2")));
+
+		jmh.mbr.core.model.BenchmarkClass descriptor = factory.createDescriptor();
+
+		assertThat(descriptor.getChildren()).hasSize(1).hasOnlyElementsOfType(ParametrizedBenchmarkMethod.class);
+		assertThat(((ParametrizedBenchmarkMethod) descriptor.getChildren().get(0)).getChildren()).hasSize(6);
+	}
+
+	@Test
+	void shouldSampleParametersAndExpandRunDimensions() {
+
+		BenchmarkDescriptorFactory factory = BenchmarkDescriptorFactory.create(BenchmarkClass.class,
+				Collections.singletonMap("threads", Arrays.asList("1", "2")), ParameterSampling.random(2, 0));
+		BenchmarkMethod nine = factory.getRequiredBenchmarkMethod("nine", Three1.class, Three2.class);
+
+		BenchmarkFixtures fixtures = factory.createFixtures(nine);
+
+		assertThat(fixtures.isSampled()).isTrue();
+		assertThat(fixtures).hasSize(4);
+		assertThat(fixtures.get(0).getFixture()).containsEntry("threads", "1");
+		assertThat(fixtures.get(1).getFixture()).containsEntry("threads", "2");
+		assertThat(fixtures.get(0).getFixture().get("foo")).isEqualTo(fixtures.get(1).getFixture().get("foo"));
+	}
+
+	@Test
+	void shouldApplyParameterOverrides() {
+
+		String benchmark = BenchmarkClass.class.getName() + ".nine";
+		BenchmarkDescriptorFactory factory = BenchmarkDescriptorFactory.create(BenchmarkClass.class,
+				Collections.emptyMap(), ParameterSampling.all(),
+				it -> it.equals(benchmark) ? Collections.singletonMap("foo", Arrays.asList("2", "4"))
+						: Collections.emptyMap());
+
+		BenchmarkFixtures nine = factory.createFixtures(factory.getRequiredBenchmarkMethod("nine", Three1.class,
+				Three2.class));
+		BenchmarkFixtures multi = factory.createFixtures(factory.getRequiredBenchmarkMethod("multi", OneParameter.class,
+				TwoParameters.class));
+
+		assertThat(nine).hasSize(6);
+		assertThat(nine).extracting(it -> it.getFixture().get("foo")).containsOnly("2", "4");
+		assertThat(multi).hasSize(2);
+	}
+
 	static class BenchmarkClass {
 
 		@Benchmark
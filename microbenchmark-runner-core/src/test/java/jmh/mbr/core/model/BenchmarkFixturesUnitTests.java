@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link BenchmarkFixtures}.
+ */
+class BenchmarkFixturesUnitTests {
+
+	@Test
+	void shouldEncodeFixturesWithLastArgumentVaryingFastest() {
+
+		BenchmarkFixtures fixtures = new BenchmarkFixtures(new String[] { "a", "b" },
+				new String[][] { { "1", "2" }, { "x", "y", "z" } });
+
+		assertThat(fixtures).hasSize(6);
+		assertThat(fixtures.decode(4)).containsExactly(1, 1);
+		assertThat(fixtures.encode(new int[] { 1, 1 })).isEqualTo(4);
+		assertThat(fixtures.get(4).getDisplayName()).isEqualTo("[a=2, b=y]");
+
+		Map<String, Object> expected = new LinkedHashMap<>();
+		expected.put("a", "2");
+		expected.put("b", "y");
+
+		assertThat(fixtures.get(4).getFixture()).isEqualTo(expected);
+	}
+
+	@Test
+	void shouldRepresentLargeParameterSpaceWithoutExpansion() {
+
+		String[] values = { "0", "1", "2", "3", "4", "5", "6", "7", "8", "9" };
+		BenchmarkFixtures fixtures = new BenchmarkFixtures(new String[] { "a", "b", "c", "d", "e" },
+				new String[][] { values, values, values, values, values });
+
+		assertThat(fixtures).hasSize(100_000);
+		assertThat(fixtures.getDisplayName(12345)).isEqualTo("[a=1, b=2, c=3, d=4, e=5]");
+		assertThat(fixtures.indexOf("[a=1, b=2, c=3, d=4, e=5]")).isEqualTo(12345);
+	}
+
+	@Test
+	void shouldResolveDisplayNameWithSeparatorsInValues() {
+
+		BenchmarkFixtures fixtures = new BenchmarkFixtures(new String[] { "a", "b" },
+				new String[][] { { "1", "1, b=2" }, { "2", "3]" } });
+
+		assertThat(fixtures.indexOf("[a=1, b=2]")).isEqualTo(0);
+		assertThat(fixtures.indexOf("[a=1, b=2, b=3]]")).isEqualTo(3);
+		assertThat(fixtures.indexOf("[a=3, b=2]")).isEqualTo(-1);
+		assertThat(fixtures.indexOf("a=1, b=2")).isEqualTo(-1);
+	}
+
+	@Test
+	void shouldConsiderFixturesWithSameParametersEqual() {
+
+		BenchmarkFixtures fixtures = new BenchmarkFixtures(new String[] { "a", "b" },
+				new String[][] { { "1", "2" }, { "x", "y" } });
+
+		BenchmarkFixture enhanced = BenchmarkFixture.create("a", "2").enhance("b", "x");
+
+		assertThat(enhanced).isEqualTo(fixtures.get(2)).hasSameHashCodeAs(fixtures.get(2));
+		assertThat(enhanced.getFixture()).isEqualTo(fixtures.get(2).getFixture());
+		assertThat(fixtures.get(2)).isNotEqualTo(fixtures.get(3));
+	}
+}
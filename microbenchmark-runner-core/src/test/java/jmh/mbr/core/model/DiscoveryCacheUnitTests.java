@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import jmh.mbr.core.model.BenchmarkDescriptorFactoryUnitTests.EnumParametrizedBenchmarkClass;
+import jmh.mbr.core.model.BenchmarkDescriptorFactoryUnitTests.EnumParametrizedBenchmarkClass.Sample;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link DiscoveryCache}.
+ */
+class DiscoveryCacheUnitTests {
+
+	private static final Class<?> BENCHMARK_CLASS = BenchmarkDescriptorFactoryUnitTests.BenchmarkClass.class;
+
+	@Test
+	void shouldReuseCachedDescriptorOfUnchangedClass() throws IOException {
+
+		File file = File.createTempFile("discovery-cache", ".bin");
+		file.delete();
+
+		try {
+
+			DiscoveryCache cache = DiscoveryCache.read(file, getClass().getClassLoader());
+			BenchmarkClass discovered = BenchmarkDescriptorFactory.create(BENCHMARK_CLASS).createDescriptor(cache);
+			cache.save();
+
+			assertThat(file).exists();
+
+			DiscoveryCache reloaded = DiscoveryCache.read(file, getClass().getClassLoader());
+
+			assertThat(reloaded.get(BENCHMARK_CLASS)).hasSize(5);
+
+			BenchmarkClass cached = BenchmarkDescriptorFactory.create(BENCHMARK_CLASS).createDescriptor(reloaded);
+
+			assertThat(describe(cached)).isEqualTo(describe(discovered));
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	void shouldNotFailIfCacheCannotBeWritten() throws IOException {
+
+		File parent = File.createTempFile("discovery-cache", ".bin");
+
+		try {
+
+			DiscoveryCache cache = DiscoveryCache.read(new File(parent, "cache.bin"), getClass().getClassLoader());
+			BenchmarkDescriptorFactory.create(BENCHMARK_CLASS).createDescriptor(cache);
+
+			assertThatCode(cache::save).doesNotThrowAnyException();
+			assertThat(parent.getParentFile().list((dir, name) -> name.startsWith("cache.bin"))).isEmpty();
+		} finally {
+			parent.delete();
+		}
+	}
+
+	@Test
+	void shouldRecordEnumParameterTypesAsDependencies() {
+
+		BenchmarkDescriptorFactory factory = BenchmarkDescriptorFactory.create(EnumParametrizedBenchmarkClass.class);
+		BenchmarkMethod method = factory.getRequiredBenchmarkMethod("simple");
+
+		assertThat(DiscoveryCache.getDependencies(EnumParametrizedBenchmarkClass.class,
+				Collections.singleton(method))).contains(EnumParametrizedBenchmarkClass.class, Sample.class);
+	}
+
+	@Test
+	void shouldNotCacheIfDisabled() {
+
+		DiscoveryCache.none().put(BENCHMARK_CLASS, Collections.emptyMap());
+
+		assertThat(DiscoveryCache.none().get(BENCHMARK_CLASS)).isNull();
+	}
+
+	private static List<String> describe(BenchmarkClass descriptor) {
+
+		return descriptor.getChildren().stream().map(it -> {
+
+			if (it instanceof ParametrizedBenchmarkMethod) {
+
+				ParametrizedBenchmarkMethod parametrized = (ParametrizedBenchmarkMethod) it;
+				return parametrized.getDescriptor() + " " + parametrized.getChildren().stream()
+						.map(BenchmarkFixture::getDisplayName).collect(Collectors.toList());
+			}
+
+			return it.toString();
+		}).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.core.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ParameterSampling}.
+ */
+class ParameterSamplingUnitTests {
+
+	@Test
+	void shouldParseSpecifications() {
+
+		assertThat(ParameterSampling.parse(null).isAll()).isTrue();
+		assertThat(ParameterSampling.parse("all").isAll()).isTrue();
+		assertThat(ParameterSampling.parse("pairwise")).hasToString("pairwise");
+		assertThat(ParameterSampling.parse("latin-hypercube:20")).hasToString("latin-hypercube:20");
+		assertThat(ParameterSampling.parse("random:10:42")).hasToString("random:10:42");
+		assertThat(ParameterSampling.parse("random:10")).hasToString("random:10:0");
+	}
+
+	@Test
+	void shouldRejectInvalidSpecifications() {
+
+		assertThatIllegalArgumentException().isThrownBy(() -> ParameterSampling.parse("grid"));
+		assertThatIllegalArgumentException().isThrownBy(() -> ParameterSampling.parse("random:ten"));
+		assertThatIllegalArgumentException().isThrownBy(() -> ParameterSampling.parse("latin-hypercube:0"));
+	}
+
+	@Test
+	void pairwiseShouldCoverAllValuePairs() {
+
+		int[] radices = { 3, 4, 2, 5 };
+		long[] ordinals = ParameterSampling.pairwise().sample(radices);
+
+		Set<String> pairs = new HashSet<>();
+
+		for (long ordinal : ordinals) {
+
+			int[] indexes = decode(radices, ordinal);
+
+			for (int i = 0; i < radices.length; i++) {
+				for (int j = i + 1; j < radices.length; j++) {
+					pairs.add(i + "=" + indexes[i] + "," + j + "=" + indexes[j]);
+				}
+			}
+		}
+
+		assertThat(pairs).hasSize(3 * 4 + 3 * 2 + 3 * 5 + 4 * 2 + 4 * 5 + 2 * 5);
+		assertThat(ordinals.length).isLessThan(3 * 4 * 2 * 5);
+	}
+
+	@Test
+	void pairwiseShouldReduceLargeParameterSpace() {
+
+		long[] ordinals = ParameterSampling.pairwise().sample(new int[] { 10, 10, 10, 10, 10, 10 });
+
+		assertThat(ordinals.length).isBetween(100, 200);
+	}
+
+	@Test
+	void latinHypercubeShouldUseEachValueOnce() {
+
+		int[] radices = { 5, 5, 5 };
+		long[] ordinals = ParameterSampling.latinHypercube(5).sample(radices);
+
+		assertThat(ordinals).hasSize(5);
+
+		for (int p = 0; p < radices.length; p++) {
+
+			Set<Integer> values = new HashSet<>();
+
+			for (long ordinal : ordinals) {
+				values.add(decode(radices, ordinal)[p]);
+			}
+
+			assertThat(values).hasSize(5);
+		}
+	}
+
+	@Test
+	void randomShouldBeReproducible() {
+
+		int[] radices = { 10, 10, 10 };
+
+		long[] first = ParameterSampling.random(20, 7).sample(radices);
+		long[] second = ParameterSampling.random(20, 7).sample(radices);
+
+		assertThat(first).hasSize(20).isSorted().doesNotHaveDuplicates().containsExactly(second);
+		assertThat(ParameterSampling.random(2000, 7).sample(radices)).hasSize(1000);
+	}
+
+	private static int[] decode(int[] radices, long ordinal) {
+
+		int[] indexes = new int[radices.length];
+
+		for (int i = radices.length - 1; i >= 0; i--) {
+			indexes[i] = (int) (ordinal % radices[i]);
+			ordinal /= radices[i];
+		}
+
+		return indexes;
+	}
+}
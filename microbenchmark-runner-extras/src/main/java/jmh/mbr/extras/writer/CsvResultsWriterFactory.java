@@ -21,6 +21,12 @@ public class CsvResultsWriterFactory implements ResultsWriterFactory {
 
 	@Override
 	public ResultsWriter forUri(String uri) {
+
+		// other writers use their own scheme such as history:
+		if (uri != null && !uri.isEmpty() && !uri.startsWith("csv:")) {
+			return null;
+		}
+
 		return new CsvResultsWriter(uri);
 	}
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import jmh.mbr.core.ChangePointDetection;
+import jmh.mbr.core.ResultHistory;
+import jmh.mbr.core.ResultHistory.Shift;
+import jmh.mbr.core.ResultsWriter;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+
+class HistoryResultsWriter implements ResultsWriter {
+
+	private final File directory;
+
+	public HistoryResultsWriter(String directory) {
+		this.directory = new File(directory);
+	}
+
+	@Override
+	public void write(OutputFormat output, Collection<RunResult> results) {
+
+		if (results == null || results.isEmpty()) {
+			return;
+		}
+
+		ResultHistory history;
+
+		try {
+			history = ResultHistory.load(directory);
+			String run = history.append(results);
+			output.println("Appended results to history: " + new File(directory, run));
+		} catch (Exception e) {
+
+			StringWriter trace = new StringWriter();
+			e.printStackTrace(new PrintWriter(trace));
+
+			output.println("Write failed: " + trace.toString());
+			return;
+		}
+
+		output.println(createReport(history, ChangePointDetection.create()));
+	}
+
+	static String createReport(ResultHistory history, ChangePointDetection detection) {
+
+		Map<String, List<Shift>> shifts = history.detectChangePoints(detection);
+		StringBuilder report = new StringBuilder(System.lineSeparator());
+
+		if (shifts.isEmpty()) {
+			return report.append("No change points detected across ").append(history.getRuns().size()).append(" runs")
+					.toString();
+		}
+
+		report.append("Change points across ").append(history.getRuns().size()).append(" runs:")
+				.append(System.lineSeparator());
+
+		shifts.forEach((benchmark, detected) -> {
+
+			report.append(benchmark).append(System.lineSeparator());
+			detected.forEach(it -> report.append("  ").append(it).append(System.lineSeparator()));
+		});
+
+		return report.toString();
+	}
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import jmh.mbr.core.ResultsWriter;
+import jmh.mbr.core.ResultsWriterFactory;
+
+/**
+ * A {@link ResultsWriterFactory} that appends results to a result history directory and reports change points across
+ * the history. Activated with <code>-DpublishTo=history:./path/to/directory</code>.
+ */
+public class HistoryResultsWriterFactory implements ResultsWriterFactory {
+
+	static final String PREFIX = "history:";
+
+	@Override
+	public ResultsWriter forUri(String uri) {
+		return uri != null && uri.startsWith(PREFIX) ? new HistoryResultsWriter(uri.substring(PREFIX.length())) : null;
+	}
+}
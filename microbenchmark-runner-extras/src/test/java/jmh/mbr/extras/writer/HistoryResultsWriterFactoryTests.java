@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.extras.writer;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import jmh.mbr.core.ChangePointDetection;
+import jmh.mbr.core.ResultHistory;
+import jmh.mbr.core.ResultsWriter;
+import jmh.mbr.core.TestBenchmarks;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+class HistoryResultsWriterFactoryTests {
+
+	private HistoryResultsWriterFactory factory = new HistoryResultsWriterFactory();
+
+	@Test
+	void shouldAcceptHistoryUri() {
+
+		assertThat(factory.forUri("history:target/history")).isNotNull();
+		assertThat(factory.forUri("csv:target/result.csv")).isNull();
+		assertThat(factory.forUri(null)).isNull();
+	}
+
+	@Test
+	void shouldAppendRunsAndReportChangePoints() throws IOException {
+
+		File directory = Files.createTempDirectory("history").toFile();
+		ResultHistory history = ResultHistory.load(directory);
+
+		for (int i = 0; i < 12; i++) {
+			history.append(Collections.singletonList(result(i < 6 ? 10 : 20)));
+		}
+
+		assertThat(directory.listFiles()).hasSize(12);
+
+		ResultHistory reloaded = ResultHistory.load(directory);
+		String report = HistoryResultsWriter.createReport(reloaded, ChangePointDetection.create());
+
+		assertThat(reloaded.getRuns()).hasSize(12);
+		assertThat(report).contains("Change points across 12 runs").contains("com.example.Foo.exec (avgt)")
+				.contains(reloaded.getRuns().get(6)).contains("+100.0%");
+	}
+
+	@Test
+	void shouldWriteRunToDirectory() throws IOException {
+
+		File directory = Files.createTempDirectory("history").toFile();
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		OutputFormat output = OutputFormatFactory.createFormatInstance(new PrintStream(stream), VerboseMode.NORMAL);
+
+		ResultsWriter writer = factory.forUri("history:" + directory.getPath());
+		writer.write(output, Collections.singletonList(result(10)));
+
+		assertThat(directory.listFiles()).hasSize(1);
+		assertThat(stream.toString()).contains("No change points detected across 1 runs");
+	}
+
+	private static RunResult result(double score) {
+
+		return TestBenchmarks.runResult(TestBenchmarks.params().mode(Mode.AverageTime).warmup(1, TimeValue.seconds(1))
+				.measurement(1, TimeValue.seconds(1)).jvm("java").build(), score);
+	}
+}
@@ -17,12 +17,11 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -31,6 +30,7 @@ import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import org.junit.ComparisonFailure;
 import org.junit.runner.Description;
 import org.junit.runner.manipulation.Filter;
 import org.junit.runner.manipulation.Filterable;
@@ -50,7 +50,6 @@ import org.openjdk.jmh.results.IterationResult;
 import org.openjdk.jmh.results.RunResult;
 import org.openjdk.jmh.runner.Defaults;
 import org.openjdk.jmh.runner.NoBenchmarksException;
-import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.format.OutputFormat;
 import org.openjdk.jmh.runner.format.OutputFormatFactory;
 import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
@@ -58,15 +57,25 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.util.UnCloseablePrintStream;
 import org.openjdk.jmh.util.Utils;
 
+import jmh.mbr.core.Baseline;
+import jmh.mbr.core.BenchmarkIndex;
+import jmh.mbr.core.ChangeImpact;
 import jmh.mbr.core.Environment;
+import jmh.mbr.core.FixtureSelection;
 import jmh.mbr.core.JmhSupport;
+import jmh.mbr.core.ResultUtils;
+import jmh.mbr.core.RoutingOutputFormat;
+import jmh.mbr.core.RuntimeEstimate;
 import jmh.mbr.core.StringUtils;
 import jmh.mbr.core.model.BenchmarkClass;
 import jmh.mbr.core.model.BenchmarkDescriptor;
 import jmh.mbr.core.model.BenchmarkDescriptorFactory;
 import jmh.mbr.core.model.BenchmarkFixture;
+import jmh.mbr.core.model.BenchmarkFixtures;
 import jmh.mbr.core.model.BenchmarkMethod;
+import jmh.mbr.core.model.DiscoveryCache;
 import jmh.mbr.core.model.HierarchicalBenchmarkDescriptor;
+import jmh.mbr.core.model.ParametrizedBenchmarkMethod;
 
 /**
  * JMH Microbenchmark runner that turns methods annotated with {@link Benchmark} into runnable methods allowing
@@ -78,6 +87,7 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 	private final Map<BenchmarkDescriptor, Description> descriptions = new ConcurrentHashMap<>();
 	private final Map<String, List<BenchmarkDescriptor>> parametrizedDescriptions = new LinkedHashMap<>();
 	private final Map<String, Description> fixtureMethodDescriptions = new LinkedHashMap<>();
+	private final Map<ParametrizedBenchmarkMethod, List<BenchmarkFixture>> selectedFixtures = new ConcurrentHashMap<>();
 
 	private final Object childrenLock = new Object();
 	private final JmhSupport jmhRunner = new JmhSupport();
@@ -94,19 +104,23 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 	public Microbenchmark(Class<?> testClass) throws InitializationError {
 
 		super(testClass);
-		this.benchmarkClass = BenchmarkDescriptorFactory.create(testClass).createDescriptor();
+
+		DiscoveryCache discoveryCache = jmhRunner.getDiscoveryCache();
+		this.benchmarkClass = BenchmarkDescriptorFactory
+				.create(testClass, jmhRunner.getRunDimensions(), jmhRunner.getParamSampling(), jmhRunner::getParameterOverrides)
+				.createDescriptor(discoveryCache);
+		discoveryCache.save();
 		this.children = benchmarkClass.getChildren();
 
 		for (BenchmarkDescriptor child : children) {
 
-			if (child instanceof HierarchicalBenchmarkDescriptor) {
-
-				HierarchicalBenchmarkDescriptor descriptor = (HierarchicalBenchmarkDescriptor) child;
-				for (BenchmarkDescriptor nested : descriptor.getChildren()) {
+			if (child instanceof ParametrizedBenchmarkMethod) {
 
-					BenchmarkFixture fixture = (BenchmarkFixture) nested;
+				ParametrizedBenchmarkMethod descriptor = (ParametrizedBenchmarkMethod) child;
+				BenchmarkFixtures fixtures = descriptor.getFixtures();
 
-					parametrizedDescriptions.computeIfAbsent(fixture.getDisplayName(), it -> new ArrayList<>()).add(descriptor);
+				for (int i = 0; i < fixtures.size(); i++) {
+					parametrizedDescriptions.computeIfAbsent(fixtures.getDisplayName(i), it -> new ArrayList<>()).add(descriptor);
 				}
 			}
 		}
@@ -171,8 +185,13 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 				for (BenchmarkDescriptor nested : entry.getValue()) {
 
 					BenchmarkMethod benchmarkMethod = getBenchmarkMethod(nested);
-					Description nestedDescription = createDescription(benchmarkMethod);
-					fixtureMethodDescriptions.put(entry.getKey() + "-" + nestedDescription.getMethodName(), nestedDescription);
+					String key = entry.getKey() + "-" + benchmarkMethod.getName();
+
+					// unique per fixture so that filters can select a single fixture
+					Description nestedDescription = Description.createTestDescription(
+							benchmarkMethod.getDeclaringClass().getName(), benchmarkMethod.getName(),
+							benchmarkMethod.getDeclaringClass().getName() + key);
+					fixtureMethodDescriptions.put(key, nestedDescription);
 
 					fixture.addChild(nestedDescription);
 				}
@@ -221,6 +240,10 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 			List<BenchmarkDescriptor> children = new ArrayList<>(getFilteredChildren());
 			List<BenchmarkDescriptor> filtered = children.stream().filter(it -> {
 
+				if (it instanceof ParametrizedBenchmarkMethod && filterFixtures((ParametrizedBenchmarkMethod) it, filter)) {
+					return true;
+				}
+
 				if (filter.shouldRun(describeChild(it))) {
 					try {
 						filter.apply(it);
@@ -240,6 +263,36 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 		}
 	}
 
+	/**
+	 * Apply a {@link Filter} to the fixtures of a parametrized method so that selecting a single fixture runs only that
+	 * fixture instead of the entire parameter grid.
+	 *
+	 * @return {@literal true} if at least one fixture matches the filter.
+	 */
+	private boolean filterFixtures(ParametrizedBenchmarkMethod method, Filter filter) {
+
+		// fixture descriptions are created along with the class description
+		getDescription();
+
+		List<BenchmarkFixture> candidates = selectedFixtures.getOrDefault(method, method.getChildren());
+		List<BenchmarkFixture> matching = candidates.stream()
+				.filter(it -> filter.shouldRun(describeFixture(method.getDescriptor(), it))).collect(Collectors.toList());
+
+		if (matching.isEmpty()) {
+			return false;
+		}
+
+		if (matching.size() < method.getChildren().size()) {
+			selectedFixtures.put(method, matching);
+		}
+
+		return true;
+	}
+
+	private Description describeFixture(BenchmarkMethod method, BenchmarkFixture fixture) {
+		return fixtureMethodDescriptions.get(fixture.getDisplayName() + "-" + method.getName());
+	}
+
 	@Override
 	public void sort(Sorter sorter) {
 
@@ -265,10 +318,7 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 	protected Statement childrenInvoker(RunNotifier notifier) {
 
 		Collection<BenchmarkDescriptor> methods = getFilteredChildren();
-		CacheFunction cache = new CacheFunction(methods, this::describeChild, (method, fixture) -> {
-
-			return fixtureMethodDescriptions.get(fixture.getDisplayName() + "-" + method.getName());
-		});
+		CacheFunction cache = new CacheFunction(methods, jmhRunner, this::describeChild, this::describeFixture);
 
 		if (methods.isEmpty()) {
 			return new Statement() {
@@ -293,9 +343,11 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 	void doRun(RunNotifier notifier, Collection<BenchmarkDescriptor> methods, CacheFunction cache) throws Exception {
 
 		Class<?> jmhTestClass = getTestClass().getJavaClass();
-		List<String> includes = includes(jmhTestClass, methods);
+		ChangeImpact changeImpact = jmhRunner.getChangeImpact();
+		List<BenchmarkDescriptor> changed = methods.stream().filter(it -> changeImpact.isChanged(getBenchmarkName(it)))
+				.collect(Collectors.toList());
 
-		if (includes.isEmpty()) {
+		if (includes(jmhTestClass, methods).isEmpty()) {
 			throw new NoTestsRemainException();
 		}
 
@@ -306,13 +358,58 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 			return;
 		}
 
-		includes.forEach(optionsBuilder::include);
+		includes(jmhTestClass, changed).forEach(optionsBuilder::include);
 
 		Options options = optionsBuilder.build();
-		NotifyingOutputFormat notifyingOutputFormat = new NotifyingOutputFormat(notifier, cache,
+		NotifyingOutputFormat notifyingOutputFormat = new NotifyingOutputFormat(notifier, cache, jmhRunner.getBaseline(),
 				createOutputFormat(options));
 
-		jmhRunner.publishResults(notifyingOutputFormat, new Runner(options, notifyingOutputFormat).run());
+		for (BenchmarkDescriptor method : methods) {
+
+			if (!changed.contains(method)) {
+
+				// JUnit 4 cannot report a reason for ignored tests
+				notifyingOutputFormat.println(getBenchmarkName(method) + ": " + changeImpact.getSkipReason(getBenchmarkName(method)));
+				notifier.fireTestIgnored(describeChild(method));
+			}
+		}
+
+		if (changed.isEmpty()) {
+			return;
+		}
+
+		FixtureSelection selection = getSelectedFixtures(changed);
+		RuntimeEstimate estimate = jmhRunner.estimate(options, notifyingOutputFormat, selection);
+		Collection<RunResult> results = jmhRunner.run(options, notifyingOutputFormat, estimate, selection);
+		changeImpact.record(results, notifyingOutputFormat.getFailedBenchmarks(), selection);
+		jmhRunner.publishResults(notifyingOutputFormat, results);
+	}
+
+	/**
+	 * Restrict parametrized methods to the fixtures selected by {@link #filter(Filter) filters} or to
+	 * {@link jmh.mbr.core.model.ParameterSampling sampled} fixtures shown in the test tree.
+	 */
+	FixtureSelection getSelectedFixtures(Collection<BenchmarkDescriptor> methods) {
+
+		FixtureSelection selection = FixtureSelection.none();
+
+		for (BenchmarkDescriptor method : methods) {
+
+			if (!(method instanceof ParametrizedBenchmarkMethod)) {
+				continue;
+			}
+
+			ParametrizedBenchmarkMethod parametrized = (ParametrizedBenchmarkMethod) method;
+			List<BenchmarkFixture> selected = selectedFixtures.get(parametrized);
+
+			if (selected != null) {
+				selection = selection.and(getBenchmarkName(method), selected);
+			} else if (parametrized.getFixtures().isSampled()) {
+				selection = selection.and(getBenchmarkName(method), parametrized.getFixtures());
+			}
+		}
+
+		return selection;
 	}
 
 	/**
@@ -413,22 +510,44 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 
 	/**
 	 * {@link OutputFormat} that delegates to another {@link OutputFormat} and notifies {@link RunNotifier} about the
-	 * progress.
+	 * progress. Concurrent runs share notifier and delegate but track their benchmark in progress independently.
 	 */
-	static class NotifyingOutputFormat implements OutputFormat {
+	static class NotifyingOutputFormat implements RoutingOutputFormat {
 
 		private final RunNotifier notifier;
 		private final CacheFunction descriptionResolver;
+		private final Baseline baseline;
 		private final OutputFormat delegate;
 		private final List<String> log = new CopyOnWriteArrayList<>();
 
+		private final Set<String> failedBenchmarks;
+
 		private volatile BenchmarkParams lastKnownBenchmark;
 		private volatile boolean recordOutput;
 
-		NotifyingOutputFormat(RunNotifier notifier, CacheFunction methods, OutputFormat delegate) {
+		NotifyingOutputFormat(RunNotifier notifier, CacheFunction methods, Baseline baseline, OutputFormat delegate) {
+			this(notifier, methods, baseline, delegate, ConcurrentHashMap.newKeySet());
+		}
+
+		private NotifyingOutputFormat(RunNotifier notifier, CacheFunction methods, Baseline baseline,
+				OutputFormat delegate, Set<String> failedBenchmarks) {
 			this.notifier = notifier;
 			this.descriptionResolver = methods;
+			this.baseline = baseline;
 			this.delegate = delegate;
+			this.failedBenchmarks = failedBenchmarks;
+		}
+
+		@Override
+		public OutputFormat forRun() {
+			return new NotifyingOutputFormat(notifier, descriptionResolver, baseline, delegate, failedBenchmarks);
+		}
+
+		/**
+		 * @return names of benchmarks that failed in any run.
+		 */
+		Set<String> getFailedBenchmarks() {
+			return failedBenchmarks;
 		}
 
 		@Override
@@ -440,6 +559,20 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 		public void iterationResult(BenchmarkParams benchParams, IterationParams params, int iteration,
 				IterationResult data) {
 			delegate.iterationResult(benchParams, params, iteration, data);
+			publishProgress(descriptionResolver.apply(benchParams), params, iteration, data);
+		}
+
+		/**
+		 * JUnit 4 has no reporting facility for test metadata so progress is reported along with the description to
+		 * attribute iterations to a fixture in the console output.
+		 */
+		private void publishProgress(Description description, IterationParams params, int iteration,
+				IterationResult data) {
+
+			Map<String, String> progress = ResultUtils.getIterationProgress(params, iteration, data);
+
+			delegate.println(String.format("Progress for %s: %s %s, %s %s", description.getDisplayName(),
+					progress.get("phase"), progress.get("iteration"), progress.get("score"), progress.get("unit")));
 		}
 
 		@Override
@@ -460,9 +593,22 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 			recordOutput = false;
 			BenchmarkParams lastKnownBenchmark = this.lastKnownBenchmark;
 			if (result != null) {
-				notifier.fireTestFinished(descriptionResolver.apply(result.getParams()));
+
+				Description description = descriptionResolver.apply(result.getParams());
+				publishSecondaryResults(description, result);
+
+				// ComparisonFailure lets IDEs compare baseline and actual score
+				baseline.compare(result).ifPresent(it -> {
+
+					failedBenchmarks.add(result.getParams().getBenchmark());
+					notifier.fireTestFailure(new Failure(description,
+							new ComparisonFailure(it.getMessage(), it.getExpected(), it.getActual())));
+				});
+				notifier.fireTestFinished(description);
 			} else if (lastKnownBenchmark != null) {
 
+				failedBenchmarks.add(lastKnownBenchmark.getBenchmark());
+
 				String output = StringUtils.collectionToDelimitedString(log, System.getProperty("line.separator"));
 				notifier.fireTestFailure(
 						new Failure(descriptionResolver.apply(lastKnownBenchmark), new JmhRunnerException(output)));
@@ -472,6 +618,22 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 			delegate.endBenchmark(result);
 		}
 
+		/**
+		 * JUnit 4 has no reporting facility for test metadata so secondary results are reported right after the benchmark
+		 * finished.
+		 */
+		private void publishSecondaryResults(Description description, BenchmarkResult result) {
+
+			Map<String, String> secondaryResults = ResultUtils.getSecondaryResults(result);
+
+			if (secondaryResults.isEmpty()) {
+				return;
+			}
+
+			delegate.println("Secondary results for " + description.getDisplayName() + ":");
+			secondaryResults.forEach((label, value) -> delegate.println(String.format("  %s: %s", label, value)));
+		}
+
 		@Override
 		public void startRun() {
 			delegate.startRun();
@@ -549,16 +711,33 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 	 */
 	static class CacheFunction implements Function<BenchmarkParams, Description> {
 
-		private final Map<String, BenchmarkDescriptor> methodMap = new ConcurrentHashMap<>();
-		private final Collection<BenchmarkDescriptor> methods;
+		private final BenchmarkIndex<BenchmarkDescriptor> index = new BenchmarkIndex<>();
+		private final JmhSupport support;
 		private final Function<BenchmarkDescriptor, Description> describeFunction;
 		private final BiFunction<BenchmarkMethod, BenchmarkFixture, Description> describeParametrizedMethodFunction;
 
-		CacheFunction(Collection<BenchmarkDescriptor> methods, Function<BenchmarkDescriptor, Description> describeFunction,
+		CacheFunction(Collection<BenchmarkDescriptor> methods, JmhSupport support,
+				Function<BenchmarkDescriptor, Description> describeFunction,
 				BiFunction<BenchmarkMethod, BenchmarkFixture, Description> describeParametrizedMethodFunction) {
-			this.methods = methods;
+			this.support = support;
 			this.describeFunction = describeFunction;
 			this.describeParametrizedMethodFunction = describeParametrizedMethodFunction;
+
+			for (BenchmarkDescriptor method : methods) {
+
+				String benchmarkName = getBenchmarkName(method);
+				index.addMethod(benchmarkName, method);
+
+				if (method instanceof HierarchicalBenchmarkDescriptor) {
+
+					for (BenchmarkDescriptor child : ((HierarchicalBenchmarkDescriptor) method).getChildren()) {
+
+						if (child instanceof BenchmarkFixture) {
+							index.addFixture(benchmarkName, ((BenchmarkFixture) child).getFixture(), child);
+						}
+					}
+				}
+			}
 		}
 
 		/**
@@ -572,22 +751,12 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 
 			BenchmarkDescriptor descriptor = getBenchmarkDescriptor(benchmark);
 
-			if (descriptor instanceof HierarchicalBenchmarkDescriptor) {
-
-				Map<String, String> lookup = new HashMap<>();
-				for (String key : benchmark.getParamsKeys()) {
-					lookup.put(key, benchmark.getParam(key));
-				}
-
-				for (BenchmarkDescriptor child : ((HierarchicalBenchmarkDescriptor) descriptor).getChildren()) {
+			if (index.hasFixtures(benchmark.getBenchmark())) {
 
-					if (child instanceof BenchmarkFixture) {
-						BenchmarkFixture fixture = (BenchmarkFixture) child;
+				BenchmarkDescriptor fixture = index.getFixture(benchmark.getBenchmark(), support.getFixture(benchmark));
 
-						if (fixture.getFixture().equals(lookup)) {
-							return describeParametrizedMethodFunction.apply(getBenchmarkMethod(descriptor), fixture);
-						}
-					}
+				if (fixture != null) {
+					return describeParametrizedMethodFunction.apply(getBenchmarkMethod(descriptor), (BenchmarkFixture) fixture);
 				}
 			}
 
@@ -599,15 +768,7 @@ public class Microbenchmark extends ParentRunner<BenchmarkDescriptor> implements
 		}
 
 		public BenchmarkDescriptor getBenchmarkDescriptor(BenchmarkParams benchmark) {
-
-			return methodMap.computeIfAbsent(benchmark.getBenchmark(), key -> {
-
-				Optional<BenchmarkDescriptor> method = methods.stream().filter(it -> getBenchmarkName(it).equals(key))
-						.findFirst();
-
-				return method.orElseThrow(() -> new IllegalArgumentException(
-						String.format("Cannot resolve %s to a BenchmarkDescriptor!", benchmark.getBenchmark())));
-			});
+			return index.getMethod(benchmark.getBenchmark());
 		}
 	}
 }
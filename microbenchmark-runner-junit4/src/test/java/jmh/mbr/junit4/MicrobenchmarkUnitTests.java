@@ -11,8 +11,10 @@ package jmh.mbr.junit4;
 
 import static org.assertj.core.api.Assertions.*;
 
+import jmh.mbr.core.FixtureSelection;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
 import org.junit.runners.model.InitializationError;
 
 class MicrobenchmarkUnitTests {
@@ -40,6 +42,23 @@ class MicrobenchmarkUnitTests {
 		assertThat(method.getMethodName()).isEqualTo("foo");
 	}
 
+	@Test
+	void shouldRestrictRunToFilteredFixture() throws Exception {
+
+		Microbenchmark runner = new Microbenchmark(ParametrizedBenchmark.class);
+		Description fixture = runner.getDescription().getChildren().get(1);
+
+		assertThat(fixture.getDisplayName()).isEqualTo("[foo=b]");
+
+		runner.filter(Filter.matchMethodDescription(fixture.getChildren().get(0)));
+
+		FixtureSelection selection = runner.getSelectedFixtures(runner.getChildren());
+		String benchmark = ParametrizedBenchmark.class.getName() + ".foo";
+
+		assertThat(selection.isRestricted(benchmark)).isTrue();
+		assertThat(selection.getFixtureCount(benchmark)).isEqualTo(1);
+	}
+
 	@Test
 	void shouldDescribeSimpleBenchmark() throws InitializationError {
 
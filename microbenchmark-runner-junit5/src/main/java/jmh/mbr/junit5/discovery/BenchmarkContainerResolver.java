@@ -9,8 +9,10 @@
  */
 package jmh.mbr.junit5.discovery;
 
+import jmh.mbr.core.JmhSupport;
 import jmh.mbr.core.model.BenchmarkClass;
 import jmh.mbr.core.model.BenchmarkDescriptorFactory;
+import jmh.mbr.core.model.DiscoveryCache;
 import jmh.mbr.junit5.descriptor.BenchmarkClassDescriptor;
 import jmh.mbr.junit5.discovery.predicates.IsBenchmarkClass;
 
@@ -33,7 +35,11 @@ class BenchmarkContainerResolver implements ElementResolver {
 
 	private static final String SEGMENT_TYPE = "class";
 
-	BenchmarkContainerResolver() {}
+	private final DiscoveryCache discoveryCache;
+
+	BenchmarkContainerResolver(DiscoveryCache discoveryCache) {
+		this.discoveryCache = discoveryCache;
+	}
 
 	@Override
 	public Set<TestDescriptor> resolveElement(AnnotatedElement element, TestDescriptor parent) {
@@ -96,7 +102,10 @@ class BenchmarkContainerResolver implements ElementResolver {
 
 	private TestDescriptor resolveClass(Class<?> benchmarkClass, UniqueId uniqueId) {
 
-		BenchmarkClass descriptor = BenchmarkDescriptorFactory.create(benchmarkClass).createDescriptor();
+		JmhSupport support = new JmhSupport();
+		BenchmarkClass descriptor = BenchmarkDescriptorFactory
+				.create(benchmarkClass, support.getRunDimensions(), support.getParamSampling(), support::getParameterOverrides)
+				.createDescriptor(discoveryCache);
 
 		return new BenchmarkClassDescriptor(uniqueId, descriptor);
 	}
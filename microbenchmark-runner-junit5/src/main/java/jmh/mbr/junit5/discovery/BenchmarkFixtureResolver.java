@@ -9,6 +9,7 @@
  */
 package jmh.mbr.junit5.discovery;
 
+import jmh.mbr.core.model.BenchmarkFixtures;
 import jmh.mbr.core.model.ParametrizedBenchmarkMethod;
 import jmh.mbr.junit5.descriptor.BenchmarkFixtureDescriptor;
 import jmh.mbr.junit5.descriptor.ParametrizedBenchmarkMethodDescriptor;
@@ -82,13 +83,15 @@ class BenchmarkFixtureResolver implements ElementResolver {
 	private Optional<TestDescriptor> findTestDescriptor(String segmentValue, UniqueId parentId,
 			ParametrizedBenchmarkMethod parametrizedMethod) {
 
-		return parametrizedMethod.getChildren().stream().filter(it -> {
-			return it.getDisplayName().equals(segmentValue);
-		}).map(it -> {
+		BenchmarkFixtures fixtures = parametrizedMethod.getFixtures();
+		int index = fixtures.indexOf(segmentValue);
 
-			UniqueId uniqueId = parentId.append(SEGMENT_TYPE, it.getDisplayName());
+		if (index == -1) {
+			return Optional.empty();
+		}
+
+		UniqueId uniqueId = parentId.append(SEGMENT_TYPE, segmentValue);
 
-			return (TestDescriptor) new BenchmarkFixtureDescriptor(uniqueId, parametrizedMethod.getDescriptor(), it);
-		}).findFirst();
+		return Optional.of(new BenchmarkFixtureDescriptor(uniqueId, parametrizedMethod.getDescriptor(), fixtures.get(index)));
 	}
 }
@@ -9,6 +9,8 @@
  */
 package jmh.mbr.junit5.discovery;
 
+import jmh.mbr.core.JmhSupport;
+import jmh.mbr.core.model.DiscoveryCache;
 import jmh.mbr.junit5.discovery.predicates.IsBenchmarkClass;
 
 import org.junit.platform.commons.util.ClassFilter;
@@ -32,15 +34,20 @@ public class DiscoverySelectorResolver {
 	public void resolveSelectors(EngineDiscoveryRequest request, TestDescriptor engineDescriptor) {
 
 		ClassFilter classFilter = ClasspathScanningSupport.buildClassFilter(request, IsBenchmarkClass.INSTANCE);
-		resolve(request, engineDescriptor, classFilter);
+		DiscoveryCache discoveryCache = new JmhSupport().getDiscoveryCache();
+
+		resolve(request, engineDescriptor, classFilter, discoveryCache);
+		discoveryCache.save();
+
 		filter(engineDescriptor, classFilter);
 		pruneTree(engineDescriptor);
 	}
 
-	private void resolve(EngineDiscoveryRequest request, TestDescriptor engineDescriptor, ClassFilter classFilter) {
+	private void resolve(EngineDiscoveryRequest request, TestDescriptor engineDescriptor, ClassFilter classFilter,
+			DiscoveryCache discoveryCache) {
 
 		JavaElementsResolver javaElementsResolver = createJavaElementsResolver(request.getConfigurationParameters(),
-				engineDescriptor, classFilter);
+				engineDescriptor, classFilter, discoveryCache);
 
 		request.getSelectorsByType(ClasspathRootSelector.class).forEach(javaElementsResolver::resolveClasspathRoot);
 		request.getSelectorsByType(ModuleSelector.class).forEach(javaElementsResolver::resolveModule);
@@ -59,8 +66,8 @@ public class DiscoverySelectorResolver {
 	}
 
 	private JavaElementsResolver createJavaElementsResolver(ConfigurationParameters configurationParameters,
-			TestDescriptor engineDescriptor, ClassFilter classFilter) {
-		return new JavaElementsResolver(engineDescriptor, classFilter, ElementResolvers.getResolvers());
+			TestDescriptor engineDescriptor, ClassFilter classFilter, DiscoveryCache discoveryCache) {
+		return new JavaElementsResolver(engineDescriptor, classFilter, ElementResolvers.getResolvers(discoveryCache));
 	}
 
 }
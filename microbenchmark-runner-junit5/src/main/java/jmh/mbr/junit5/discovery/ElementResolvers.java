@@ -9,6 +9,8 @@
  */
 package jmh.mbr.junit5.discovery;
 
+import jmh.mbr.core.model.DiscoveryCache;
+
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -21,9 +23,17 @@ class ElementResolvers {
 	 * @return a {@link Set} of known {@link ElementResolver}s.
 	 */
 	public static Set<ElementResolver> getResolvers() {
+		return getResolvers(DiscoveryCache.none());
+	}
+
+	/**
+	 * @param discoveryCache the {@link DiscoveryCache} to create benchmark class descriptors.
+	 * @return a {@link Set} of known {@link ElementResolver}s.
+	 */
+	public static Set<ElementResolver> getResolvers(DiscoveryCache discoveryCache) {
 
 		Set<ElementResolver> resolvers = new LinkedHashSet<>();
-		resolvers.add(new BenchmarkContainerResolver());
+		resolvers.add(new BenchmarkContainerResolver(discoveryCache));
 		resolvers.add(new BenchmarkMethodResolver());
 		resolvers.add(new BenchmarkFixtureResolver());
 
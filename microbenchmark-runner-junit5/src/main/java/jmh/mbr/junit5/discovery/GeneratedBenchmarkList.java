@@ -0,0 +1,185 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.junit5.discovery;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+import org.openjdk.jmh.runner.BenchmarkList;
+import org.openjdk.jmh.runner.BenchmarkListEntry;
+
+/**
+ * Benchmark classes listed in {@code META-INF/BenchmarkList} that is generated by the JMH annotation processor. Allows
+ * discovering benchmark classes by name without loading and introspecting every class on the classpath.
+ */
+class GeneratedBenchmarkList {
+
+	static final String BENCHMARK_LIST = "META-INF/BenchmarkList";
+
+	private final Set<String> classNames;
+
+	private GeneratedBenchmarkList(Set<String> classNames) {
+		this.classNames = classNames;
+	}
+
+	/**
+	 * Read the benchmark list contained in a classpath root directory or JAR file.
+	 *
+	 * @param classpathRoot the classpath root.
+	 * @return the {@link GeneratedBenchmarkList} or {@link Optional#empty()} if the classpath root does not contain a
+	 *         benchmark list.
+	 * @throws IOException if the benchmark list cannot be read.
+	 */
+	static Optional<GeneratedBenchmarkList> fromClasspathRoot(URI classpathRoot) throws IOException {
+
+		if (!"file".equals(classpathRoot.getScheme())) {
+			return Optional.empty();
+		}
+
+		Path root = Paths.get(classpathRoot);
+
+		if (Files.isDirectory(root)) {
+
+			Path benchmarkList = root.resolve(BENCHMARK_LIST);
+
+			if (!Files.isRegularFile(benchmarkList)) {
+				return Optional.empty();
+			}
+
+			try (InputStream stream = Files.newInputStream(benchmarkList)) {
+				return Optional.of(new GeneratedBenchmarkList(readClassNames(stream, new TreeSet<>())));
+			}
+		}
+
+		if (!Files.isRegularFile(root)) {
+			return Optional.empty();
+		}
+
+		try (JarFile jarFile = new JarFile(root.toFile())) {
+
+			ZipEntry entry = jarFile.getEntry(BENCHMARK_LIST);
+
+			if (entry == null) {
+				return Optional.empty();
+			}
+
+			try (InputStream stream = jarFile.getInputStream(entry)) {
+				return Optional.of(new GeneratedBenchmarkList(readClassNames(stream, new TreeSet<>())));
+			}
+		}
+	}
+
+	/**
+	 * Read and merge all benchmark lists visible to {@link ClassLoader}.
+	 *
+	 * @param classLoader the class loader.
+	 * @return the {@link GeneratedBenchmarkList} or {@link Optional#empty()} if no benchmark list is visible.
+	 * @throws IOException if a benchmark list cannot be read.
+	 */
+	static Optional<GeneratedBenchmarkList> fromClassLoader(ClassLoader classLoader) throws IOException {
+
+		Enumeration<URL> resources = classLoader.getResources(BENCHMARK_LIST);
+
+		if (!resources.hasMoreElements()) {
+			return Optional.empty();
+		}
+
+		Set<String> classNames = new TreeSet<>();
+
+		for (URL resource : Collections.list(resources)) {
+			try (InputStream stream = resource.openStream()) {
+				readClassNames(stream, classNames);
+			}
+		}
+
+		return Optional.of(new GeneratedBenchmarkList(classNames));
+	}
+
+	private static Set<String> readClassNames(InputStream stream, Set<String> classNames) throws IOException {
+
+		for (BenchmarkListEntry entry : BenchmarkList.readBenchmarkList(stream)) {
+			classNames.add(entry.getUserClassQName());
+		}
+
+		return classNames;
+	}
+
+	/**
+	 * @return names of all listed benchmark classes in alphabetical order.
+	 */
+	List<String> getClassNames() {
+		return new ArrayList<>(classNames);
+	}
+
+	/**
+	 * @param packageName the package name. Empty for the default package.
+	 * @return names of listed benchmark classes in {@code packageName} and its sub-packages in alphabetical order.
+	 */
+	List<String> getClassNames(String packageName) {
+
+		if (packageName.isEmpty()) {
+			return getClassNames();
+		}
+
+		List<String> result = new ArrayList<>();
+		String prefix = packageName + ".";
+
+		for (String className : classNames) {
+			if (className.startsWith(prefix)) {
+				result.add(className);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Load a listed class. The annotation processor lists nested classes by their canonical name, so nested class
+	 * names are tried from the innermost class outwards.
+	 *
+	 * @param className the listed class name.
+	 * @param classLoader the class loader to use.
+	 * @return the class or {@link Optional#empty()} if the class cannot be loaded.
+	 */
+	static Optional<Class<?>> loadClass(String className, ClassLoader classLoader) {
+
+		String candidate = className;
+
+		while (true) {
+
+			try {
+				return Optional.of(Class.forName(candidate, false, classLoader));
+			} catch (ClassNotFoundException | LinkageError e) {
+
+				int lastDot = candidate.lastIndexOf('.');
+
+				if (lastDot == -1) {
+					return Optional.empty();
+				}
+
+				candidate = candidate.substring(0, lastDot) + "$" + candidate.substring(lastDot + 1);
+			}
+		}
+	}
+}
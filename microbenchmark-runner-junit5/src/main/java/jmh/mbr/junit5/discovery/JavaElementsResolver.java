@@ -30,6 +30,7 @@ import java.util.stream.Collectors;
 import org.junit.platform.commons.logging.Logger;
 import org.junit.platform.commons.logging.LoggerFactory;
 import org.junit.platform.commons.util.BlacklistedExceptions;
+import org.junit.platform.commons.util.ClassLoaderUtils;
 import org.junit.platform.commons.util.ClassFilter;
 import org.junit.platform.commons.util.ReflectionUtils;
 import org.junit.platform.commons.util.StringUtils;
@@ -63,6 +64,14 @@ class JavaElementsResolver {
 
 	void resolveClasspathRoot(ClasspathRootSelector selector) {
 		try {
+			Optional<GeneratedBenchmarkList> benchmarkList = GeneratedBenchmarkList
+					.fromClasspathRoot(selector.getClasspathRoot());
+
+			if (benchmarkList.isPresent()) {
+				resolveListedClasses(benchmarkList.get().getClassNames());
+				return;
+			}
+
 			ReflectionUtils.findAllClassesInClasspathRoot(selector.getClasspathRoot(), this.classFilter)
 					.forEach(this::resolveClass);
 		} catch (Throwable t) {
@@ -83,6 +92,14 @@ class JavaElementsResolver {
 
 	void resolvePackage(PackageSelector selector) {
 		try {
+			Optional<GeneratedBenchmarkList> benchmarkList = GeneratedBenchmarkList
+					.fromClassLoader(ClassLoaderUtils.getDefaultClassLoader());
+
+			if (benchmarkList.isPresent()) {
+				resolveListedClasses(benchmarkList.get().getClassNames(selector.getPackageName()));
+				return;
+			}
+
 			ReflectionUtils.findAllClassesInPackage(selector.getPackageName(), this.classFilter).forEach(this::resolveClass);
 		} catch (Throwable t) {
 			BlacklistedExceptions.rethrowIfBlacklisted(t);
@@ -102,6 +119,31 @@ class JavaElementsResolver {
 		}
 	}
 
+	/**
+	 * Resolve classes listed in the JMH-generated benchmark list. Only listed classes are loaded, which avoids scanning
+	 * the entire classpath.
+	 */
+	private void resolveListedClasses(Collection<String> classNames) {
+
+		ClassLoader classLoader = ClassLoaderUtils.getDefaultClassLoader();
+
+		for (String className : classNames) {
+
+			Optional<Class<?>> testClass = GeneratedBenchmarkList.loadClass(className, classLoader);
+
+			if (!testClass.isPresent()) {
+				logger.debug(() -> String.format("Class '%s' could not be loaded.", className));
+				continue;
+			}
+
+			Class<?> javaClass = testClass.get();
+
+			if (this.classFilter.match(javaClass.getName()) && this.classFilter.match(javaClass)) {
+				resolveClass(javaClass);
+			}
+		}
+	}
+
 	private void resolveClass(Class<?> testClass) {
 		try {
 			Set<TestDescriptor> resolvedDescriptors = resolveContainerWithParents(testClass);
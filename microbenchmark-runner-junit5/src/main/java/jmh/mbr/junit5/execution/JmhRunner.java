@@ -13,10 +13,10 @@ import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -26,10 +26,19 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import jmh.mbr.core.Baseline;
+import jmh.mbr.core.BenchmarkIndex;
+import jmh.mbr.core.ChangeImpact;
 import jmh.mbr.core.Environment;
+import jmh.mbr.core.FixtureSelection;
 import jmh.mbr.core.JmhSupport;
+import jmh.mbr.core.ResultUtils;
+import jmh.mbr.core.RoutingOutputFormat;
+import jmh.mbr.core.RuntimeEstimate;
 import jmh.mbr.core.StringUtils;
+import jmh.mbr.core.model.BenchmarkFixture;
 import jmh.mbr.core.model.MethodAware;
+import jmh.mbr.core.model.ParametrizedBenchmarkMethod;
 import jmh.mbr.junit5.descriptor.AbstractBenchmarkDescriptor;
 import jmh.mbr.junit5.descriptor.BenchmarkClassDescriptor;
 import jmh.mbr.junit5.descriptor.BenchmarkFixtureDescriptor;
@@ -42,17 +51,18 @@ import org.junit.platform.engine.ConfigurationParameters;
 import org.junit.platform.engine.EngineExecutionListener;
 import org.junit.platform.engine.TestDescriptor;
 import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.reporting.ReportEntry;
 import org.junit.platform.engine.support.hierarchical.Node.SkipResult;
 import org.openjdk.jmh.infra.BenchmarkParams;
 import org.openjdk.jmh.infra.IterationParams;
 import org.openjdk.jmh.results.BenchmarkResult;
 import org.openjdk.jmh.results.IterationResult;
 import org.openjdk.jmh.results.RunResult;
-import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.format.OutputFormat;
 import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
 import org.openjdk.jmh.runner.options.Options;
+import org.opentest4j.AssertionFailedError;
 
 /**
  * JMH Benchmark runner.
@@ -83,7 +93,8 @@ public class JmhRunner {
 			return;
 		}
 
-		List<String> includePatterns = evaluateBenchmarksToRun(includes, listener);
+		ChangeImpact changeImpact = support.getChangeImpact();
+		List<String> includePatterns = evaluateBenchmarksToRun(includes, changeImpact, listener);
 
 		if (!shouldRun(includePatterns)) {
 			return;
@@ -91,14 +102,21 @@ public class JmhRunner {
 
 		includePatterns.forEach(optionsBuilder::include);
 
-		CacheFunction cache = new CacheFunction(methods);
+		CacheFunction cache = new CacheFunction(methods, support);
+		FixtureSelection selection = getSelectedFixtures(methods);
 		Options options = optionsBuilder.build();
-		NotifyingOutputFormat notifyingOutputFormat = new NotifyingOutputFormat(listener, cache,
+		NotifyingOutputFormat notifyingOutputFormat = new NotifyingOutputFormat(listener, cache, support.getBaseline(),
 				support.createOutputFormat(options));
 
 		try {
 			listener.executionStarted(testDescriptor);
-			support.publishResults(notifyingOutputFormat, new Runner(options, notifyingOutputFormat).run());
+
+			RuntimeEstimate estimate = support.estimate(options, notifyingOutputFormat, selection);
+			listener.reportingEntryPublished(testDescriptor, ReportEntry.from("estimatedRuntime", estimate.toString()));
+
+			Collection<RunResult> results = support.run(options, notifyingOutputFormat, estimate, selection);
+			changeImpact.record(results, notifyingOutputFormat.getFailedBenchmarks(), selection);
+			support.publishResults(notifyingOutputFormat, results);
 			listener.executionFinished(testDescriptor, TestExecutionResult.successful());
 		} catch (RunnerException e) {
 			listener.executionFinished(testDescriptor, TestExecutionResult.failed(e));
@@ -119,6 +137,38 @@ public class JmhRunner {
 		return methods;
 	}
 
+	/**
+	 * Restrict parametrized methods to the fixtures contained in the test plan. Fixtures are missing if a subset of
+	 * fixtures was selected (such as a single fixture in the IDE) or if fixtures are
+	 * {@link jmh.mbr.core.model.ParameterSampling sampled}.
+	 */
+	static FixtureSelection getSelectedFixtures(List<AbstractBenchmarkDescriptor> methods) {
+
+		FixtureSelection selection = FixtureSelection.none();
+
+		for (AbstractBenchmarkDescriptor method : methods) {
+
+			if (!(method instanceof ParametrizedBenchmarkMethodDescriptor)) {
+				continue;
+			}
+
+			ParametrizedBenchmarkMethod parametrized = ((ParametrizedBenchmarkMethodDescriptor) method)
+					.getParametrizedMethod();
+			List<BenchmarkFixture> selected = method.getChildren().stream()
+					.filter(BenchmarkFixtureDescriptor.class::isInstance)
+					.map(it -> ((BenchmarkFixtureDescriptor) it).getFixture())
+					.collect(Collectors.toList());
+
+			if (parametrized.getFixtures().isSampled() || selected.size() < parametrized.getFixtures().size()) {
+
+				Method javaMethod = parametrized.getMethod();
+				selection = selection.and(javaMethod.getDeclaringClass().getName() + "." + javaMethod.getName(), selected);
+			}
+		}
+
+		return selection;
+	}
+
 	private boolean shouldRun(List<?> methods) {
 		return !methods.isEmpty();
 	}
@@ -163,6 +213,19 @@ public class JmhRunner {
 	}
 
 	List<String> evaluateBenchmarksToRun(List<AbstractBenchmarkDescriptor> includes, EngineExecutionListener listener) {
+		return evaluateBenchmarksToRun(includes, ChangeImpact.none(), listener);
+	}
+
+	/**
+	 * Evaluate conditions and change impact of {@code includes} and report skipped descriptors.
+	 *
+	 * @param includes the descriptors to run.
+	 * @param changeImpact the {@link ChangeImpact} to skip unchanged benchmarks.
+	 * @param listener the {@link EngineExecutionListener} to report skipped descriptors to.
+	 * @return include patterns of benchmark methods to run.
+	 */
+	List<String> evaluateBenchmarksToRun(List<AbstractBenchmarkDescriptor> includes, ChangeImpact changeImpact,
+			EngineExecutionListener listener) {
 
 		try (ExtensionContextProvider contextProvider = ExtensionContextProvider.create(listener, configurationParameters)) {
 
@@ -175,6 +238,7 @@ public class JmhRunner {
 
 						ExtensionContext classExtensionContext = contextProvider.getExtensionContext(descriptor);
 						List<String> methodIncludePatterns = new ArrayList<>();
+						List<ConditionalExecution> unchanged = new ArrayList<>();
 
 						SkipResult shouldRun = shouldRun(classExtensionContext, descriptor, listener);
 
@@ -185,13 +249,22 @@ public class JmhRunner {
 
 						descriptor.accept(it -> {
 							if (it instanceof MethodAware) {
-								shouldRun(classExtensionContext, (MethodAware) it, listener).includeIfEnabled(methodIncludePatterns);
+
+								ConditionalExecution execution = shouldRun(classExtensionContext, (MethodAware) it, listener);
+
+								if (execution.isUnchanged(changeImpact)) {
+									unchanged.add(execution);
+								} else {
+									execution.includeIfEnabled(methodIncludePatterns);
+								}
 							}
 						});
 
 						if (methodIncludePatterns.isEmpty()) {
-							listener.executionSkipped(descriptor, "No methods to run");
+							listener.executionSkipped(descriptor,
+									unchanged.isEmpty() ? "No methods to run" : "Unchanged since last run");
 						} else {
+							unchanged.forEach(it -> it.skipUnchanged(changeImpact, listener));
 							includePatterns.addAll(methodIncludePatterns);
 						}
 					});
@@ -200,7 +273,13 @@ public class JmhRunner {
 					.filter(MethodAware.class::isInstance)
 					.forEach(descriptor -> {
 						ExtensionContext parentContext = contextProvider.getExtensionContext(descriptor.getParent());
-						shouldRun(parentContext, (MethodAware) descriptor, listener).includeIfEnabled(includePatterns);
+						ConditionalExecution execution = shouldRun(parentContext, (MethodAware) descriptor, listener);
+
+						if (execution.isUnchanged(changeImpact)) {
+							execution.skipUnchanged(changeImpact, listener);
+						} else {
+							execution.includeIfEnabled(includePatterns);
+						}
 					});
 
 			return includePatterns;
@@ -247,27 +326,65 @@ public class JmhRunner {
 				includePatterns.add(Pattern.quote(method.getDeclaringClass().getName()) + "\\." + Pattern.quote(method.getName()) + "$");
 			}
 		}
+
+		boolean isUnchanged(ChangeImpact changeImpact) {
+			return !skipResult.isSkipped() && !changeImpact.isChanged(getBenchmarkName());
+		}
+
+		void skipUnchanged(ChangeImpact changeImpact, EngineExecutionListener listener) {
+			listener.executionSkipped((TestDescriptor) methodAware, changeImpact.getSkipReason(getBenchmarkName()));
+		}
+
+		private String getBenchmarkName() {
+			Method method = methodAware.getMethod();
+			return method.getDeclaringClass().getName() + "." + method.getName();
+		}
 	}
 
 	/**
 	 * {@link OutputFormat} that delegates to another {@link OutputFormat} and notifies {@link RunNotifier} about the
-	 * progress.
+	 * progress. Concurrent runs share listener and delegate but track their benchmark in progress independently.
 	 */
-	static class NotifyingOutputFormat implements OutputFormat {
+	static class NotifyingOutputFormat implements RoutingOutputFormat {
 
 		private final EngineExecutionListener listener;
 		private final CacheFunction descriptionResolver;
+		private final Baseline baseline;
 		private final OutputFormat delegate;
 		private final List<String> log = new CopyOnWriteArrayList<>();
-		private final Map<TestDescriptor, AtomicInteger> expectedContainerCount = new ConcurrentHashMap<>();
+		private final Map<TestDescriptor, AtomicInteger> expectedContainerCount;
+		private final Set<String> failedBenchmarks;
 
 		private volatile BenchmarkParams lastKnownBenchmark;
 		private volatile boolean recordOutput;
 
-		NotifyingOutputFormat(EngineExecutionListener listener, CacheFunction methods, OutputFormat delegate) {
+		NotifyingOutputFormat(EngineExecutionListener listener, CacheFunction methods, Baseline baseline,
+				OutputFormat delegate) {
+			this(listener, methods, baseline, delegate, new ConcurrentHashMap<>(), ConcurrentHashMap.newKeySet());
+		}
+
+		private NotifyingOutputFormat(EngineExecutionListener listener, CacheFunction methods, Baseline baseline,
+				OutputFormat delegate, Map<TestDescriptor, AtomicInteger> expectedContainerCount,
+				Set<String> failedBenchmarks) {
 			this.listener = listener;
 			this.descriptionResolver = methods;
+			this.baseline = baseline;
 			this.delegate = delegate;
+			this.expectedContainerCount = expectedContainerCount;
+			this.failedBenchmarks = failedBenchmarks;
+		}
+
+		@Override
+		public OutputFormat forRun() {
+			return new NotifyingOutputFormat(listener, descriptionResolver, baseline, delegate, expectedContainerCount,
+					failedBenchmarks);
+		}
+
+		/**
+		 * @return names of benchmarks that failed in any run.
+		 */
+		Set<String> getFailedBenchmarks() {
+			return failedBenchmarks;
 		}
 
 		@Override
@@ -278,6 +395,11 @@ public class JmhRunner {
 		@Override
 		public void iterationResult(BenchmarkParams benchParams, IterationParams params, int iteration,
 									IterationResult data) {
+
+			// report entries let IDEs and build tools show live progress per fixture
+			listener.reportingEntryPublished(descriptionResolver.apply(benchParams),
+					ReportEntry.from(ResultUtils.getIterationProgress(params, iteration, data)));
+
 			delegate.iterationResult(benchParams, params, iteration, data);
 		}
 
@@ -304,6 +426,11 @@ public class JmhRunner {
 			TestExecutionResult executionResult = getResult(result, lastKnownBenchmark);
 			TestDescriptor descriptor = getDescriptor(result, lastKnownBenchmark);
 
+			if (executionResult.getStatus() == TestExecutionResult.Status.FAILED) {
+				failedBenchmarks.add(result != null ? result.getParams().getBenchmark() : lastKnownBenchmark.getBenchmark());
+			}
+
+			publishSecondaryResults(descriptor, result);
 			listener.executionFinished(descriptor, executionResult);
 
 			notifyFinishedRecursively(descriptor, it -> listener.executionFinished(it, executionResult));
@@ -312,6 +439,15 @@ public class JmhRunner {
 			delegate.endBenchmark(result);
 		}
 
+		private void publishSecondaryResults(TestDescriptor descriptor, BenchmarkResult result) {
+
+			Map<String, String> secondaryResults = ResultUtils.getSecondaryResults(result);
+
+			if (!secondaryResults.isEmpty()) {
+				listener.reportingEntryPublished(descriptor, ReportEntry.from(secondaryResults));
+			}
+		}
+
 		private void notifyFinishedRecursively(TestDescriptor descriptor, Consumer<TestDescriptor> visitor) {
 
 			Optional<TestDescriptor> parent = descriptor.getParent();
@@ -342,7 +478,9 @@ public class JmhRunner {
 		private TestExecutionResult getResult(BenchmarkResult result, BenchmarkParams lastKnownBenchmark) {
 
 			if (result != null) {
-				return TestExecutionResult.successful();
+				return baseline.compare(result).map(it -> TestExecutionResult
+						.failed(new AssertionFailedError(it.getMessage(), it.getExpected(), it.getActual())))
+						.orElseGet(TestExecutionResult::successful);
 			}
 
 			if (lastKnownBenchmark != null) {
@@ -444,11 +582,25 @@ public class JmhRunner {
 	 */
 	static class CacheFunction implements Function<BenchmarkParams, TestDescriptor> {
 
-		private final Map<String, TestDescriptor> methodMap = new ConcurrentHashMap<>();
-		private final Collection<? extends TestDescriptor> methods;
+		private final BenchmarkIndex<TestDescriptor> index = new BenchmarkIndex<>();
+		private final JmhSupport support;
+
+		CacheFunction(Collection<? extends TestDescriptor> methods, JmhSupport support) {
+
+			this.support = support;
 
-		CacheFunction(Collection<? extends TestDescriptor> methods) {
-			this.methods = methods;
+			for (TestDescriptor method : methods) {
+
+				String benchmarkName = getBenchmarkName(method);
+				index.addMethod(benchmarkName, method);
+
+				for (TestDescriptor child : method.getChildren()) {
+
+					if (child instanceof BenchmarkFixtureDescriptor) {
+						index.addFixture(benchmarkName, ((BenchmarkFixtureDescriptor) child).getFixture().getFixture(), child);
+					}
+				}
+			}
 		}
 
 		/**
@@ -462,23 +614,12 @@ public class JmhRunner {
 
 			TestDescriptor descriptor = getBenchmarkDescriptor(benchmark);
 
-			if (descriptor instanceof ParametrizedBenchmarkMethodDescriptor) {
-
-				ParametrizedBenchmarkMethodDescriptor parametrized = (ParametrizedBenchmarkMethodDescriptor) descriptor;
-				Map<String, String> lookup = new HashMap<>();
-				for (String key : benchmark.getParamsKeys()) {
-					lookup.put(key, benchmark.getParam(key));
-				}
-
-				for (TestDescriptor child : parametrized.getChildren()) {
+			if (index.hasFixtures(benchmark.getBenchmark())) {
 
-					if (child instanceof BenchmarkFixtureDescriptor) {
-						BenchmarkFixtureDescriptor fixture = (BenchmarkFixtureDescriptor) child;
+				TestDescriptor fixture = index.getFixture(benchmark.getBenchmark(), support.getFixture(benchmark));
 
-						if (fixture.getFixture().getFixture().equals(lookup)) {
-							return fixture;
-						}
-					}
+				if (fixture != null) {
+					return fixture;
 				}
 			}
 
@@ -486,14 +627,7 @@ public class JmhRunner {
 		}
 
 		TestDescriptor getBenchmarkDescriptor(BenchmarkParams benchmark) {
-
-			return methodMap.computeIfAbsent(benchmark.getBenchmark(), key -> {
-
-				Optional<? extends TestDescriptor> method = methods.stream().filter(it -> getBenchmarkName(it).equals(key)).findFirst();
-
-				return method.orElseThrow(() -> new IllegalArgumentException(
-						String.format("Cannot resolve %s to a BenchmarkDescriptor!", benchmark.getBenchmark())));
-			});
+			return index.getMethod(benchmark.getBenchmark());
 		}
 
 		private String getBenchmarkName(TestDescriptor descriptor) {
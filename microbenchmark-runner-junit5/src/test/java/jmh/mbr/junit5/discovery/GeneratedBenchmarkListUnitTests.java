@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * http://www.eclipse.org/legal/epl-v20.html
+ */
+package jmh.mbr.junit5.discovery;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Map;
+
+import jmh.mbr.junit5.ParametrizedBenchmark;
+import jmh.mbr.junit5.PartiallyParametrizedBenchmark;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link GeneratedBenchmarkList}.
+ */
+class GeneratedBenchmarkListUnitTests {
+
+	@Test
+	void shouldReadBenchmarkClassesFromClassLoader() throws Exception {
+
+		GeneratedBenchmarkList benchmarkList = GeneratedBenchmarkList.fromClassLoader(getClass().getClassLoader()).get();
+
+		assertThat(benchmarkList.getClassNames()).contains(ParametrizedBenchmark.class.getName(),
+				PartiallyParametrizedBenchmark.class.getName());
+		assertThat(benchmarkList.getClassNames("jmh.mbr")).contains(ParametrizedBenchmark.class.getName());
+		assertThat(benchmarkList.getClassNames("jmh.mbr.junit")).isEmpty();
+	}
+
+	@Test
+	void shouldLoadNestedClassByCanonicalName() {
+
+		assertThat(GeneratedBenchmarkList.loadClass("java.util.Map.Entry", getClass().getClassLoader()))
+				.contains(Map.Entry.class);
+		assertThat(GeneratedBenchmarkList.loadClass("java.util.Unknown", getClass().getClassLoader())).isEmpty();
+	}
+}
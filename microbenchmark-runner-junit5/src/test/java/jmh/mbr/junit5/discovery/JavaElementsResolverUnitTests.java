@@ -11,6 +11,10 @@ package jmh.mbr.junit5.discovery;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.Collections;
+
 import jmh.mbr.junit5.PartiallyParametrizedBenchmark;
 import jmh.mbr.junit5.descriptor.BenchmarkClassDescriptor;
 import jmh.mbr.junit5.descriptor.BenchmarkMethodDescriptor;
@@ -58,6 +62,26 @@ class JavaElementsResolverUnitTests {
 		assertParametrizedMethod(classDescriptor);
 	}
 
+	@Test
+	void shouldResolveClassByClasspathRootSelector() throws Exception {
+
+		JavaElementsResolver resolver = new JavaElementsResolver(ENGINE,
+				ClassFilter.of(it -> it.equals(PartiallyParametrizedBenchmark.class)), ElementResolvers.getResolvers());
+
+		URI classpathRoot = PartiallyParametrizedBenchmark.class.getProtectionDomain().getCodeSource().getLocation()
+				.toURI();
+
+		resolver.resolveClasspathRoot(
+				DiscoverySelectors.selectClasspathRoots(Collections.singleton(Paths.get(classpathRoot))).get(0));
+
+		assertThat(ENGINE.getChildren()).hasSize(1);
+
+		TestDescriptor classDescriptor = ENGINE.getChildren().iterator().next();
+
+		assertBenchmarkClass(classDescriptor);
+		assertParametrizedMethod(classDescriptor);
+	}
+
 	@Test
 	void shouldResolveClassByClassSelector() {
 
@@ -11,18 +11,31 @@ package jmh.mbr.junit5.execution;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
+import jmh.mbr.core.Baseline;
+import jmh.mbr.core.FixtureSelection;
+import jmh.mbr.core.JmhSupport;
 import jmh.mbr.core.model.BenchmarkClass;
 import jmh.mbr.core.model.BenchmarkDescriptor;
 import jmh.mbr.core.model.BenchmarkDescriptorFactory;
+import jmh.mbr.core.model.BenchmarkFixture;
 import jmh.mbr.core.model.BenchmarkMethod;
+import jmh.mbr.core.model.ParametrizedBenchmarkMethod;
+import jmh.mbr.junit5.ParametrizedBenchmark;
 import jmh.mbr.junit5.descriptor.AbstractBenchmarkDescriptor;
 import jmh.mbr.junit5.descriptor.BenchmarkClassDescriptor;
+import jmh.mbr.junit5.descriptor.BenchmarkFixtureDescriptor;
 import jmh.mbr.junit5.descriptor.BenchmarkMethodDescriptor;
+import jmh.mbr.junit5.descriptor.ParametrizedBenchmarkMethodDescriptor;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.engine.extension.ExtensionRegistry;
@@ -33,6 +46,13 @@ import org.junit.platform.engine.TestExecutionResult;
 import org.junit.platform.engine.UniqueId;
 import org.junit.platform.engine.reporting.ReportEntry;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.runner.WorkloadParams;
+import org.openjdk.jmh.runner.format.OutputFormat;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.runner.options.VerboseMode;
 
 /**
  * Unit tests for {@link JmhRunner}.
@@ -82,6 +102,77 @@ public class JmhRunnerUnitTests {
 		assertThat(includePatterns).isEmpty();
 	}
 
+	@Test
+	void shouldRestrictRunToSelectedFixtures() {
+
+		BenchmarkClass benchmarkClass = BenchmarkDescriptorFactory.create(ParametrizedBenchmark.class).createDescriptor();
+		ParametrizedBenchmarkMethod method = (ParametrizedBenchmarkMethod) benchmarkClass.getChildren().get(0);
+		ParametrizedBenchmarkMethodDescriptor descriptor = new ParametrizedBenchmarkMethodDescriptor(
+				UniqueId.root("root", "root"), method);
+		String benchmark = ParametrizedBenchmark.class.getName() + ".foo";
+
+		addFixture(descriptor, method.getChildren().get(1));
+
+		FixtureSelection selection = JmhRunner.getSelectedFixtures(Collections.singletonList(descriptor));
+
+		assertThat(selection.isRestricted(benchmark)).isTrue();
+		assertThat(selection.getFixtureCount(benchmark)).isEqualTo(1);
+
+		addFixture(descriptor, method.getChildren().get(0));
+
+		assertThat(JmhRunner.getSelectedFixtures(Collections.singletonList(descriptor)).isEmpty()).isTrue();
+	}
+
+	@Test
+	void shouldAttributeFailuresOfConcurrentRunsToTheirFixture() {
+
+		BenchmarkClass benchmarkClass = BenchmarkDescriptorFactory.create(ParametrizedBenchmark.class).createDescriptor();
+		ParametrizedBenchmarkMethod method = (ParametrizedBenchmarkMethod) benchmarkClass.getChildren().get(0);
+		ParametrizedBenchmarkMethodDescriptor descriptor = new ParametrizedBenchmarkMethodDescriptor(
+				UniqueId.root("root", "root"), method);
+
+		addFixture(descriptor, method.getChildren().get(0));
+		addFixture(descriptor, method.getChildren().get(1));
+
+		RecordingEngineExecutionListener listener = new RecordingEngineExecutionListener();
+		JmhRunner.CacheFunction cache = new JmhRunner.CacheFunction(Collections.singletonList(descriptor),
+				new JmhSupport());
+		JmhRunner.NotifyingOutputFormat output = new JmhRunner.NotifyingOutputFormat(listener, cache, Baseline.none(),
+				OutputFormatFactory.createFormatInstance(new PrintStream(new ByteArrayOutputStream()), VerboseMode.SILENT));
+
+		OutputFormat first = output.forRun();
+		OutputFormat second = output.forRun();
+
+		first.startBenchmark(params("a"));
+		second.startBenchmark(params("b"));
+		first.println("<failure>");
+		first.println("Benchmark a failed");
+		first.endBenchmark(null);
+
+		TestDescriptor failed = cache.apply(params("a"));
+
+		assertThat(listener.finished).containsOnlyKeys(failed);
+		assertThat(listener.finished.get(failed).getThrowable()).hasValueSatisfying(
+				it -> assertThat(it).hasMessage("Benchmark a failed"));
+	}
+
+	private static BenchmarkParams params(String foo) {
+
+		WorkloadParams workload = new WorkloadParams();
+		workload.put("foo", foo, 0);
+
+		return new BenchmarkParams(ParametrizedBenchmark.class.getName() + ".foo", "bar", true, 1, new int[] { 1 },
+				Collections.singletonList("thread"), 1, 0, null, null, Mode.Throughput, workload, TimeUnit.MILLISECONDS,
+				1, "java", Collections.emptyList(), "1.8", "JDK", "1.8", "1.21", TimeValue.NONE);
+	}
+
+	private static void addFixture(ParametrizedBenchmarkMethodDescriptor descriptor, BenchmarkFixture fixture) {
+
+		UniqueId uniqueId = descriptor.getUniqueId().append("fixture", fixture.getDisplayName());
+		descriptor.addChild(new BenchmarkFixtureDescriptor(uniqueId, descriptor.getParametrizedMethod().getDescriptor(),
+				fixture));
+	}
+
 	private BenchmarkClassDescriptor createDescriptor(Class<?> javaClass) {
 
 		BenchmarkClass benchmarkClass = BenchmarkDescriptorFactory.create(javaClass).createDescriptor();
@@ -176,4 +267,34 @@ public class JmhRunnerUnitTests {
 
 		}
 	}
+
+	static class RecordingEngineExecutionListener implements EngineExecutionListener {
+
+		final Map<TestDescriptor, TestExecutionResult> finished = new LinkedHashMap<>();
+
+		@Override
+		public void dynamicTestRegistered(TestDescriptor testDescriptor) {
+
+		}
+
+		@Override
+		public void executionSkipped(TestDescriptor testDescriptor, String reason) {
+
+		}
+
+		@Override
+		public void executionStarted(TestDescriptor testDescriptor) {
+
+		}
+
+		@Override
+		public void executionFinished(TestDescriptor testDescriptor, TestExecutionResult testExecutionResult) {
+			finished.put(testDescriptor, testExecutionResult);
+		}
+
+		@Override
+		public void reportingEntryPublished(TestDescriptor testDescriptor, ReportEntry entry) {
+
+		}
+	}
 }